@@ -1,11 +1,18 @@
 package assemblers;
 
 import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
 
 import com.gargoylesoftware.htmlunit.HttpMethod;
 import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.html.HtmlAnchor;
+import com.gargoylesoftware.htmlunit.html.HtmlElement;
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import com.gargoylesoftware.htmlunit.util.NameValuePair;
 
@@ -13,14 +20,43 @@ import courses.CalendarEvent;
 import courses.CourseAssignment;
 import courses.CourseDocument;
 import courses.CourseElement;
+import downloads.Attachment;
+import engines.Engine;
+import engines.RawHttpEngine;
+import engines.RawLayout;
+import engines.RawPage;
+import scrapers.CalendarModes;
+import scrapers.OmnivoxScraper;
 
 /**
  * This abstract class is used to assemble the {@link CourseElement} from the
  * HtmlPages given. You need to extend this class and implement its methods. You
  * will receive the Html page corresponding to the method you are using.
+ * 
+ * An assembler must be stateless. The same assembler is used for many students
+ * and its methods are called from many threads at the same time, for different
+ * pages or for different rows of the same page. It must only keep fields that
+ * can't change or are safe to use from many threads (Ex: a {@link Selector} or
+ * a {@link DateParser}) and must not change the pages it reads.
  */
 public abstract class Assembler {
 
+	/*
+	 * The document rows and the course name of the Lea document page
+	 */
+	private static final String attachmentRows = "//*[@class='itemDataGrid' or @class='itemDataGridAltern']";
+	private static final String attachmentCourse = "//*[@class='TitrePageLigne2']";
+
+	/**
+	 * The cell holding the title of a document row.
+	 */
+	private static final Selector attachmentTitle = Selector.compile("./td[2]");
+
+	/**
+	 * The links of the Lea document page leading to the file of a document.
+	 */
+	private static final Pattern attachmentLink = Pattern.compile("(?i)(^|/)VisualiseDocument\\.aspx\\?");
+
 	/**
 	 * Assembles all of the documents in the Lea document page.
 	 * 
@@ -45,17 +81,265 @@ public abstract class Assembler {
 	 */
 	public abstract CourseAssignment[] assembleAssignments(HtmlPage page);
 
+	/**
+	 * Assembles all of the calendar event in the home page. The events are in the
+	 * current year.
+	 * 
+	 * @param page The Omnivox home page
+	 * 
+	 * @return All of the Calendar Events found in the page
+	 */
+	public CalendarEvent[] assembleCalendarEvents(HtmlPage page) {
+		return assembleCalendarEvents(page, Calendar.getInstance().get(Calendar.YEAR));
+	}
+
 	/**
 	 * Assembles all of the calendar event in the home page.
 	 * 
-	 * When given the home Page, this method needs to find all of the assignments in
-	 * the HtmlPage and format them to a CourseAssignment
+	 * When given the home Page, this method needs to find all of the events in the
+	 * HtmlPage and format them to a CalendarEvent. The page only shows the day and
+	 * the month of an event, so they are parsed with the given year. An event
+	 * that doesn't exist in the year (Ex: February 29) is dropped.
 	 * 
 	 * @param page The Omnivox home page
+	 * @param year The year the events are parsed with
+	 * 
+	 * @return All of the Calendar Events found in the page
+	 */
+	protected abstract CalendarEvent[] assembleCalendarEvents(HtmlPage page, int year);
+
+	/**
+	 * Assembles all of the calendar events in a calendar view of the home page.
+	 * 
+	 * The home page only shows the day and the month of an event, so the year is
+	 * taken from the view. An event shown in January of a December view belongs to
+	 * the next year and an event shown in December of a January view belongs to
+	 * the previous one.
+	 * 
+	 * The events are parsed with the year of the view, so the days of a leap year
+	 * are kept, and then moved to the year closest to the view.
+	 * 
+	 * @param page The Omnivox home page showing the view
+	 * @param view A date shown by the view
 	 * 
 	 * @return All of the Calendar Events found in the page
 	 */
-	public abstract CalendarEvent[] assembleCalendarEvents(HtmlPage page);
+	public CalendarEvent[] assembleCalendarEvents(HtmlPage page, Date view) {
+		if (view == null) {
+			throw new NullPointerException("View is null");
+		}
+
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(view);
+
+		CalendarEvent[] return_array = assembleCalendarEvents(page, calendar.get(Calendar.YEAR));
+
+		for (int i = 0; i < return_array.length; i++) {
+			CalendarEvent event = return_array[i];
+
+			if (event == null)
+				continue;
+
+			Date date = closestYear(event.getDate(), view);
+			if (!date.equals(event.getDate())) {
+				return_array[i] = new CalendarEvent(event.getCourseName(), event.getTitle(), date,
+						event.getDescription());
+			}
+		}
+
+		return return_array;
+	}
+
+	/**
+	 * Gets the name of the course of a Lea document or assignment page.
+	 * 
+	 * The default implementation has been written for Champlain and Maisonneuve.
+	 * 
+	 * @param page The Lea Document or Assignment page
+	 * 
+	 * @return The name of the course
+	 */
+	public String getCourseName(HtmlPage page) {
+		return TextNormalizer.canonical(page.<HtmlElement>getFirstByXPath("//*[@class='TitrePageLigne2']").asText());
+	}
+
+	/**
+	 * Reads the cells of every document row of the Lea document page. It is the
+	 * only part reading the page, so it must be called by a single thread.
+	 * 
+	 * @param page The Lea Document page
+	 * 
+	 * @return The course name and the cells of every document in the order they
+	 *         appear
+	 */
+	public abstract PageRows readDocumentRows(HtmlPage page);
+
+	/**
+	 * Assembles a range of the document rows read from a Lea document page. It
+	 * gives the same documents as {@link #assembleDocuments(HtmlPage)} for those
+	 * rows. It doesn't read the page, so many ranges can be assembled at the same
+	 * time.
+	 * 
+	 * @param rows The rows given by {@link #readDocumentRows(HtmlPage)}
+	 * @param from The index of the first row
+	 * @param to   The index after the last row
+	 * 
+	 * @return The Course Documents of the rows in the same order
+	 */
+	public abstract CourseDocument[] assembleDocuments(PageRows rows, int from, int to);
+
+	/**
+	 * Reads the cells of every assignment row of the Lea assignment page. It is
+	 * the only part reading the page, so it must be called by a single thread.
+	 * 
+	 * @param page The Lea Assignment page
+	 * 
+	 * @return The course name and the cells of every assignment in the order they
+	 *         appear
+	 */
+	public abstract PageRows readAssignmentRows(HtmlPage page);
+
+	/**
+	 * Assembles a range of the assignment rows read from a Lea assignment page. It
+	 * gives the same assignments as {@link #assembleAssignments(HtmlPage)} for
+	 * those rows. It doesn't read the page, so many ranges can be assembled at the
+	 * same time.
+	 * 
+	 * @param rows The rows given by {@link #readAssignmentRows(HtmlPage)}
+	 * @param from The index of the first row
+	 * @param to   The index after the last row
+	 * 
+	 * @return The Course Assignments of the rows in the same order
+	 */
+	public abstract CourseAssignment[] assembleAssignments(PageRows rows, int from, int to);
+
+	/**
+	 * Gets the elements of the Lea course pages the {@link RawHttpEngine} keeps
+	 * for the assembler.
+	 * 
+	 * The default implementation gives the layout of Champlain and Maisonneuve. It
+	 * needs to be overridden if the rows are different.
+	 * 
+	 * @return The layout of the pages
+	 */
+	public RawLayout getRawLayout() {
+		return RawLayout.lea();
+	}
+
+	/**
+	 * Assembles all of the documents in a Lea document page read by the
+	 * {@link RawHttpEngine}. It is used by the {@link Engine#RAW_HTTP} engine.
+	 * 
+	 * @param page The rows of the Lea Document page
+	 * 
+	 * @return All of the Course Documents found in the page
+	 */
+	public abstract CourseDocument[] assembleDocuments(RawPage page);
+
+	/**
+	 * Assembles all of the assignments in a Lea assignment page read by the
+	 * {@link RawHttpEngine}. It is used by the {@link Engine#RAW_HTTP} engine.
+	 * 
+	 * @param page The rows of the Lea Assignment page
+	 * 
+	 * @return All of the Course Assignments found in the page
+	 */
+	public abstract CourseAssignment[] assembleAssignments(RawPage page);
+
+	/**
+	 * Assembles the attached file of every document in the Lea document page.
+	 * 
+	 * The default implementation reads the document rows of Lea with
+	 * {@link #assembleAttachments(HtmlPage, String, String, Selector, Pattern)}
+	 * and the VisualiseDocument.aspx links. It has been written for Champlain and
+	 * Maisonneuve and needs to be overridden if the document rows are different.
+	 * 
+	 * @param page The Lea Document page
+	 * 
+	 * @return The attachments found in the page. The documents without a file are
+	 *         left out.
+	 */
+	public Attachment[] assembleAttachments(HtmlPage page) {
+		return assembleAttachments(page, attachmentRows, attachmentCourse, attachmentTitle, attachmentLink);
+	}
+
+	/**
+	 * Assembles the attached file of every document row. The file of a row is its
+	 * last link matching the pattern, since the file is in the rightmost column.
+	 * The links to other pages (Ex: a web link given by the teacher) are not files.
+	 * 
+	 * @param page       The Lea Document page
+	 * @param rowsXPath  The XPath of the document rows
+	 * @param courseName The XPath of the name of the course
+	 * @param titleCell  The cell holding the title of a row
+	 * @param link       Finds the hrefs leading to the file of a document
+	 * 
+	 * @return The attachments found in the page
+	 */
+	protected static Attachment[] assembleAttachments(HtmlPage page, String rowsXPath, String courseName,
+			Selector titleCell, Pattern link) {
+
+		List<HtmlElement> documents = page.getByXPath(rowsXPath);
+
+		HtmlElement courseElement = page.getFirstByXPath(courseName);
+		String course = courseElement == null ? ""
+				: TextNormalizer.canonical(TextNormalizer.clean(courseElement.asText()));
+
+		ArrayList<Attachment> attachments = new ArrayList<Attachment>(documents.size());
+
+		for (HtmlElement document : documents) {
+			String title = titleCell.text(document);
+			title = title == null ? "" : TextNormalizer.clean(title);
+
+			List<HtmlAnchor> anchors = document.getByXPath(".//a[@href]");
+			for (int i = anchors.size() - 1; i >= 0; i--) {
+				HtmlAnchor anchor = anchors.get(i);
+				String href = anchor.getHrefAttribute().strip();
+
+				if (!link.matcher(href).find())
+					continue;
+
+				try {
+					attachments.add(new Attachment(course, title, TextNormalizer.clean(anchor.asText()),
+							page.getFullyQualifiedUrl(href)));
+				} catch (MalformedURLException e) {
+					e.printStackTrace();
+				}
+				break;
+			}
+		}
+
+		return attachments.toArray(new Attachment[0]);
+	}
+
+	/**
+	 * Moves a date to the year that puts it the closest to the view. The day, the
+	 * month and the time are kept.
+	 * 
+	 * @param date The date with any year
+	 * @param view A date shown by the calendar view
+	 * 
+	 * @return The date less than 6 months away from the view
+	 */
+	protected static Date closestYear(Date date, Date view) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(view);
+		int year = calendar.get(Calendar.YEAR);
+		int month = calendar.get(Calendar.MONTH);
+
+		calendar.setTime(date);
+		int months = calendar.get(Calendar.MONTH) - month;
+		calendar.set(Calendar.YEAR, year);
+
+		// More than 6 months away means the other side of the new year
+		if (months > 6) {
+			calendar.add(Calendar.YEAR, -1);
+		} else if (months < -6) {
+			calendar.add(Calendar.YEAR, 1);
+		}
+
+		return calendar.getTime();
+	}
 
 	/**
 	 * Changes the calendar mode on the Omnivox homepage.
@@ -66,11 +350,20 @@ public abstract class Assembler {
 	 * This method has been tested with Champlain and Maisonneuve. If it generates
 	 * an error, it needs to be overriden.
 	 * 
+	 * If the page was marked by its scraper (see {@link CalendarModes}), the
+	 * scraper changes the mode and keeps the refreshed home page.
+	 * 
 	 * @param homePage The Omnivox Homepage
 	 * 
 	 * @return The refreshed homePage
 	 */
 	protected HtmlPage changeCalendar(HtmlPage homePage) {
+		// The scraper remembers the mode of the account
+		OmnivoxScraper scraper = CalendarModes.getScraper(homePage);
+		if (scraper != null) {
+			return scraper.refreshCalendar(homePage);
+		}
+
 		try {
 
 			// Make a request to change the calendar type
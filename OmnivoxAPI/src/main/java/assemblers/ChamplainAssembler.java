@@ -1,11 +1,9 @@
 package assemblers;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 import com.gargoylesoftware.htmlunit.html.DomText;
 import com.gargoylesoftware.htmlunit.html.HtmlElement;
@@ -14,6 +12,8 @@ import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import courses.CalendarEvent;
 import courses.CourseAssignment;
 import courses.CourseDocument;
+import engines.RawPage;
+import engines.RawRow;
 
 /**
  * This class extends the {@link Assembler} class with its own private methods
@@ -23,70 +23,157 @@ import courses.CourseDocument;
 public class ChamplainAssembler extends Assembler {
 
 	/**
-	 * Used to format the {@link Date} Objects using the format MMM d, yyyy for the
-	 * {@link CourseDocument} Object
+	 * Used to parse the {@link Date} of the {@link CourseDocument},
+	 * {@link CourseAssignment} and {@link CalendarEvent} Objects
 	 */
-	private static final SimpleDateFormat documentFormatter = new SimpleDateFormat("MMM d, yyyy", Locale.ENGLISH);
+	private static final DateParser dateParser = new DateParser();
 
-	/**
-	 * Used to format the {@link Date} Objects using the format MMM-d, yyyy for the
-	 * {@link CourseAssignment} Object
-	 */
-	private static final SimpleDateFormat assignmentFormatter = new SimpleDateFormat("MMM-d, yyyy", Locale.ENGLISH);
-
-	/**
-	 * Used to format the {@link Date} Objects using the format d MMMMMMMM yyyy for
-	 * the {@link CalendarEvent} Object
+	/*
+	 * The cells of a row compiled once instead of evaluating an XPath for every
+	 * row
 	 */
-	private static final SimpleDateFormat calendarEventFormatter = new SimpleDateFormat("d MMMMMMMM yyyy", Locale.ENGLISH);
+	private static final Selector documentTitle = Selector.compile("./td[2]/div/a");
+	private static final Selector documentDistributed = Selector.compile("./td[3]");
+	private static final Selector documentView = Selector.compile("./td[4]");
+	private static final Selector documentStar = Selector.compile("./td[1]/img");
+	private static final Selector assignmentTitle = Selector.compile("./td[2]");
+	private static final Selector assignmentDistributed = Selector.compile("./td[3]");
+	private static final Selector assignmentCheck = Selector.compile("./td/table/tbody/tr/td[2]/a");
+	private static final Selector assignmentStar = Selector.compile("./td[1]/img");
+	private static final Selector eventDay = Selector.compile("./div/div[2]");
+	private static final Selector eventMonth = Selector.compile("./div/div[3]");
+	private static final Selector eventTitle = Selector.compile("./div[3]/h3");
+	private static final Selector eventCourse = Selector.compile("./div[3]/div/span");
+	private static final Selector eventDescription = Selector.compile("./div[3]/div/text()");
 
 	@Override
 	public CourseDocument[] assembleDocuments(HtmlPage page) {
-		List<HtmlElement> documents = page.getByXPath("//*[@class='itemDataGrid' or @class='itemDataGridAltern']");
+		PageRows rows = readDocumentRows(page);
+		System.out.printf("Getting documents for %s...\n", rows.getCourseName());
 
-		String courseName = page.<HtmlElement>getFirstByXPath("//*[@class='TitrePageLigne2']").asText();
-		System.out.printf("Getting documents for %s...\n", courseName);
+		return assembleDocuments(rows, 0, rows.size());
+	}
 
-		CourseDocument[] return_array = new CourseDocument[documents.size()];
+	@Override
+	public PageRows readDocumentRows(HtmlPage page) {
+		List<HtmlElement> documents = page
+				.getByXPath("//*[@class='itemDataGrid' or @class='itemDataGridAltern']");
+		ArrayList<RowCells> rows = new ArrayList<RowCells>(documents.size());
 
-		int i = 0;
 		for (HtmlElement document : documents) {
 
-			String documentName = document.<HtmlElement>getFirstByXPath("./td[2]/div/a").asText();
-			String distributed = document.<HtmlElement>getFirstByXPath("./td[3]").asText();
-			String view = document.<HtmlElement>getFirstByXPath("./td[4]").asText();
+			String documentName = documentTitle.text(document);
+			String distributed = documentDistributed.text(document);
+			String view = documentView.text(document);
 
-			HtmlElement star = document.getFirstByXPath("./td[1]/img");
+			HtmlElement star = documentStar.first(document);
 			boolean seen = star == null;
 
-			return_array[i++] = formatDocument(courseName, documentName, distributed, view, seen);
+			rows.add(new RowCells(new String[] { documentName, distributed, view }, new boolean[] { seen }));
 
 		}
 
+		return new PageRows(getCourseName(page), rows);
+	}
+
+	@Override
+	public CourseDocument[] assembleDocuments(PageRows rows, int from, int to) {
+		CourseDocument[] return_array = new CourseDocument[to - from];
+
+		for (int i = from; i < to; i++) {
+			RowCells document = rows.getRow(i);
+
+			return_array[i - from] = formatDocument(rows.getCourseName(), document.getText(0), document.getText(1),
+					document.getText(2), document.getFlag(0));
+		}
+
 		return return_array;
 	}
 
 	@Override
 	public CourseAssignment[] assembleAssignments(HtmlPage page) {
-		List<HtmlElement> assignments = page.getByXPath("//*[@id='tabListeTravEtu']/tbody/tr[@height='30']");
+		PageRows rows = readAssignmentRows(page);
+		System.out.printf("Getting assignments for %s...\n", rows.getCourseName());
 
-		String courseName = page.<HtmlElement>getFirstByXPath("//*[@class='TitrePageLigne2']").asText();
-		System.out.printf("Getting assignments for %s...\n", courseName);
+		return assembleAssignments(rows, 0, rows.size());
+	}
 
-		CourseAssignment[] return_array = new CourseAssignment[assignments.size()];
+	@Override
+	public PageRows readAssignmentRows(HtmlPage page) {
+		List<HtmlElement> assignments = page.getByXPath("//*[@id='tabListeTravEtu']/tbody/tr[@height='30']");
+		ArrayList<RowCells> rows = new ArrayList<RowCells>(assignments.size());
 
-		int i = 0;
 		for (HtmlElement assignment : assignments) {
 
-			String title = assignment.<HtmlElement>getFirstByXPath("./td[2]").asText();
-			String distributed = assignment.<HtmlElement>getFirstByXPath("./td[3]").asText();
+			String title = assignmentTitle.text(assignment);
+			String distributed = assignmentDistributed.text(assignment);
 
-			HtmlElement check = assignment.<HtmlElement>getFirstByXPath("./td/table/tbody/tr/td[2]/a");
+			HtmlElement check = assignmentCheck.first(assignment);
 			boolean completed = check != null;
 
-			HtmlElement star = assignment.getFirstByXPath("./td[1]/img");
+			HtmlElement star = assignmentStar.first(assignment);
 			boolean seen = star == null;
 
+			rows.add(new RowCells(new String[] { title, distributed }, new boolean[] { seen, completed }));
+
+		}
+
+		return new PageRows(getCourseName(page), rows);
+	}
+
+	@Override
+	public CourseAssignment[] assembleAssignments(PageRows rows, int from, int to) {
+		CourseAssignment[] return_array = new CourseAssignment[to - from];
+
+		for (int i = from; i < to; i++) {
+			RowCells assignment = rows.getRow(i);
+
+			return_array[i - from] = formatAssignment(rows.getCourseName(), assignment.getText(0),
+					assignment.getText(1), assignment.getFlag(0), assignment.getFlag(1));
+		}
+
+		return return_array;
+	}
+
+	@Override
+	public CourseDocument[] assembleDocuments(RawPage page) {
+		String courseName = TextNormalizer.canonical(page.getCourseName());
+		System.out.printf("Getting documents for %s...\n", courseName);
+
+		CourseDocument[] return_array = new CourseDocument[page.getRows().size()];
+
+		int i = 0;
+		for (RawRow document : page.getRows()) {
+
+			String documentName = document.getLinkText(1);
+			String distributed = document.getText(2);
+			String view = document.getText(3);
+
+			boolean seen = !document.hasImage(0);
+
+			return_array[i++] = formatDocument(courseName, documentName, distributed, view, seen);
+
+		}
+
+		return return_array;
+	}
+
+	@Override
+	public CourseAssignment[] assembleAssignments(RawPage page) {
+		String courseName = TextNormalizer.canonical(page.getCourseName());
+		System.out.printf("Getting assignments for %s...\n", courseName);
+
+		CourseAssignment[] return_array = new CourseAssignment[page.getRows().size()];
+
+		int i = 0;
+		for (RawRow assignment : page.getRows()) {
+
+			String title = assignment.getText(1);
+			String distributed = assignment.getText(2);
+
+			boolean completed = assignment.hasNestedLink();
+			boolean seen = !assignment.hasImage(0);
+
 			return_array[i++] = formatAssignment(courseName, title, distributed, seen, completed);
 
 		}
@@ -95,7 +182,7 @@ public class ChamplainAssembler extends Assembler {
 	}
 
 	@Override
-	public CalendarEvent[] assembleCalendarEvents(HtmlPage page) {
+	protected CalendarEvent[] assembleCalendarEvents(HtmlPage page, int year) {
 
 		List<HtmlElement> events = page.getByXPath("//*[@id='tblCalendrierEvenement']/tbody/tr/td/div[4]/div");
 
@@ -110,18 +197,17 @@ public class ChamplainAssembler extends Assembler {
 		int i = 0;
 		for (HtmlElement event : events) {
 
-			String day = event.<HtmlElement>getFirstByXPath("./div/div[2]").asText();
-			String month = event.<HtmlElement>getFirstByXPath("./div/div[3]").asText();
-			int year = Calendar.getInstance().get(Calendar.YEAR);
+			String day = eventDay.text(event);
+			String month = eventMonth.text(event);
 
-			String title = event.<HtmlElement>getFirstByXPath("./div[3]/h3").asText();
+			String title = eventTitle.text(event);
 
 			// Checking if it is a course event or general event
-			HtmlElement courseNameElement = event.getFirstByXPath("./div[3]/div/span");
+			HtmlElement courseNameElement = eventCourse.first(event);
 			String courseName = courseNameElement == null ? "Not A Course" : courseNameElement.asText();
 
 			// Checking if there is a description
-			DomText descriptionDom = event.getFirstByXPath("./div[3]/div/text()");
+			DomText descriptionDom = eventDescription.first(event);
 			String description = descriptionDom == null ? "No Description" : descriptionDom.asText();
 
 			return_array[i++] = formatCalendarEvent(day, month, year, courseName, title, description);
@@ -149,14 +235,14 @@ public class ChamplainAssembler extends Assembler {
 		
 		
 		// Formatting the Strings
-		documentName = documentName.replace("\n", " ").replace("\r", "").strip();
-		distributed = distributed.replace("\n", " ").replace("\r", "");
+		documentName = TextNormalizer.clean(documentName);
+		distributed = TextNormalizer.flatten(distributed);
 		distributed = distributed.startsWith("from") ? distributed.substring(5, 17) : distributed.substring(6);
-		view = view.replace("\n", " ").replace("\r", "");
-		view = view.isBlank() ? "Link" : view.strip();
+		view = TextNormalizer.clean(view);
+		view = view.isEmpty() ? "Link" : view;
 
 		try {
-			return new CourseDocument(courseName, documentName, documentFormatter.parse(distributed), seen, view);
+			return new CourseDocument(courseName, documentName, dateParser.parse(distributed), seen, view);
 		} catch (ParseException e) {
 			e.printStackTrace();
 		}
@@ -179,12 +265,12 @@ public class ChamplainAssembler extends Assembler {
 			boolean seen, boolean completed) {
 
 		// Formatting the Strings
-		assignmentName = assignmentName.replace("\n", " ").replace("\r", "").strip();
-		distributed = distributed.replace("\n", " ").replace("\r", "");
+		assignmentName = TextNormalizer.clean(assignmentName);
+		distributed = TextNormalizer.flatten(distributed);
 		distributed = distributed.substring(0, 13);
 
 		try {
-			return new CourseAssignment(courseName, assignmentName, assignmentFormatter.parse(distributed), seen,
+			return new CourseAssignment(courseName, assignmentName, dateParser.parse(distributed), seen,
 					completed);
 		} catch (ParseException e) {
 			e.printStackTrace();
@@ -208,12 +294,12 @@ public class ChamplainAssembler extends Assembler {
 			String title, String description) {
 
 		// Formatting Strings
-		courseName = courseName.replace("\n", " ").replace("\r", "").strip();
-		title = title.replace("\n", " ").replace("\r", "").strip();
-		description = description.replace("\n", " ").replace("\r", "").strip();
+		courseName = TextNormalizer.canonical(TextNormalizer.clean(courseName));
+		title = TextNormalizer.clean(title);
+		description = TextNormalizer.clean(description);
 
 		try {
-			return new CalendarEvent(courseName, title, calendarEventFormatter.parse(day + " " + month + " " + year),
+			return new CalendarEvent(courseName, title, dateParser.parse(day + " " + month + " " + year),
 					description);
 		} catch (ParseException e) {
 			e.printStackTrace();
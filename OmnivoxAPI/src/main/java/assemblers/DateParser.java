@@ -0,0 +1,243 @@
+package assemblers;
+
+import java.text.ParseException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class parses the dates shown by Omnivox into {@link Date} objects for
+ * the assemblers.
+ *
+ * The dates are read as tokens instead of with a fixed pattern, so the same
+ * parser reads every format of Champlain and Maisonneuve:
+ * <ul>
+ * <li>Jan 10, 2021 and Jan-10, 2021</li>
+ * <li>10 January 2021</li>
+ * <li>3 fév 2020, 03-fév-2020 and 3 février 2020</li>
+ * </ul>
+ * The month is the word recognized from the French and English month names
+ * and abbreviations, the year is the number with 4 digits and the day is the
+ * other number. The date is built with {@link LocalDate} at the start of the day
+ * in the default time zone.
+ *
+ * More month names can be given to a parser for the abbreviations of a
+ * college. Ex: The {@link profiles.CollegeProfile} months.
+ *
+ * A course page repeats the same few dates, so the parsed dates are remembered
+ * by their text.
+ *
+ * This class is safe to use from many threads at the same time.
+ */
+public final class DateParser {
+
+	/**
+	 * The month of every French and English month name and abbreviation.
+	 */
+	private static final HashMap<String, Integer> months = new HashMap<String, Integer>();
+
+	static {
+		addMonth(1, "jan", "janv", "janvier", "january");
+		addMonth(2, "feb", "february", "fév", "févr", "février", "fev", "fevr", "fevrier");
+		addMonth(3, "mar", "mars", "march");
+		addMonth(4, "apr", "april", "avr", "avril");
+		addMonth(5, "may", "mai");
+		addMonth(6, "jun", "june", "juin");
+		addMonth(7, "jul", "july", "juil", "juillet");
+		addMonth(8, "aug", "august", "aoû", "août", "aou", "aout");
+		addMonth(9, "sep", "sept", "september", "septembre");
+		addMonth(10, "oct", "october", "octobre");
+		addMonth(11, "nov", "november", "novembre");
+		addMonth(12, "dec", "december", "déc", "décembre", "decembre");
+
+		// Maisonneuve shortens both June and July to jui, it was always read as July
+		addMonth(7, "jui");
+	}
+
+	/**
+	 * The maximum number of dates remembered. They are all forgotten when it is
+	 * reached.
+	 */
+	private final int maxEntries;
+
+	/**
+	 * The month names added to the shared ones for this parser.
+	 */
+	private final HashMap<String, Integer> extraMonths = new HashMap<String, Integer>();
+
+	/**
+	 * The time in milliseconds of every date already parsed by its text.
+	 */
+	private final ConcurrentHashMap<String, Long> parsed = new ConcurrentHashMap<String, Long>();
+
+	/*
+	 * Stats
+	 */
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Default constructor for the Date Parser remembering up to 1024 dates.
+	 */
+	public DateParser() {
+		this(1024);
+	}
+
+	/**
+	 * Constructor for the Date Parser.
+	 *
+	 * @param maxEntries The maximum number of dates remembered
+	 */
+	public DateParser(int maxEntries) {
+		this(maxEntries, new HashMap<String, Integer>());
+	}
+
+	/**
+	 * Constructor for the Date Parser with more month names.
+	 *
+	 * @param maxEntries The maximum number of dates remembered
+	 * @param months     The month from 1 to 12 of every name added to the shared
+	 *                   ones. They replace the shared ones with the same name.
+	 */
+	public DateParser(int maxEntries, Map<String, Integer> months) {
+		if (maxEntries < 0) {
+			throw new IllegalArgumentException("The maximum number of entries can't be negative");
+		}
+		if (months == null) {
+			throw new NullPointerException("Months is null");
+		}
+
+		for (Map.Entry<String, Integer> month : months.entrySet()) {
+			if (month.getValue() == null || month.getValue() < 1 || month.getValue() > 12) {
+				throw new IllegalArgumentException("Invalid month for " + month.getKey());
+			}
+			this.extraMonths.put(month.getKey().toLowerCase(Locale.ROOT), month.getValue());
+		}
+
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Parses the date.
+	 *
+	 * @param text The date as shown by Omnivox. Ex: Jan-10, 2021
+	 *
+	 * @return The date at the start of the day
+	 *
+	 * @throws ParseException If the text doesn't have a day, a month and a year
+	 */
+	public Date parse(String text) throws ParseException {
+		if (text == null) {
+			throw new NullPointerException("Date is null");
+		}
+
+		Long time = this.parsed.get(text);
+
+		if (time != null) {
+			this.hits.incrementAndGet();
+		} else {
+			this.misses.incrementAndGet();
+			time = read(text);
+
+			if (this.parsed.size() >= this.maxEntries) {
+				this.parsed.clear();
+			}
+			if (this.maxEntries > 0) {
+				this.parsed.put(text, time);
+			}
+		}
+
+		return new Date(time);
+	}
+
+	/**
+	 * Reads the tokens of the date.
+	 */
+	private long read(String text) throws ParseException {
+		int day = -1;
+		int month = -1;
+		int year = -1;
+
+		int length = text.length();
+		int i = 0;
+
+		while (i < length) {
+			char c = text.charAt(i);
+
+			if (Character.isDigit(c)) {
+				int start = i;
+				int number = 0;
+				for (; i < length && Character.isDigit(text.charAt(i)) && i - start < 9; i++) {
+					number = number * 10 + Character.digit(text.charAt(i), 10);
+				}
+
+				// The first number of 4 digits is the year, the first other is the day
+				if (i - start == 4 && year == -1) {
+					year = number;
+				} else if (i - start <= 2 && day == -1) {
+					day = number;
+				}
+
+			} else if (Character.isLetter(c)) {
+				int start = i;
+				for (; i < length && Character.isLetter(text.charAt(i)); i++)
+					;
+
+				if (month == -1) {
+					Integer found = getMonth(text.substring(start, i).toLowerCase(Locale.ROOT));
+					if (found != null) {
+						month = found;
+					}
+				}
+
+			} else {
+				i++;
+			}
+		}
+
+		if (day == -1 || month == -1 || year == -1) {
+			throw new ParseException("Unparseable date: \"" + text + "\"", 0);
+		}
+
+		try {
+			return LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		} catch (DateTimeException e) {
+			throw new ParseException("Invalid date: \"" + text + "\"", 0);
+		}
+	}
+
+	/**
+	 * Gets the month of the name from the extra months first.
+	 */
+	private Integer getMonth(String name) {
+		Integer month = this.extraMonths.get(name);
+		return month != null ? month : months.get(name);
+	}
+
+	private static void addMonth(int month, String... names) {
+		for (String name : names) {
+			months.put(name, month);
+		}
+	}
+
+	// Getters
+	/**
+	 * Gets the number of dates found in the remembered ones.
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Gets the number of dates that had to be read.
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+}
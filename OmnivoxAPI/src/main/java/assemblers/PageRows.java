@@ -0,0 +1,63 @@
+package assemblers;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds the rows of a Lea course page read by an {@link Assembler}.
+ *
+ * The HtmlUnit DOM isn't safe to read from many threads at the same time, so
+ * the cells of every row of a page are read by a single thread. The rows can
+ * then be assembled by any thread, in any range, since they don't need the page
+ * anymore.
+ */
+public class PageRows {
+
+	/**
+	 * The name of the course in the title of the page.
+	 */
+	private final String courseName;
+
+	/**
+	 * The cells of every row in the order they appear.
+	 */
+	private final List<RowCells> rows;
+
+	/**
+	 * The only constructor for the Page Rows.
+	 *
+	 * @param courseName The name of the course
+	 * @param rows       The cells of every row in the order they appear
+	 */
+	public PageRows(String courseName, List<RowCells> rows) {
+		if (courseName == null) {
+			throw new NullPointerException("Course Name is null");
+		}
+		if (rows == null) {
+			throw new NullPointerException("Rows is null");
+		}
+
+		this.courseName = courseName;
+		this.rows = Collections.unmodifiableList(rows);
+	}
+
+	/**
+	 * Gets the number of rows.
+	 */
+	public int size() {
+		return this.rows.size();
+	}
+
+	// Getters
+	public String getCourseName() {
+		return this.courseName;
+	}
+
+	public RowCells getRow(int index) {
+		return this.rows.get(index);
+	}
+
+	public List<RowCells> getRows() {
+		return this.rows;
+	}
+}
@@ -0,0 +1,234 @@
+package assemblers;
+
+import java.lang.reflect.Array;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+import courses.CourseAssignment;
+import courses.CourseDocument;
+
+/**
+ * This class assembles many course pages at the same time with a
+ * {@link ForkJoinPool}.
+ *
+ * The pages are split between the threads of the pool, and the pages with more
+ * rows than the rows per task are split again by ranges of rows. The results
+ * are always joined in the order of the pages and of the rows, so they are the
+ * same as assembling the pages one after another.
+ *
+ * The HtmlUnit DOM isn't safe to read from many threads, so a page is only
+ * read by the thread that took it: it reads the cells of every row into
+ * {@link PageRows} first. Only the formatting of the rows, the texts and the
+ * dates, is split by ranges. The assembler must be stateless since it is called
+ * by many threads at the same time.
+ */
+public class ParallelAssembly {
+
+	/**
+	 * The assembler called by every thread.
+	 */
+	private final Assembler assembler;
+
+	/**
+	 * The pool running the tasks.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The maximum number of rows of a page assembled by a single task.
+	 */
+	private final int rowsPerTask;
+
+	/**
+	 * The only constructor for the Parallel Assembly.
+	 *
+	 * @param assembler   The stateless assembler
+	 * @param pool        The pool running the tasks
+	 * @param rowsPerTask The maximum number of rows assembled by a single task
+	 */
+	public ParallelAssembly(Assembler assembler, ForkJoinPool pool, int rowsPerTask) {
+		if (assembler == null) {
+			throw new NullPointerException("Assembler is null");
+		}
+		if (pool == null) {
+			throw new NullPointerException("Pool is null");
+		}
+		if (rowsPerTask < 1) {
+			throw new IllegalArgumentException("There must be at least 1 row per task");
+		}
+
+		this.assembler = assembler;
+		this.pool = pool;
+		this.rowsPerTask = rowsPerTask;
+	}
+
+	/**
+	 * Assembles every page with the given function at the same time.
+	 *
+	 * The function can itself split the page with {@link #assembleDocuments} or
+	 * {@link #assembleAssignments} since it runs in the pool.
+	 *
+	 * @param pages    The course pages
+	 * @param type     The type of the results
+	 * @param assemble Assembles a single page
+	 *
+	 * @return The result of every page in the order of the pages
+	 */
+	public <T> T[] assemblePages(HtmlPage[] pages, Class<T> type, Function<HtmlPage, T> assemble) {
+		@SuppressWarnings("unchecked")
+		T[] return_array = (T[]) Array.newInstance(type, pages.length);
+
+		this.pool.invoke(new PageTask<T>(pages, 0, pages.length, return_array, assemble));
+
+		return return_array;
+	}
+
+	/**
+	 * Assembles the documents of the page by splitting its rows between the
+	 * threads of the pool.
+	 *
+	 * @param page The Lea Document page
+	 *
+	 * @return The Course Documents in the order of the rows
+	 */
+	public CourseDocument[] assembleDocuments(HtmlPage page) {
+		return assembleRows(this.assembler.readDocumentRows(page), CourseDocument.class,
+				this.assembler::assembleDocuments);
+	}
+
+	/**
+	 * Assembles the assignments of the page by splitting its rows between the
+	 * threads of the pool.
+	 *
+	 * @param page The Lea Assignment page
+	 *
+	 * @return The Course Assignments in the order of the rows
+	 */
+	public CourseAssignment[] assembleAssignments(HtmlPage page) {
+		return assembleRows(this.assembler.readAssignmentRows(page), CourseAssignment.class,
+				this.assembler::assembleAssignments);
+	}
+
+	/**
+	 * Assembles the rows in ranges. Runs the task directly if it is already in
+	 * the pool so the ranges are forked with the pages.
+	 */
+	private <T> T[] assembleRows(PageRows rows, Class<T> type, RangeAssembly<T> assemble) {
+		RowTask<T> task = new RowTask<T>(rows, 0, rows.size(), type, assemble);
+
+		if (ForkJoinTask.getPool() == this.pool) {
+			return task.compute();
+		}
+		return this.pool.invoke(task);
+	}
+
+	// Getters
+	public Assembler getAssembler() {
+		return this.assembler;
+	}
+
+	public ForkJoinPool getPool() {
+		return this.pool;
+	}
+
+	public int getRowsPerTask() {
+		return this.rowsPerTask;
+	}
+
+	/**
+	 * Assembles a range of the rows read from a page.
+	 */
+	@FunctionalInterface
+	private interface RangeAssembly<T> {
+		T[] assemble(PageRows rows, int from, int to);
+	}
+
+	/**
+	 * Assembles a range of pages, splitting it in halves until a single page is
+	 * left.
+	 */
+	private static final class PageTask<T> extends RecursiveTask<Void> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final HtmlPage[] pages;
+		private final int from;
+		private final int to;
+		private final T[] results;
+		private final Function<HtmlPage, T> assemble;
+
+		private PageTask(HtmlPage[] pages, int from, int to, T[] results, Function<HtmlPage, T> assemble) {
+			this.pages = pages;
+			this.from = from;
+			this.to = to;
+			this.results = results;
+			this.assemble = assemble;
+		}
+
+		@Override
+		protected Void compute() {
+			if (this.to - this.from == 1) {
+				this.results[this.from] = this.assemble.apply(this.pages[this.from]);
+				return null;
+			}
+			if (this.to <= this.from) {
+				return null;
+			}
+
+			int middle = (this.from + this.to) >>> 1;
+			invokeAll(new PageTask<T>(this.pages, this.from, middle, this.results, this.assemble),
+					new PageTask<T>(this.pages, middle, this.to, this.results, this.assemble));
+			return null;
+		}
+	}
+
+	/**
+	 * Assembles a range of rows of a page, splitting it in halves until it has no
+	 * more than the rows per task.
+	 */
+	private final class RowTask<T> extends RecursiveTask<T[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final PageRows rows;
+		private final int from;
+		private final int to;
+		private final Class<T> type;
+		private final RangeAssembly<T> assemble;
+
+		private RowTask(PageRows rows, int from, int to, Class<T> type, RangeAssembly<T> assemble) {
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+			this.type = type;
+			this.assemble = assemble;
+		}
+
+		@Override
+		protected T[] compute() {
+			if (this.to - this.from <= ParallelAssembly.this.rowsPerTask) {
+				return this.assemble.assemble(this.rows, this.from, this.to);
+			}
+
+			int middle = (this.from + this.to) >>> 1;
+			RowTask<T> left = new RowTask<T>(this.rows, this.from, middle, this.type, this.assemble);
+			RowTask<T> right = new RowTask<T>(this.rows, middle, this.to, this.type, this.assemble);
+
+			right.fork();
+			T[] first = left.compute();
+			T[] second = right.join();
+
+			// Joining the halves in the order of the rows
+			@SuppressWarnings("unchecked")
+			T[] return_array = (T[]) Array.newInstance(this.type, first.length + second.length);
+			System.arraycopy(first, 0, return_array, 0, first.length);
+			System.arraycopy(second, 0, return_array, first.length, second.length);
+
+			return return_array;
+		}
+	}
+}
@@ -0,0 +1,381 @@
+package assemblers;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gargoylesoftware.htmlunit.html.DomText;
+import com.gargoylesoftware.htmlunit.html.HtmlElement;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+import courses.CalendarEvent;
+import courses.CourseAssignment;
+import courses.CourseDocument;
+import downloads.Attachment;
+import engines.RawLayout;
+import engines.RawPage;
+import engines.RawRow;
+import profiles.CollegeProfile;
+import profiles.ProfileSource;
+
+/**
+ * This class extends the {@link Assembler} class for any college described by
+ * a {@link CollegeProfile}. The XPaths, the cells read by both engines, the
+ * attached files and the dates all come from the current profile of its
+ * {@link ProfileSource}, already compiled, so it reads the rows as fast as an
+ * assembler written for the college.
+ *
+ * The profile is taken once for every page, so a page reloaded at the same time
+ * is never read with two profiles.
+ */
+public class ProfileAssembler extends Assembler {
+
+	/**
+	 * Gives the current profile of the college.
+	 */
+	private final ProfileSource source;
+
+	/**
+	 * Constructor for a Profile Assembler with a profile that never changes.
+	 *
+	 * @param profile The profile of the college
+	 */
+	public ProfileAssembler(CollegeProfile profile) {
+		this(new ProfileSource(profile));
+	}
+
+	/**
+	 * Constructor for the Profile Assembler.
+	 *
+	 * @param source Gives the current profile of the college
+	 */
+	public ProfileAssembler(ProfileSource source) {
+		if (source == null) {
+			throw new NullPointerException("Source is null");
+		}
+
+		this.source = source;
+	}
+
+	@Override
+	public String getCourseName(HtmlPage page) {
+		return getCourseName(this.source.get(), page);
+	}
+
+	private static String getCourseName(CollegeProfile profile, HtmlPage page) {
+		return TextNormalizer.canonical(page.<HtmlElement>getFirstByXPath(profile.getCourseName()).asText());
+	}
+
+	@Override
+	public CourseDocument[] assembleDocuments(HtmlPage page) {
+		PageRows rows = readDocumentRows(page);
+		System.out.printf("Getting documents for %s...\n", rows.getCourseName());
+
+		return assembleDocuments(rows, 0, rows.size());
+	}
+
+	@Override
+	public PageRows readDocumentRows(HtmlPage page) {
+		CollegeProfile profile = this.source.get();
+		List<HtmlElement> documents = page.getByXPath(profile.getDocumentRows());
+		ArrayList<RowCells> rows = new ArrayList<RowCells>(documents.size());
+
+		for (HtmlElement document : documents) {
+
+			String documentName = profile.getDocumentTitle().text(document);
+			String distributed = profile.getDocumentDistributed().text(document);
+			String view = profile.getDocumentView().text(document);
+
+			HtmlElement star = profile.getDocumentStar().first(document);
+			boolean seen = star == null;
+
+			rows.add(new RowCells(new String[] { documentName, distributed, view }, new boolean[] { seen }));
+
+		}
+
+		return new ProfileRows(getCourseName(profile, page), rows, profile);
+	}
+
+	@Override
+	public CourseDocument[] assembleDocuments(PageRows rows, int from, int to) {
+		CollegeProfile profile = getProfile(rows);
+		CourseDocument[] return_array = new CourseDocument[to - from];
+
+		for (int i = from; i < to; i++) {
+			RowCells document = rows.getRow(i);
+
+			return_array[i - from] = formatDocument(profile, rows.getCourseName(), document.getText(0),
+					document.getText(1), document.getText(2), document.getFlag(0));
+		}
+
+		return return_array;
+	}
+
+	@Override
+	public CourseAssignment[] assembleAssignments(HtmlPage page) {
+		PageRows rows = readAssignmentRows(page);
+		System.out.printf("Getting assignments for %s...\n", rows.getCourseName());
+
+		return assembleAssignments(rows, 0, rows.size());
+	}
+
+	@Override
+	public PageRows readAssignmentRows(HtmlPage page) {
+		CollegeProfile profile = this.source.get();
+		List<HtmlElement> assignments = page.getByXPath(profile.getAssignmentRows());
+		ArrayList<RowCells> rows = new ArrayList<RowCells>(assignments.size());
+
+		for (HtmlElement assignment : assignments) {
+
+			String title = profile.getAssignmentTitle().text(assignment);
+			String distributed = profile.getAssignmentDistributed().text(assignment);
+
+			HtmlElement check = profile.getAssignmentCheck().first(assignment);
+			boolean completed = check != null;
+
+			HtmlElement star = profile.getAssignmentStar().first(assignment);
+			boolean seen = star == null;
+
+			rows.add(new RowCells(new String[] { title, distributed }, new boolean[] { seen, completed }));
+
+		}
+
+		return new ProfileRows(getCourseName(profile, page), rows, profile);
+	}
+
+	@Override
+	public CourseAssignment[] assembleAssignments(PageRows rows, int from, int to) {
+		CollegeProfile profile = getProfile(rows);
+		CourseAssignment[] return_array = new CourseAssignment[to - from];
+
+		for (int i = from; i < to; i++) {
+			RowCells assignment = rows.getRow(i);
+
+			return_array[i - from] = formatAssignment(profile, rows.getCourseName(), assignment.getText(0),
+					assignment.getText(1), assignment.getFlag(0), assignment.getFlag(1));
+		}
+
+		return return_array;
+	}
+
+	@Override
+	public RawLayout getRawLayout() {
+		return this.source.get().getRawLayout();
+	}
+
+	@Override
+	public CourseDocument[] assembleDocuments(RawPage page) {
+		CollegeProfile profile = this.source.get();
+		String courseName = TextNormalizer.canonical(page.getCourseName());
+		System.out.printf("Getting documents for %s...\n", courseName);
+
+		CourseDocument[] return_array = new CourseDocument[page.getRows().size()];
+
+		int i = 0;
+		for (RawRow document : page.getRows()) {
+
+			int titleCell = profile.getRawDocumentTitle();
+			String documentName = profile.isRawDocumentLink() ? document.getLinkText(titleCell)
+					: document.getText(titleCell);
+			String distributed = document.getText(profile.getRawDocumentDistributed());
+			String view = document.getText(profile.getRawDocumentView());
+
+			boolean seen = !document.hasImage(profile.getRawDocumentStar());
+
+			return_array[i++] = formatDocument(profile, courseName, documentName, distributed, view, seen);
+
+		}
+
+		return return_array;
+	}
+
+	@Override
+	public CourseAssignment[] assembleAssignments(RawPage page) {
+		CollegeProfile profile = this.source.get();
+		String courseName = TextNormalizer.canonical(page.getCourseName());
+		System.out.printf("Getting assignments for %s...\n", courseName);
+
+		CourseAssignment[] return_array = new CourseAssignment[page.getRows().size()];
+
+		int i = 0;
+		for (RawRow assignment : page.getRows()) {
+
+			String title = assignment.getText(profile.getRawAssignmentTitle());
+			String distributed = assignment.getText(profile.getRawAssignmentDistributed());
+
+			boolean completed = assignment.hasNestedLink();
+			boolean seen = !assignment.hasImage(profile.getRawAssignmentStar());
+
+			return_array[i++] = formatAssignment(profile, courseName, title, distributed, seen, completed);
+
+		}
+
+		return return_array;
+	}
+
+	@Override
+	protected CalendarEvent[] assembleCalendarEvents(HtmlPage page, int year) {
+		CollegeProfile profile = this.source.get();
+
+		List<HtmlElement> events = page.getByXPath(profile.getCalendarEvents());
+
+		// If the user has the wrong calendar type
+		if (events.size() == 0) {
+			page = changeCalendar(page);
+			events = page.getByXPath(profile.getCalendarEvents());
+		}
+
+		CalendarEvent[] return_array = new CalendarEvent[events.size()];
+
+		int i = 0;
+		for (HtmlElement event : events) {
+
+			String day = profile.getEventDay().text(event);
+			String month = profile.getEventMonth().text(event);
+
+			String title = profile.getEventTitle().text(event);
+
+			// Checking if it is a course event or general event
+			HtmlElement courseNameElement = profile.getEventCourse().first(event);
+			String courseName = courseNameElement == null ? "Not A Course" : courseNameElement.asText();
+
+			// Checking if there is a description
+			DomText descriptionDom = profile.getEventDescription().first(event);
+			String description = descriptionDom == null ? "No Description" : descriptionDom.asText();
+
+			return_array[i++] = formatCalendarEvent(profile, day, month, year, courseName, title, description);
+
+		}
+
+		return return_array;
+	}
+
+	@Override
+	public Attachment[] assembleAttachments(HtmlPage page) {
+		CollegeProfile profile = this.source.get();
+
+		return assembleAttachments(page, profile.getDocumentRows(), profile.getCourseName(),
+				profile.getAttachmentTitle(), profile.getAttachmentLink());
+	}
+
+	/**
+	 * Gets the profile the rows were read with.
+	 */
+	private CollegeProfile getProfile(PageRows rows) {
+		return rows instanceof ProfileRows ? ((ProfileRows) rows).profile : this.source.get();
+	}
+
+	/**
+	 * Formats the given Strings and parses them into a {@link CourseDocument}
+	 * object
+	 *
+	 * @param profile      The profile the row was read with
+	 * @param courseName   Name of the course the document belongs to
+	 * @param documentName Title of the document
+	 * @param distributed  Date distributed
+	 * @param view         The title of the document (will be set to link if its
+	 *                     empty)
+	 * @param seen         If the document is seen or not
+	 *
+	 * @return The formatted CourseDocument object
+	 */
+	private static CourseDocument formatDocument(CollegeProfile profile, String courseName, String documentName,
+			String distributed, String view, boolean seen) {
+
+		// Formatting the Strings
+		documentName = TextNormalizer.clean(documentName);
+		distributed = TextNormalizer.flatten(distributed);
+		distributed = CollegeProfile.cutDate(profile.getDocumentDate(), distributed);
+		view = TextNormalizer.clean(view);
+		view = view.isEmpty() ? "Link" : view;
+
+		try {
+			return new CourseDocument(courseName, documentName, profile.getDateParser().parse(distributed), seen,
+					view);
+		} catch (ParseException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Formats the given Strings and parses them into a {@link CourseAssignment}
+	 * object
+	 *
+	 * @param profile        The profile the row was read with
+	 * @param courseName     Name of the course the assignment belongs to
+	 * @param assignmentName Title of the assignment
+	 * @param distributed    Date distributed
+	 * @param completed      If the assignment has been submitted
+	 * @param seen           If the assignment is seen or not
+	 *
+	 * @return The formatted CourseAssignment object
+	 */
+	private static CourseAssignment formatAssignment(CollegeProfile profile, String courseName,
+			String assignmentName, String distributed, boolean seen, boolean completed) {
+
+		// Formatting the Strings
+		assignmentName = TextNormalizer.clean(assignmentName);
+		distributed = TextNormalizer.flatten(distributed);
+		distributed = CollegeProfile.cutDate(profile.getAssignmentDate(), distributed);
+
+		try {
+			return new CourseAssignment(courseName, assignmentName, profile.getDateParser().parse(distributed), seen,
+					completed);
+		} catch (ParseException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Formats the given Strings into a {@link CalendarEvent} object
+	 *
+	 * @param profile     The profile the event was read with
+	 * @param day         The day as a number
+	 * @param month       The month as the full month name
+	 * @param year        The year as a number
+	 * @param courseName  The course name
+	 * @param title       The title of the event
+	 * @param description The description of the event
+	 *
+	 * @return The formatted CalendarEvent object
+	 */
+	private static CalendarEvent formatCalendarEvent(CollegeProfile profile, String day, String month, int year,
+			String courseName, String title, String description) {
+
+		// Formatting Strings
+		courseName = TextNormalizer.canonical(TextNormalizer.clean(courseName));
+		title = TextNormalizer.clean(title);
+		description = TextNormalizer.clean(description);
+
+		try {
+			return new CalendarEvent(courseName, title,
+					profile.getDateParser().parse(day + " " + month + " " + year), description);
+		} catch (ParseException e) {
+			e.printStackTrace();
+		}
+
+		return null;
+	}
+
+	// Getters
+	public ProfileSource getSource() {
+		return this.source;
+	}
+
+	/**
+	 * The rows of a page with the profile they were read with, so they are
+	 * assembled with the same one.
+	 */
+	private static final class ProfileRows extends PageRows {
+
+		private final CollegeProfile profile;
+
+		private ProfileRows(String courseName, List<RowCells> rows, CollegeProfile profile) {
+			super(courseName, rows);
+			this.profile = profile;
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+package assemblers;
+
+/**
+ * This class holds the cells of a row of a Lea course page once an
+ * {@link Assembler} has read them from the HtmlUnit DOM.
+ *
+ * The texts are kept as they were read, they are only formatted when the row
+ * is assembled. The flags are the checks made on the row. Ex: If the document
+ * has the star of a new document
+ *
+ * This class is final.
+ */
+public final class RowCells {
+
+	/**
+	 * The text of every cell read.
+	 */
+	private final String[] texts;
+
+	/**
+	 * The result of every check made on the row.
+	 */
+	private final boolean[] flags;
+
+	/**
+	 * The only constructor for the Row Cells.
+	 *
+	 * @param texts The text of every cell read
+	 * @param flags The result of every check made on the row
+	 */
+	public RowCells(String[] texts, boolean[] flags) {
+		if (texts == null) {
+			throw new NullPointerException("Texts is null");
+		}
+		if (flags == null) {
+			throw new NullPointerException("Flags is null");
+		}
+
+		this.texts = texts;
+		this.flags = flags;
+	}
+
+	// Getters
+	public String getText(int index) {
+		return this.texts[index];
+	}
+
+	public boolean getFlag(int index) {
+		return this.flags[index];
+	}
+}
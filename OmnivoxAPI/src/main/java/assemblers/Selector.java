@@ -0,0 +1,192 @@
+package assemblers;
+
+import java.util.ArrayList;
+
+import com.gargoylesoftware.htmlunit.html.DomElement;
+import com.gargoylesoftware.htmlunit.html.DomNode;
+import com.gargoylesoftware.htmlunit.html.DomText;
+
+/**
+ * This class is a relative XPath compiled once into a walk of the children of
+ * a node. It replaces the {@code getFirstByXPath} calls made on every row by the
+ * assemblers, since HtmlUnit parses and evaluates the expression again at every
+ * call.
+ *
+ * Only the child steps used by the assemblers are supported:
+ * <ul>
+ * <li>{@code ./td[2]/div/a}: Elements by name with an optional position</li>
+ * <li>{@code ./*[3]}: Any element with an optional position</li>
+ * <li>{@code ./div[3]/div/text()}: A text node as the last step</li>
+ * </ul>
+ *
+ * Like {@code getFirstByXPath}, the first node in the document order is found.
+ * A step without a position tries every matching child until the rest of the
+ * path matches.
+ *
+ * This class is Immutable and final.
+ */
+public final class Selector {
+
+	/**
+	 * The name of every step or null for the text step. "*" matches any element.
+	 */
+	private final String[] names;
+
+	/**
+	 * The position of every step starting at 1 or 0 for any position.
+	 */
+	private final int[] positions;
+
+	/**
+	 * The expression the selector was compiled from.
+	 */
+	private final String xpath;
+
+	private Selector(String xpath, String[] names, int[] positions) {
+		this.xpath = xpath;
+		this.names = names;
+		this.positions = positions;
+	}
+
+	/**
+	 * Compiles the relative XPath into a selector.
+	 *
+	 * @param xpath The XPath relative to the node. Ex: ./td[2]/div/a
+	 *
+	 * @return The compiled selector
+	 *
+	 * @throws IllegalArgumentException If the XPath uses something else than
+	 *                                  child steps
+	 */
+	public static Selector compile(String xpath) throws IllegalArgumentException {
+		if (xpath == null) {
+			throw new NullPointerException("XPath is null");
+		}
+
+		String path = xpath.strip();
+		if (path.startsWith("./")) {
+			path = path.substring(2);
+		}
+		if (path.isEmpty() || path.startsWith("/") || path.contains("//")) {
+			throw new IllegalArgumentException("Only relative child steps are supported: " + xpath);
+		}
+
+		String[] steps = path.split("/");
+		ArrayList<String> names = new ArrayList<String>(steps.length);
+		int[] positions = new int[steps.length];
+
+		for (int i = 0; i < steps.length; i++) {
+			String step = steps[i];
+
+			if (step.equals("text()")) {
+				if (i != steps.length - 1) {
+					throw new IllegalArgumentException("text() must be the last step: " + xpath);
+				}
+				names.add(null);
+				continue;
+			}
+
+			int bracket = step.indexOf('[');
+			if (bracket >= 0) {
+				if (!step.endsWith("]")) {
+					throw new IllegalArgumentException("Invalid step " + step + " in " + xpath);
+				}
+
+				try {
+					positions[i] = Integer.parseInt(step.substring(bracket + 1, step.length() - 1));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Only positions are supported in " + xpath);
+				}
+				if (positions[i] < 1) {
+					throw new IllegalArgumentException("Positions start at 1 in " + xpath);
+				}
+
+				step = step.substring(0, bracket);
+			}
+
+			if (!step.equals("*") && !step.matches("[A-Za-z][A-Za-z0-9]*")) {
+				throw new IllegalArgumentException("Invalid step " + step + " in " + xpath);
+			}
+
+			names.add(step.toLowerCase());
+		}
+
+		return new Selector(xpath, names.toArray(new String[0]), positions);
+	}
+
+	/**
+	 * Finds the first node matching the selector under the given node.
+	 *
+	 * @param node The node the selector is relative to. Ex: A row of a table
+	 *
+	 * @return The node found or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends DomNode> T first(DomNode node) {
+		return node == null ? null : (T) find(node, 0);
+	}
+
+	/**
+	 * Gets the text of the first node matching the selector.
+	 *
+	 * @param node The node the selector is relative to
+	 *
+	 * @return The text of the node found or null if there is none
+	 */
+	public String text(DomNode node) {
+		DomNode found = first(node);
+		return found == null ? null : found.asText();
+	}
+
+	/**
+	 * Walks the children of the node for the given step.
+	 */
+	private DomNode find(DomNode node, int step) {
+		if (step == this.names.length) {
+			return node;
+		}
+
+		String name = this.names[step];
+		int position = this.positions[step];
+		int count = 0;
+
+		for (DomNode child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (!matches(child, name))
+				continue;
+
+			count++;
+			if (position != 0 && count != position)
+				continue;
+
+			DomNode found = find(child, step + 1);
+
+			// Only the child at the position can match
+			if (found != null || position != 0) {
+				return found;
+			}
+		}
+
+		return null;
+	}
+
+	private static boolean matches(DomNode child, String name) {
+		if (name == null) {
+			return child instanceof DomText;
+		}
+		if (!(child instanceof DomElement)) {
+			return false;
+		}
+		return name.equals("*") || name.equalsIgnoreCase(((DomElement) child).getLocalName());
+	}
+
+	// Getters
+	public String getXPath() {
+		return this.xpath;
+	}
+
+	// Overrides
+	@Override
+	public String toString() {
+		return this.xpath;
+	}
+}
@@ -0,0 +1,202 @@
+package assemblers;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class cleans the texts read from the Omnivox pages for the assemblers.
+ *
+ * A text is cleaned in a single pass over its chars instead of chaining
+ * {@code replace("\n", " ").replace("\r", "").strip()}, which builds a new
+ * String at every step. A text that doesn't need to be cleaned is returned as
+ * it is.
+ *
+ * The texts repeated by many elements, like the course names, are made
+ * canonical through a shared pool so every element of every student holds the
+ * same String instead of its own copy. The pool always gives the constants of
+ * the assemblers ("Link", "No Description" and "Not A Course") for the same
+ * texts. It is emptied when it reaches its maximum size, like the
+ * {@link DateParser}.
+ *
+ * This class is safe to use from many threads at the same time.
+ */
+public final class TextNormalizer {
+
+	/**
+	 * The texts always given by the pool.
+	 */
+	private static final String[] constants = { "Link", "No Description", "Not A Course" };
+
+	/**
+	 * The maximum number of texts in the pool.
+	 */
+	private static final int maxEntries = 4096;
+
+	/**
+	 * The canonical String of every text by itself.
+	 */
+	private static final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<String, String>();
+
+	/*
+	 * Stats
+	 */
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+
+	static {
+		addConstants();
+	}
+
+	private TextNormalizer() {
+	}
+
+	/**
+	 * Replaces the line feeds by spaces, removes the carriage returns and strips
+	 * the white space at both ends. It gives the same text as
+	 * {@code text.replace("\n", " ").replace("\r", "").strip()}.
+	 *
+	 * @param text The text read from the page
+	 *
+	 * @return The cleaned text or the same text if nothing needed to change
+	 */
+	public static String clean(String text) {
+		if (text == null) {
+			throw new NullPointerException("Text is null");
+		}
+
+		int length = text.length();
+		char[] chars = null;
+		int size = 0;
+
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+
+			if (chars == null) {
+				if (c != '\n' && c != '\r')
+					continue;
+
+				// Only copied once there is something to change
+				chars = new char[length];
+				text.getChars(0, i, chars, 0);
+				size = i;
+			}
+
+			if (c == '\n') {
+				chars[size++] = ' ';
+			} else if (c != '\r') {
+				chars[size++] = c;
+			}
+		}
+
+		if (chars == null) {
+			return text.strip();
+		}
+
+		int start = 0;
+		while (start < size && Character.isWhitespace(chars[start])) {
+			start++;
+		}
+		while (size > start && Character.isWhitespace(chars[size - 1])) {
+			size--;
+		}
+
+		return new String(chars, start, size - start);
+	}
+
+	/**
+	 * Replaces the line feeds by spaces and removes the carriage returns without
+	 * stripping the text, so the positions of a date cut out of it stay the same.
+	 * It gives the same text as {@code text.replace("\n", " ").replace("\r", "")}.
+	 *
+	 * @param text The text read from the page
+	 *
+	 * @return The flattened text or the same text if nothing needed to change
+	 */
+	public static String flatten(String text) {
+		if (text == null) {
+			throw new NullPointerException("Text is null");
+		}
+
+		int length = text.length();
+		int first = 0;
+		while (first < length && text.charAt(first) != '\n' && text.charAt(first) != '\r') {
+			first++;
+		}
+		if (first == length) {
+			return text;
+		}
+
+		StringBuilder flattened = new StringBuilder(length);
+		flattened.append(text, 0, first);
+
+		for (int i = first; i < length; i++) {
+			char c = text.charAt(i);
+
+			if (c == '\n') {
+				flattened.append(' ');
+			} else if (c != '\r') {
+				flattened.append(c);
+			}
+		}
+
+		return flattened.toString();
+	}
+
+	/**
+	 * Gives the canonical String of the text from the pool. The text is added to
+	 * the pool if it isn't in it yet.
+	 *
+	 * @param text The text read from the page. Ex: A course name
+	 *
+	 * @return The canonical String equal to the text
+	 */
+	public static String canonical(String text) {
+		if (text == null) {
+			throw new NullPointerException("Text is null");
+		}
+
+		String found = pool.get(text);
+
+		if (found != null) {
+			hits.incrementAndGet();
+			return found;
+		}
+		misses.incrementAndGet();
+
+		if (pool.size() >= maxEntries) {
+			pool.clear();
+			addConstants();
+		}
+
+		found = pool.putIfAbsent(text, text);
+		return found != null ? found : text;
+	}
+
+	private static void addConstants() {
+		for (String constant : constants) {
+			pool.put(constant, constant);
+		}
+	}
+
+	// Getters
+	/**
+	 * Gets the number of texts found in the pool.
+	 */
+	public static long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of texts added to the pool.
+	 */
+	public static long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Gets the number of texts in the pool.
+	 */
+	public static int getPoolSize() {
+		return pool.size();
+	}
+}
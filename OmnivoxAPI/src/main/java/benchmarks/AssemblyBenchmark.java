@@ -0,0 +1,113 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+import assemblers.Assembler;
+import assemblers.ChamplainAssembler;
+import assemblers.ParallelAssembly;
+import courses.CourseAssignment;
+import courses.CourseDocument;
+import scrapers.OmnivoxScraper;
+
+/**
+ * This class measures how the {@link ParallelAssembly} scales from 1 thread to
+ * every core when assembling the course pages of a student.
+ *
+ * The pages are generated by {@link BenchmarkPages} and loaded once, so only the
+ * assembly is measured. The results of every pool are checked against the ones
+ * assembled one page after the other.
+ *
+ * Usage: java benchmarks.AssemblyBenchmark [Pages] [Rows per page] [Rounds]
+ * [Rows per task] [Max threads]
+ */
+public class AssemblyBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int pages = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int rows = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		int rowsPerTask = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+		int maxThreads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+		Assembler assembler = new ChamplainAssembler();
+		WebClient client = OmnivoxScraper.newClient();
+
+		// The assemblers print every course they read
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+		try {
+			HtmlPage[] documentPages = new HtmlPage[pages];
+			HtmlPage[] assignmentPages = new HtmlPage[pages];
+
+			for (int i = 0; i < pages; i++) {
+				documentPages[i] = BenchmarkPages.load(client, BenchmarkPages.documentPage(i, rows),
+						"http://localhost/documents" + i + ".html");
+				assignmentPages[i] = BenchmarkPages.load(client, BenchmarkPages.assignmentPage(i, rows),
+						"http://localhost/assignments" + i + ".html");
+			}
+
+			// The results one page after the other
+			CourseDocument[][] expectedDocuments = new CourseDocument[pages][];
+			CourseAssignment[][] expectedAssignments = new CourseAssignment[pages][];
+			for (int i = 0; i < pages; i++) {
+				expectedDocuments[i] = assembler.assembleDocuments(documentPages[i]);
+				expectedAssignments[i] = assembler.assembleAssignments(assignmentPages[i]);
+			}
+
+			double base = 0;
+
+			out.printf("%d pages of %d documents and %d assignments, %d rows per task, %d rounds%n", pages, rows,
+					rows, rowsPerTask, rounds);
+			out.printf("%-8s | %12s | %10s | %8s%n", "Threads", "Rows / s", "Speedup", "Same");
+
+			for (int threads = 1; threads <= maxThreads; threads++) {
+				ForkJoinPool pool = new ForkJoinPool(threads);
+
+				try {
+					ParallelAssembly parallel = new ParallelAssembly(assembler, pool, rowsPerTask);
+
+					boolean same = Arrays.deepEquals(expectedDocuments,
+							parallel.assemblePages(documentPages, CourseDocument[].class, parallel::assembleDocuments))
+							&& Arrays.deepEquals(expectedAssignments, parallel.assemblePages(assignmentPages,
+									CourseAssignment[].class, parallel::assembleAssignments));
+
+					// Warming up the pool
+					for (int i = 0; i < 3; i++) {
+						run(parallel, documentPages, assignmentPages);
+					}
+
+					long start = System.nanoTime();
+					for (int i = 0; i < rounds; i++) {
+						run(parallel, documentPages, assignmentPages);
+					}
+					double seconds = (System.nanoTime() - start) / 1e9;
+
+					double rowsPerSecond = 2.0 * pages * rows * rounds / seconds;
+					if (threads == 1) {
+						base = rowsPerSecond;
+					}
+
+					out.printf("%-8d | %12.0f | %9.2fx | %8s%n", threads, rowsPerSecond, rowsPerSecond / base, same);
+				} finally {
+					pool.shutdown();
+				}
+			}
+		} finally {
+			System.setOut(out);
+			client.close();
+		}
+	}
+
+	private static void run(ParallelAssembly parallel, HtmlPage[] documentPages, HtmlPage[] assignmentPages) {
+		parallel.assemblePages(documentPages, CourseDocument[].class, parallel::assembleDocuments);
+		parallel.assemblePages(assignmentPages, CourseAssignment[].class, parallel::assembleAssignments);
+	}
+}
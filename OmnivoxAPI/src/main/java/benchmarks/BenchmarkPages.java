@@ -0,0 +1,114 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.net.URL;
+
+import com.gargoylesoftware.htmlunit.StringWebResponse;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * This class generates Lea course pages shaped like the Champlain ones so that
+ * the benchmarks can run without an Omnivox account.
+ */
+public final class BenchmarkPages {
+
+	private BenchmarkPages() {
+	}
+
+	/**
+	 * Generates a Lea document page.
+	 * 
+	 * @param course The number of the course used in its name
+	 * @param rows   The number of documents on the page
+	 */
+	public static String documentPage(int course, int rows) {
+		StringBuilder html = new StringBuilder();
+		startPage(html, course);
+
+		html.append("<table class=\"tbDocuments\"><tbody>");
+		for (int i = 0; i < rows; i++) {
+			html.append("<tr class=\"").append(i % 2 == 0 ? "itemDataGrid" : "itemDataGridAltern").append("\">");
+			html.append("<td>").append(i % 3 == 0 ? "<img src=\"star.gif\">" : "").append("</td>");
+			html.append("<td><div><a href=\"#\">Document number ").append(i).append(" of the course&rsquo;s notes")
+					.append(i % 4 == 0 ? " &laquo;&nbsp;r&eacute;vis&eacute;&nbsp;&raquo; &#x1F4D8;" : "").append("</a></div>");
+			html.append("<div class=\"description\">Read it before the class of week ").append(i % 15)
+					.append("</div></td>");
+			html.append("<td>from ").append(month(i)).append(' ').append(10 + i % 18).append(", 2021\n</td>");
+			html.append("<td><a href=\"VisualiseDocument.aspx?id=").append(i).append("\">notes_").append(i)
+					.append(".pdf</a></td>");
+			html.append("</tr>");
+		}
+		html.append("</tbody></table>");
+
+		endPage(html);
+		return html.toString();
+	}
+
+	/**
+	 * Generates a Lea assignment page.
+	 * 
+	 * @param course The number of the course used in its name
+	 * @param rows   The number of assignments on the page
+	 */
+	public static String assignmentPage(int course, int rows) {
+		StringBuilder html = new StringBuilder();
+		startPage(html, course);
+
+		html.append("<table id=\"tabListeTravEtu\"><tbody>");
+		for (int i = 0; i < rows; i++) {
+			html.append("<tr height=\"30\">");
+			html.append("<td>").append(i % 4 == 0 ? "<img src=\"star.gif\">" : "").append("</td>");
+			html.append("<td>Assignment number ").append(i).append("</td>");
+			html.append("<td>").append(month(i)).append('-').append(10 + i % 18).append(", 2021 at 23:59</td>");
+			html.append("<td><table><tbody><tr><td>Status</td><td>");
+			html.append(i % 2 == 0 ? "<a href=\"#\">Submitted</a>" : "Not submitted");
+			html.append("</td></tr></tbody></table></td>");
+			html.append("</tr>");
+		}
+		html.append("</tbody></table>");
+
+		endPage(html);
+		return html.toString();
+	}
+
+	/**
+	 * Loads the given Html into an {@link HtmlPage} like the scraper would.
+	 * 
+	 * @param client The client loading the page
+	 * @param html   The content of the page
+	 * @param url    The url given to the page
+	 */
+	public static HtmlPage load(WebClient client, String html, String url) throws IOException {
+		StringWebResponse response = new StringWebResponse(html, new URL(url));
+		return (HtmlPage) client.loadWebResponseInto(response, client.openWindow(null, url));
+	}
+
+	private static String month(int i) {
+		String[] months = { "Jan", "Feb", "Mar", "Apr", "May" };
+		return months[i % months.length];
+	}
+
+	/**
+	 * Adds the parts of a Lea page that aren't read by the assemblers.
+	 */
+	private static void startPage(StringBuilder html, int course) {
+		html.append("<!DOCTYPE html><html><head><title>Lea</title>");
+		html.append("<script>var menu = []; for (var i = 0; i < 50; i++) { menu.push(i); }</script></head><body>");
+
+		html.append("<div id=\"menu\"><ul>");
+		for (int i = 0; i < 100; i++) {
+			html.append("<li><a href=\"/intr/Module/Link").append(i).append(".aspx\">Menu link ").append(i)
+					.append("</a></li>");
+		}
+		html.append("</ul></div>");
+
+		html.append("<div class=\"TitrePageLigne1\">Documents</div>");
+		html.append("<div class=\"TitrePageLigne2\">Course ").append(course).append(" - Section 0000")
+				.append("</div>");
+	}
+
+	private static void endPage(StringBuilder html) {
+		html.append("<div id=\"footer\">&copy; Omnivox</div></body></html>");
+	}
+}
@@ -0,0 +1,210 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+import assemblers.Assembler;
+import assemblers.ChamplainAssembler;
+import courses.CourseDocument;
+import engines.RawPage;
+import engines.RowExtractor;
+import scrapers.OmnivoxScraper;
+
+/**
+ * This class compares the CPU time and heap used by the HtmlUnit engine and the
+ * raw http engine to read and assemble Lea document pages.
+ * 
+ * The network is left out since it is the same for both engines: the pages are
+ * generated by {@link BenchmarkPages}. Both engines must give the same documents
+ * for every page before they are timed.
+ * 
+ * Usage: java benchmarks.EngineBenchmark [Pages] [Rows per page]
+ */
+public class EngineBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int pages = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int rows = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+		String[] html = new String[pages];
+		for (int i = 0; i < pages; i++) {
+			html[i] = BenchmarkPages.documentPage(i, rows);
+		}
+
+		Assembler assembler = new ChamplainAssembler();
+		WebClient client = OmnivoxScraper.newClient();
+
+		// The assemblers print every course they read
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+		try {
+			checkSameDocuments(client, assembler, html);
+
+			// Warming up both engines
+			for (int i = 0; i < 5; i++) {
+				runHtmlUnit(client, assembler, html);
+				runRaw(assembler, html);
+			}
+
+			Measure htmlUnit = measure(() -> runHtmlUnit(client, assembler, html));
+			Measure raw = measure(() -> runRaw(assembler, html));
+
+			out.printf("%d pages of %d documents%n", pages, rows);
+			out.printf("%-10s | %12s | %15s | %15s%n", "Engine", "CPU (ms)", "Allocated (KB)", "Retained (KB)");
+			out.printf("%-10s | %12.1f | %15d | %15d%n", "HtmlUnit", htmlUnit.cpuNanos / 1e6,
+					htmlUnit.allocatedBytes / 1024, htmlUnit.retainedBytes / 1024);
+			out.printf("%-10s | %12.1f | %15d | %15d%n", "Raw Http", raw.cpuNanos / 1e6, raw.allocatedBytes / 1024,
+					raw.retainedBytes / 1024);
+		} finally {
+			System.setOut(out);
+			client.close();
+		}
+	}
+
+	/**
+	 * Checks that both engines give the same documents with the same fields for
+	 * every page.
+	 * 
+	 * @throws IllegalStateException If a document is different
+	 */
+	private static void checkSameDocuments(WebClient client, Assembler assembler, String[] html)
+			throws IOException {
+		for (int i = 0; i < html.length; i++) {
+			URL url = new URL("http://localhost/documents" + i + ".html");
+
+			CourseDocument[] htmlUnit = assembler
+					.assembleDocuments(BenchmarkPages.load(client, html[i], url.toString()));
+			CourseDocument[] raw = assembler
+					.assembleDocuments(RowExtractor.extractDocuments(new StringReader(html[i]), url));
+
+			if (htmlUnit.length != raw.length) {
+				throw new IllegalStateException(String.format("Page %d has %d documents with HtmlUnit but %d raw", i,
+						htmlUnit.length, raw.length));
+			}
+
+			for (int j = 0; j < htmlUnit.length; j++) {
+				if (!sameDocument(htmlUnit[j], raw[j])) {
+					throw new IllegalStateException(String.format("Document %d of page %d is %s with HtmlUnit but %s raw",
+							j, i, describe(htmlUnit[j]), describe(raw[j])));
+				}
+			}
+		}
+
+		// Closing the windows opened for the pages
+		while (client.getTopLevelWindows().size() > 1) {
+			client.getTopLevelWindows().get(1).close();
+		}
+	}
+
+	private static boolean sameDocument(CourseDocument first, CourseDocument second) {
+		if (first == null || second == null) {
+			return first == second;
+		}
+
+		return first.getCourseName().equals(second.getCourseName()) && first.getTitle().equals(second.getTitle())
+				&& first.getDate().equals(second.getDate()) && first.isSeen() == second.isSeen()
+				&& first.getDocumentName().equals(second.getDocumentName());
+	}
+
+	private static String describe(CourseDocument document) {
+		if (document == null) {
+			return "null";
+		}
+
+		return String.format("[%s, %s, %s, %b, %s]", document.getCourseName(), document.getTitle(),
+				document.getDate(), document.isSeen(), document.getDocumentName());
+	}
+
+	/**
+	 * Reads and assembles the pages with HtmlUnit. Returns the pages so the
+	 * retained heap can be measured.
+	 */
+	private static List<Object> runHtmlUnit(WebClient client, Assembler assembler, String[] html)
+			throws IOException {
+		List<Object> kept = new ArrayList<Object>();
+
+		for (int i = 0; i < html.length; i++) {
+			HtmlPage page = BenchmarkPages.load(client, html[i], "http://localhost/documents" + i + ".html");
+			assembler.assembleDocuments(page);
+			kept.add(page);
+		}
+
+		// Closing the windows opened for the pages
+		while (client.getTopLevelWindows().size() > 1) {
+			client.getTopLevelWindows().get(1).close();
+		}
+
+		return kept;
+	}
+
+	/**
+	 * Reads and assembles the pages with the streaming extractor. Returns the pages
+	 * so the retained heap can be measured.
+	 */
+	private static List<Object> runRaw(Assembler assembler, String[] html) throws IOException {
+		List<Object> kept = new ArrayList<Object>();
+
+		for (int i = 0; i < html.length; i++) {
+			RawPage page = RowExtractor.extractDocuments(new StringReader(html[i]),
+					new URL("http://localhost/documents" + i + ".html"));
+			assembler.assembleDocuments(page);
+			kept.add(page);
+		}
+
+		return kept;
+	}
+
+	/**
+	 * Measures the CPU time and bytes allocated by the current thread while running
+	 * the engine, and the heap still used by the pages it returns.
+	 */
+	private static Measure measure(Run run) throws IOException {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		long usedBefore = usedHeap();
+		long cpuBefore = threads.getThreadCpuTime(thread);
+		long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+
+		List<Object> kept = run.run();
+
+		Measure measure = new Measure();
+		measure.cpuNanos = threads.getThreadCpuTime(thread) - cpuBefore;
+		measure.allocatedBytes = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+		measure.retainedBytes = Math.max(0, usedHeap() - usedBefore);
+
+		// Keeping the pages alive until the heap is measured
+		kept.clear();
+
+		return measure;
+	}
+
+	private static long usedHeap() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private interface Run {
+		List<Object> run() throws IOException;
+	}
+
+	private static final class Measure {
+		private long cpuNanos;
+		private long allocatedBytes;
+		private long retainedBytes;
+	}
+}
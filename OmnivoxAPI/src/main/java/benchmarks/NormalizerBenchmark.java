@@ -0,0 +1,153 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+import assemblers.TextNormalizer;
+
+/**
+ * This class compares the {@link TextNormalizer} with the chains of replace and
+ * strip the assemblers used to clean every field, by time and by bytes
+ * allocated for every text.
+ *
+ * The texts look like the cells of the Lea pages: some are already clean and
+ * some have the line breaks and the indentation of the Html. Every text is
+ * checked to be cleaned the same way by both. The course names read from many
+ * pages are then made canonical to count the copies that would be kept.
+ *
+ * Usage: java benchmarks.NormalizerBenchmark [Texts] [Rounds]
+ */
+public class NormalizerBenchmark {
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+		String[] texts = generateTexts(count);
+
+		int mismatches = 0;
+		for (String text : texts) {
+			if (!chain(text).equals(TextNormalizer.clean(text))) {
+				mismatches++;
+			}
+		}
+
+		// Warming up both
+		for (int i = 0; i < 3; i++) {
+			runChain(texts);
+			runNormalizer(texts);
+		}
+
+		long[] chain = measure(rounds, () -> runChain(texts));
+		long[] normalizer = measure(rounds, () -> runNormalizer(texts));
+
+		double total = (double) count * rounds;
+
+		System.out.printf("%d texts, %d rounds, %d mismatches%n", count, rounds, mismatches);
+		System.out.printf("%-12s | %10s | %12s%n", "Cleaning", "ns / text", "Bytes / text");
+		System.out.printf("%-12s | %10.1f | %12.1f%n", "Chain", chain[0] / total, chain[1] / total);
+		System.out.printf("%-12s | %10.1f | %12.1f%n", "Normalizer", normalizer[0] / total,
+				normalizer[1] / total);
+
+		// The same 8 course names read from many pages
+		IdentityHashMap<String, Boolean> copies = new IdentityHashMap<String, Boolean>();
+		IdentityHashMap<String, Boolean> canonical = new IdentityHashMap<String, Boolean>();
+		for (int page = 0; page < 1000; page++) {
+			String courseName = new String("Course " + (page % 8) + " - Physics NYA");
+			copies.put(courseName, true);
+			canonical.put(TextNormalizer.canonical(courseName), true);
+		}
+
+		System.out.printf("Course names kept for 1000 pages: %d copies, %d canonical%n", copies.size(),
+				canonical.size());
+	}
+
+	/**
+	 * The cleaning used by the assemblers before the normalizer.
+	 */
+	private static String chain(String text) {
+		return text.replace("\n", " ").replace("\r", "").strip();
+	}
+
+	private static int runChain(String[] texts) {
+		int length = 0;
+		for (String text : texts) {
+			length += chain(text).length();
+		}
+		return length;
+	}
+
+	private static int runNormalizer(String[] texts) {
+		int length = 0;
+		for (String text : texts) {
+			length += TextNormalizer.clean(text).length();
+		}
+		return length;
+	}
+
+	/**
+	 * Gives the nanoseconds and the bytes allocated by the thread for all of the
+	 * rounds. The bytes are -1 if the JVM doesn't count them.
+	 */
+	private static long[] measure(int rounds, Run run) {
+		long bytes = allocatedBytes();
+		long start = System.nanoTime();
+
+		for (int i = 0; i < rounds; i++) {
+			run.run();
+		}
+
+		long nanos = System.nanoTime() - start;
+		long allocated = bytes < 0 ? -1 : allocatedBytes() - bytes;
+
+		return new long[] { nanos, allocated };
+	}
+
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	/**
+	 * Builds cells like the ones of the Lea pages. Half of them are already clean.
+	 */
+	private static String[] generateTexts(int count) {
+		Random random = new Random(42);
+		String[] words = { "Lab", "Report", "Chapter", "Notes", "Assignment", "Quiz", "Solution", "Week", "Devoir",
+				"Énoncé" };
+
+		String[] return_array = new String[count];
+		for (int i = 0; i < count; i++) {
+			StringBuilder text = new StringBuilder();
+
+			boolean html = random.nextBoolean();
+			if (html) {
+				text.append("\r\n\t\t\t\t");
+			}
+
+			int length = 1 + random.nextInt(5);
+			for (int j = 0; j < length; j++) {
+				if (j > 0) {
+					text.append(html && random.nextInt(4) == 0 ? "\r\n\t\t" : " ");
+				}
+				text.append(words[random.nextInt(words.length)]);
+			}
+
+			if (html) {
+				text.append("\r\n\t\t\t");
+			}
+
+			return_array[i] = text.toString();
+		}
+		return return_array;
+	}
+
+	private interface Run {
+		int run();
+	}
+}
@@ -0,0 +1,154 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.DomNode;
+import com.gargoylesoftware.htmlunit.html.HtmlElement;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+import assemblers.Selector;
+import scrapers.OmnivoxScraper;
+
+/**
+ * This class compares the rows per second read from the Lea course pages by
+ * evaluating an XPath for every cell, like the assemblers did, and by the
+ * compiled {@link Selector}.
+ *
+ * The pages are generated by {@link BenchmarkPages} and loaded once, so only the
+ * work done for every row is measured.
+ *
+ * Usage: java benchmarks.SelectorBenchmark [Pages] [Rows per page] [Rounds]
+ */
+public class SelectorBenchmark {
+
+	/**
+	 * The cells read on every document row by the Champlain assembler.
+	 */
+	private static final String[] documentCells = { "./td[2]/div/a", "./td[3]", "./td[4]", "./td[1]/img" };
+
+	/**
+	 * The cells read on every assignment row by the Champlain assembler.
+	 */
+	private static final String[] assignmentCells = { "./td[2]", "./td[3]", "./td/table/tbody/tr/td[2]/a",
+			"./td[1]/img" };
+
+	public static void main(String[] args) throws IOException {
+		int pages = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int rows = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+		WebClient client = OmnivoxScraper.newClient();
+
+		try {
+			List<HtmlElement> documents = new ArrayList<HtmlElement>();
+			List<HtmlElement> assignments = new ArrayList<HtmlElement>();
+
+			for (int i = 0; i < pages; i++) {
+				HtmlPage documentPage = BenchmarkPages.load(client, BenchmarkPages.documentPage(i, rows),
+						"http://localhost/documents" + i + ".html");
+				documents.addAll(documentPage.<HtmlElement>getByXPath(
+						"//*[@class='itemDataGrid' or @class='itemDataGridAltern']"));
+
+				HtmlPage assignmentPage = BenchmarkPages.load(client, BenchmarkPages.assignmentPage(i, rows),
+						"http://localhost/assignments" + i + ".html");
+				assignments.addAll(
+						assignmentPage.<HtmlElement>getByXPath("//*[@id='tabListeTravEtu']/tbody/tr[@height='30']"));
+			}
+
+			Selector[] documentSelectors = compile(documentCells);
+			Selector[] assignmentSelectors = compile(assignmentCells);
+
+			// Both need to find the same cells
+			int mismatches = compare(documents, documentCells, documentSelectors)
+					+ compare(assignments, assignmentCells, assignmentSelectors);
+
+			// Warming up both
+			for (int i = 0; i < 3; i++) {
+				readXPath(documents, documentCells);
+				readSelectors(documents, documentSelectors);
+			}
+
+			double documentXPath = rowsPerSecond(documents.size(), rounds, () -> readXPath(documents, documentCells));
+			double documentSelector = rowsPerSecond(documents.size(), rounds,
+					() -> readSelectors(documents, documentSelectors));
+			double assignmentXPath = rowsPerSecond(assignments.size(), rounds,
+					() -> readXPath(assignments, assignmentCells));
+			double assignmentSelector = rowsPerSecond(assignments.size(), rounds,
+					() -> readSelectors(assignments, assignmentSelectors));
+
+			System.out.printf("%d pages of %d rows, %d rounds, %d mismatches%n", pages, rows, rounds, mismatches);
+			System.out.printf("%-12s | %14s | %14s | %8s%n", "Rows", "XPath (rows/s)", "Compiled", "Speedup");
+			System.out.printf("%-12s | %14.0f | %14.0f | %7.1fx%n", "Documents", documentXPath, documentSelector,
+					documentSelector / documentXPath);
+			System.out.printf("%-12s | %14.0f | %14.0f | %7.1fx%n", "Assignments", assignmentXPath,
+					assignmentSelector, assignmentSelector / assignmentXPath);
+		} finally {
+			client.close();
+		}
+	}
+
+	private static Selector[] compile(String[] cells) {
+		Selector[] return_array = new Selector[cells.length];
+		for (int i = 0; i < cells.length; i++) {
+			return_array[i] = Selector.compile(cells[i]);
+		}
+		return return_array;
+	}
+
+	/**
+	 * Counts the cells the selectors find differently than the XPath.
+	 */
+	private static int compare(List<HtmlElement> rows, String[] cells, Selector[] selectors) {
+		int mismatches = 0;
+		for (HtmlElement row : rows) {
+			for (int i = 0; i < cells.length; i++) {
+				if (row.getFirstByXPath(cells[i]) != selectors[i].first(row)) {
+					mismatches++;
+				}
+			}
+		}
+		return mismatches;
+	}
+
+	private static int readXPath(List<HtmlElement> rows, String[] cells) {
+		int found = 0;
+		for (HtmlElement row : rows) {
+			for (String cell : cells) {
+				if (row.getFirstByXPath(cell) != null)
+					found++;
+			}
+		}
+		return found;
+	}
+
+	private static int readSelectors(List<HtmlElement> rows, Selector[] selectors) {
+		int found = 0;
+		for (HtmlElement row : rows) {
+			for (Selector selector : selectors) {
+				DomNode cell = selector.first(row);
+				if (cell != null)
+					found++;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Reads every row for the given number of rounds and gives the rows read per
+	 * second.
+	 */
+	private static double rowsPerSecond(int rows, int rounds, Read read) {
+		long start = System.nanoTime();
+		for (int i = 0; i < rounds; i++) {
+			read.read();
+		}
+		return (double) rows * rounds / ((System.nanoTime() - start) / 1e9);
+	}
+
+	private interface Read {
+		int read();
+	}
+}
@@ -0,0 +1,119 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import engines.RowExtractor;
+import fleet.FleetRefresher;
+import fleet.VirtualThreads;
+
+/**
+ * This class compares the throughput of a fleet refresh on a fixed pool of
+ * platform threads with the one of the {@link FleetRefresher}: one virtual
+ * thread for every student.
+ *
+ * Every student is refreshed the same way in both runs, its course pages are
+ * fetched one after another, so only the threads running the students differ.
+ *
+ * Omnivox is simulated: every request sleeps for the given latency, then the
+ * page is read with the {@link RowExtractor} so there is a bit of CPU work too.
+ * Without virtual threads (below Java 21), the bounded pool of platform threads
+ * of the {@link FleetRefresher} is measured instead.
+ *
+ * Usage: java benchmarks.ThreadingBenchmark [Students] [Courses] [Latency ms]
+ * [Pool threads]
+ */
+public class ThreadingBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int students = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+		int courses = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+		int latency = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+		int poolThreads = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+
+		String html = BenchmarkPages.documentPage(0, 20);
+
+		ExecutorService fixed = Executors.newFixedThreadPool(poolThreads);
+		double fixedSeconds = run(() -> refreshOnPool(fixed, students, courses, latency, html));
+		fixed.shutdown();
+
+		ExecutorService perTask = VirtualThreads.newExecutor(FleetRefresher.DEFAULT_PLATFORM_THREADS);
+		double perTaskSeconds = run(() -> refreshOnPool(perTask, students, courses, latency, html));
+		perTask.shutdown();
+
+		String perTaskName = VirtualThreads.isSupported() ? "Virtual" : "Bounded";
+		String perTaskPool = VirtualThreads.isSupported() ? "-"
+				: String.valueOf(FleetRefresher.DEFAULT_PLATFORM_THREADS);
+
+		System.out.printf("%d students, %d courses, %d ms per request%n", students, courses, latency);
+		System.out.printf("%-10s | %8s | %12s | %14s%n", "Threads", "Pool", "Time (s)", "Students / s");
+		System.out.printf("%-10s | %8d | %12.2f | %14.1f%n", "Platform", poolThreads, fixedSeconds,
+				students / fixedSeconds);
+		System.out.printf("%-10s | %8s | %12.2f | %14.1f%n", perTaskName, perTaskPool, perTaskSeconds,
+				students / perTaskSeconds);
+	}
+
+	/**
+	 * Refreshes the students on the executor: every student is a task and its
+	 * course pages are fetched one after another.
+	 */
+	private static void refreshOnPool(ExecutorService pool, int students, int courses, int latency, String html)
+			throws Exception {
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+
+		for (int s = 0; s < students; s++) {
+			futures.add(pool.submit(() -> {
+				request(latency, html);
+
+				for (int c = 0; c < courses; c++) {
+					request(latency, html);
+				}
+				return null;
+			}));
+		}
+
+		waitFor(futures);
+	}
+
+	/**
+	 * Simulates a request to Omnivox and reads the page it returns.
+	 */
+	private static void request(int latency, String html) {
+		try {
+			Thread.sleep(latency);
+			RowExtractor.extractDocuments(new StringReader(html), new URL("http://localhost/documents.html"));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void waitFor(List<Future<?>> futures) throws InterruptedException, ExecutionException {
+		for (Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+	/**
+	 * Runs the refresh and gets the time it took in seconds.
+	 */
+	private static double run(Run run) throws Exception {
+		long start = System.nanoTime();
+		run.run();
+		return (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+	}
+
+	private interface Run {
+		void run() throws Exception;
+	}
+}
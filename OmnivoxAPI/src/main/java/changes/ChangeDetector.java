@@ -0,0 +1,164 @@
+package changes;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import courses.CalendarEvent;
+import courses.CourseAssignment;
+import courses.CourseDocument;
+import courses.CourseElement;
+import students.Student;
+
+/**
+ * This class finds what changed in a {@link Student} since its last refresh.
+ *
+ * It keeps the snapshot of the last refresh and compares it with the new one.
+ * Only the changes are given to the listeners so they don't have to scan the
+ * whole student again.
+ *
+ * Usage: create one detector for every student and call {@link #update} after
+ * every refresh with the new Student object.
+ */
+public class ChangeDetector {
+
+	/**
+	 * The snapshot of the last refresh.
+	 */
+	private StudentSnapshot snapshot = StudentSnapshot.EMPTY;
+
+	/**
+	 * Receive the changes of every update that has some.
+	 */
+	private final List<Consumer<List<ElementChange>>> listeners = new CopyOnWriteArrayList<Consumer<List<ElementChange>>>();
+
+	/**
+	 * Sets the student every next update is compared with without giving any
+	 * change. Without it, every element of the first update is ADDED.
+	 *
+	 * @param student The student of the last refresh
+	 */
+	public synchronized void setBaseline(Student student) {
+		this.snapshot = StudentSnapshot.of(student);
+	}
+
+	/**
+	 * Compares the student with the last one and keeps it for the next update.
+	 *
+	 * The listeners receive the changes if there are any.
+	 *
+	 * @param student The student of the new refresh
+	 *
+	 * @return The changes since the last update
+	 */
+	public List<ElementChange> update(Student student) {
+		StudentSnapshot next = StudentSnapshot.of(student);
+		List<ElementChange> changes;
+
+		synchronized (this) {
+			changes = diff(this.snapshot, next);
+			this.snapshot = next;
+		}
+
+		if (!changes.isEmpty()) {
+			for (Consumer<List<ElementChange>> listener : this.listeners) {
+				listener.accept(changes);
+			}
+		}
+
+		return changes;
+	}
+
+	/**
+	 * Adds a listener receiving the changes of every update that has some.
+	 */
+	public void addListener(Consumer<List<ElementChange>> listener) {
+		if (listener == null) {
+			throw new NullPointerException("Listener is null");
+		}
+
+		this.listeners.add(listener);
+	}
+
+	public void removeListener(Consumer<List<ElementChange>> listener) {
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * Compares two snapshots.
+	 *
+	 * The added and changed elements come first in the order of the new snapshot,
+	 * then the removed elements in the order of the old one.
+	 *
+	 * @param before The old snapshot
+	 * @param after  The new snapshot
+	 *
+	 * @return The changes from the old snapshot to the new one
+	 */
+	public static List<ElementChange> diff(StudentSnapshot before, StudentSnapshot after) {
+		List<ElementChange> return_list = new ArrayList<ElementChange>();
+
+		for (Map.Entry<ElementKey, CourseElement> entry : after.getElements().entrySet()) {
+			CourseElement old = before.get(entry.getKey());
+
+			if (old == null) {
+				return_list.add(new ElementChange(ChangeType.ADDED, entry.getKey(), null, entry.getValue(),
+						EnumSet.noneOf(ElementField.class)));
+				continue;
+			}
+
+			EnumSet<ElementField> fields = compare(old, entry.getValue());
+			if (!fields.isEmpty()) {
+				return_list.add(new ElementChange(ChangeType.CHANGED, entry.getKey(), old, entry.getValue(), fields));
+			}
+		}
+
+		for (Map.Entry<ElementKey, CourseElement> entry : before.getElements().entrySet()) {
+			if (after.get(entry.getKey()) == null) {
+				return_list.add(new ElementChange(ChangeType.REMOVED, entry.getKey(), entry.getValue(), null,
+						EnumSet.noneOf(ElementField.class)));
+			}
+		}
+
+		return return_list;
+	}
+
+	/**
+	 * Finds the fields that are different between two elements with the same
+	 * identity.
+	 */
+	private static EnumSet<ElementField> compare(CourseElement before, CourseElement after) {
+		EnumSet<ElementField> fields = EnumSet.noneOf(ElementField.class);
+
+		if (before.isSeen() != after.isSeen()) {
+			fields.add(ElementField.SEEN);
+		}
+
+		if (before instanceof CourseAssignment) {
+			if (((CourseAssignment) before).isCompleted() != ((CourseAssignment) after).isCompleted()) {
+				fields.add(ElementField.COMPLETED);
+			}
+		} else if (before instanceof CourseDocument) {
+			if (!Objects.equals(((CourseDocument) before).getDocumentName(),
+					((CourseDocument) after).getDocumentName())) {
+				fields.add(ElementField.DOCUMENT_NAME);
+			}
+		} else if (before instanceof CalendarEvent) {
+			if (!Objects.equals(((CalendarEvent) before).getDescription(),
+					((CalendarEvent) after).getDescription())) {
+				fields.add(ElementField.DESCRIPTION);
+			}
+		}
+
+		return fields;
+	}
+
+	// Getters
+	public synchronized StudentSnapshot getSnapshot() {
+		return this.snapshot;
+	}
+}
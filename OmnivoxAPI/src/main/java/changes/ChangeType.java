@@ -0,0 +1,23 @@
+package changes;
+
+/**
+ * This enum represents what happened to an element between two snapshots of a
+ * student.
+ */
+public enum ChangeType {
+
+	/**
+	 * The element is only in the new snapshot.
+	 */
+	ADDED,
+
+	/**
+	 * The element is only in the old snapshot.
+	 */
+	REMOVED,
+
+	/**
+	 * The element is in both snapshots but at least one of its fields changed.
+	 */
+	CHANGED
+}
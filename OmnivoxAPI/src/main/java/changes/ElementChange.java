@@ -0,0 +1,88 @@
+package changes;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import courses.CourseElement;
+
+/**
+ * This class represents one change of an element between two snapshots of a
+ * student. It is what the {@link ChangeDetector} gives to the consumers instead
+ * of the full state.
+ *
+ * This class is Immutable and final.
+ */
+public final class ElementChange {
+
+	private final ChangeType type;
+	private final ElementKey key;
+
+	/**
+	 * The element in the old snapshot. It is null if the element was added.
+	 */
+	private final CourseElement before;
+
+	/**
+	 * The element in the new snapshot. It is null if the element was removed.
+	 */
+	private final CourseElement after;
+
+	/**
+	 * The fields that changed. It is empty unless the element changed.
+	 */
+	private final Set<ElementField> fields;
+
+	/**
+	 * The only constructor for the Element Change.
+	 */
+	ElementChange(ChangeType type, ElementKey key, CourseElement before, CourseElement after,
+			EnumSet<ElementField> fields) {
+		this.type = type;
+		this.key = key;
+		this.before = before;
+		this.after = after;
+		this.fields = Collections.unmodifiableSet(fields);
+	}
+
+	/**
+	 * Checks if the given field changed. Ex: SEEN for seen to unseen.
+	 */
+	public boolean hasChanged(ElementField field) {
+		return this.fields.contains(field);
+	}
+
+	// Getters
+	public ChangeType getType() {
+		return this.type;
+	}
+
+	public ElementKey getKey() {
+		return this.key;
+	}
+
+	public CourseElement getBefore() {
+		return this.before;
+	}
+
+	public CourseElement getAfter() {
+		return this.after;
+	}
+
+	/**
+	 * Gets the element as it is now or as it was before it was removed.
+	 */
+	public CourseElement getElement() {
+		return this.after == null ? this.before : this.after;
+	}
+
+	public Set<ElementField> getFields() {
+		return this.fields;
+	}
+
+	// Overrides
+	@Override
+	public String toString() {
+		return this.type + (this.fields.isEmpty() ? "" : " " + this.fields) + " " + this.key;
+	}
+}
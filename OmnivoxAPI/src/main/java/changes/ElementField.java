@@ -0,0 +1,28 @@
+package changes;
+
+/**
+ * This enum represents the fields of an element that can change without
+ * changing its identity.
+ */
+public enum ElementField {
+
+	/**
+	 * The star next to a document or an assignment. Ex: seen to unseen
+	 */
+	SEEN,
+
+	/**
+	 * If an assignment has been handed in.
+	 */
+	COMPLETED,
+
+	/**
+	 * The name of the attachment of a document.
+	 */
+	DOCUMENT_NAME,
+
+	/**
+	 * The description of a calendar event.
+	 */
+	DESCRIPTION
+}
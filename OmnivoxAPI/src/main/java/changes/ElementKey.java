@@ -0,0 +1,95 @@
+package changes;
+
+import java.util.Objects;
+
+import courses.CourseElement;
+
+/**
+ * This class represents the stable identity of a {@link CourseElement} between
+ * two refreshes: its course, its title, its date and its type.
+ *
+ * The occurrence tells apart the elements of a course that have the same
+ * identity (Ex: a document posted twice on the same day). It is 0 for the first
+ * one.
+ *
+ * This class is Immutable and final.
+ */
+public final class ElementKey {
+
+	private final String courseName;
+	private final String title;
+	private final long date;
+	private final ElementType type;
+	private final int occurrence;
+
+	/**
+	 * The only constructor for the Element Key.
+	 */
+	ElementKey(CourseElement element, int occurrence) {
+		this.courseName = element.getCourseName();
+		this.title = element.getTitle();
+		this.date = element.getDate().getTime();
+		this.type = ElementType.of(element);
+		this.occurrence = occurrence;
+	}
+
+	/**
+	 * Gets the same key with another occurrence.
+	 */
+	ElementKey withOccurrence(int occurrence) {
+		return new ElementKey(this, occurrence);
+	}
+
+	private ElementKey(ElementKey key, int occurrence) {
+		this.courseName = key.courseName;
+		this.title = key.title;
+		this.date = key.date;
+		this.type = key.type;
+		this.occurrence = occurrence;
+	}
+
+	// Getters
+	public String getCourseName() {
+		return this.courseName;
+	}
+
+	public String getTitle() {
+		return this.title;
+	}
+
+	public long getDate() {
+		return this.date;
+	}
+
+	public ElementType getType() {
+		return this.type;
+	}
+
+	public int getOccurrence() {
+		return this.occurrence;
+	}
+
+	// Overrides
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this)
+			return true;
+		if (!(obj instanceof ElementKey))
+			return false;
+
+		ElementKey casted = (ElementKey) obj;
+		return this.date == casted.date && this.occurrence == casted.occurrence && this.type == casted.type
+				&& Objects.equals(this.courseName, casted.courseName) && Objects.equals(this.title, casted.title);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.courseName, this.title, this.date, this.type, this.occurrence);
+	}
+
+	@Override
+	public String toString() {
+		return this.type + " " + this.courseName + " / " + this.title + " @" + this.date
+				+ (this.occurrence == 0 ? "" : " #" + this.occurrence);
+	}
+}
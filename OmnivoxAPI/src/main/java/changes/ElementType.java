@@ -0,0 +1,34 @@
+package changes;
+
+import courses.CalendarEvent;
+import courses.CourseAssignment;
+import courses.CourseDocument;
+import courses.CourseElement;
+
+/**
+ * This enum represents the kind of a {@link CourseElement}. It is part of the
+ * identity of an element so a document and an assignment with the same title
+ * and date are never mixed up.
+ */
+public enum ElementType {
+	DOCUMENT, ASSIGNMENT, CALENDAR_EVENT;
+
+	/**
+	 * Gets the type of an element.
+	 * 
+	 * @param element The element
+	 * 
+	 * @return The type of the element
+	 */
+	public static ElementType of(CourseElement element) {
+		if (element instanceof CourseDocument) {
+			return DOCUMENT;
+		} else if (element instanceof CourseAssignment) {
+			return ASSIGNMENT;
+		} else if (element instanceof CalendarEvent) {
+			return CALENDAR_EVENT;
+		}
+
+		throw new IllegalArgumentException("Unknown element: " + element.getClass().getName());
+	}
+}
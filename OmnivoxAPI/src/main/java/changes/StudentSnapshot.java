@@ -0,0 +1,89 @@
+package changes;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import courses.CourseElement;
+import students.Student;
+
+/**
+ * This class is a frozen copy of the elements of a {@link Student} by their
+ * {@link ElementKey}. It is kept between refreshes so the next one only has to
+ * be compared with it.
+ *
+ * This class is Immutable and final.
+ */
+public final class StudentSnapshot {
+
+	/**
+	 * The snapshot of a student without any element.
+	 */
+	public static final StudentSnapshot EMPTY = new StudentSnapshot(new LinkedHashMap<ElementKey, CourseElement>());
+
+	/**
+	 * The elements by their identity, in the order of the student's arrays.
+	 */
+	private final Map<ElementKey, CourseElement> elements;
+
+	private StudentSnapshot(LinkedHashMap<ElementKey, CourseElement> elements) {
+		this.elements = Collections.unmodifiableMap(elements);
+	}
+
+	/**
+	 * Takes a snapshot of the documents, assignments and calendar events of the
+	 * student.
+	 *
+	 * Note: The student shouldn't be refreshed while the snapshot is taken.
+	 *
+	 * @param student The student to copy
+	 *
+	 * @return The snapshot of the student
+	 */
+	public static StudentSnapshot of(Student student) {
+		if (student == null) {
+			throw new NullPointerException("Student is null");
+		}
+
+		LinkedHashMap<ElementKey, CourseElement> elements = new LinkedHashMap<ElementKey, CourseElement>();
+
+		synchronized (student) {
+			put(elements, student.getAllDocument());
+			put(elements, student.getAllAssignments());
+			put(elements, student.getCalendarEvents());
+		}
+
+		return new StudentSnapshot(elements);
+	}
+
+	private static void put(LinkedHashMap<ElementKey, CourseElement> elements, CourseElement[] array) {
+		for (CourseElement element : array) {
+			ElementKey key = new ElementKey(element, 0);
+
+			// Giving the next occurrence to the elements with the same identity
+			for (int occurrence = 1; elements.containsKey(key); occurrence++) {
+				key = key.withOccurrence(occurrence);
+			}
+
+			elements.put(key, element);
+		}
+	}
+
+	/**
+	 * Gets the element with the given identity.
+	 *
+	 * @return The element or null if the snapshot doesn't have it
+	 */
+	public CourseElement get(ElementKey key) {
+		return this.elements.get(key);
+	}
+
+	public int size() {
+		return this.elements.size();
+	}
+
+	// Getters
+	public Map<ElementKey, CourseElement> getElements() {
+		return this.elements;
+	}
+}
@@ -1,6 +1,7 @@
 package courses;
 
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 
 /**
@@ -17,9 +18,9 @@ public abstract class CourseElement implements Comparable<CourseElement> {
 
 	/**
 	 * This formatter is used to convert the {@link Date} field into a readable
-	 * String.
+	 * String. It is immutable so the elements can be created from many threads.
 	 */
-	private static final SimpleDateFormat formatter = new SimpleDateFormat("dd/MMM/yyyy");
+	private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MMM/yyyy");
 
 	/**
 	 * The course name is the same as the one used as a key to get the
@@ -69,7 +70,7 @@ public abstract class CourseElement implements Comparable<CourseElement> {
 		this.courseName = courseName;
 		this.title = title;
 		this.distributedTime = new Date(distributedTime.getTime()); // Making date Immutable
-		this.distributedTimeStr = formatter.format(distributedTime);
+		this.distributedTimeStr = formatter.format(distributedTime.toInstant().atZone(ZoneId.systemDefault()));
 		this.seen = isSeen;
 	}
 
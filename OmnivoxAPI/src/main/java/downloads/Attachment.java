@@ -0,0 +1,84 @@
+package downloads;
+
+import java.net.URL;
+
+import courses.CourseDocument;
+
+/**
+ * This class represents the file attached to a {@link CourseDocument} on a Lea
+ * document page.
+ *
+ * This class is Immutable and final.
+ */
+public final class Attachment {
+
+	/**
+	 * The name of the course the document belongs to.
+	 */
+	private final String courseName;
+
+	/**
+	 * The title of the document given by the teacher.
+	 */
+	private final String title;
+
+	/**
+	 * The name of the file as shown on the document page.
+	 */
+	private final String fileName;
+
+	/**
+	 * The link used to download the file.
+	 */
+	private final URL url;
+
+	/**
+	 * Only constructor for the Attachment.
+	 *
+	 * @param courseName Name of the course associated to the document
+	 * @param title      The title of the document
+	 * @param fileName   The name of the file
+	 * @param url        The link of the file
+	 */
+	public Attachment(String courseName, String title, String fileName, URL url) {
+		if (url == null) {
+			throw new NullPointerException("Url is null");
+		}
+
+		this.courseName = courseName;
+		this.title = title;
+		this.fileName = fileName;
+		this.url = url;
+	}
+
+	// Getters
+	public String getCourseName() {
+		return this.courseName;
+	}
+
+	public String getTitle() {
+		return this.title;
+	}
+
+	public String getFileName() {
+		return this.fileName;
+	}
+
+	public URL getUrl() {
+		return this.url;
+	}
+
+	// Overrides
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof Attachment))
+			return false;
+
+		return ((Attachment) obj).url.toExternalForm().equals(this.url.toExternalForm());
+	}
+
+	@Override
+	public int hashCode() {
+		return this.url.toExternalForm().hashCode();
+	}
+}
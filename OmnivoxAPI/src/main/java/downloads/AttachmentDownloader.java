@@ -0,0 +1,650 @@
+package downloads;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+
+import engines.RawHttpEngine;
+import fleet.VirtualThreads;
+
+/**
+ * This class downloads the {@link Attachment} files of the documents to a
+ * directory on disk or to an {@link AttachmentStore}.
+ *
+ * The requests are made with the cookies of a logged in {@link WebClient} like
+ * the {@link RawHttpEngine}. Every body is streamed from the connection to the
+ * file through NIO channels, so a file is never held in memory.
+ *
+ * The files are downloaded at the same time with a limit for every host. A file
+ * is first written next to its target with the .part extension and only moved
+ * once it is complete, so an interrupted download is resumed from where it
+ * stopped if the file hasn't changed on Omnivox since (If-Range). A file
+ * already on disk is skipped if Omnivox says it hasn't been modified or if it
+ * has the same size and isn't older. A response that isn't the file, like the
+ * login page once the session has expired, fails the download.
+ *
+ * With a store, the size and the date of a file are first asked with a HEAD
+ * request, with If-Modified-Since if the student already has the file. A file
+ * whose url, size and date were already downloaded for another student is
+ * referenced without requesting its body. Partial files are not resumed since
+ * the store hashes every file from its start.
+ *
+ * This class is safe to use from many threads at the same time.
+ */
+public class AttachmentDownloader {
+
+	/**
+	 * The maximum number of bytes moved from the connection to the file at once.
+	 */
+	private static final long chunkSize = 1 << 20;
+
+	/**
+	 * The maximum number of threads downloading the attachments of a call. The
+	 * downloads on the same host are capped by its semaphore.
+	 */
+	public static final int MAX_DOWNLOAD_THREADS = 32;
+
+	/**
+	 * Reads the first byte, the last byte and the size in a Content-Range header.
+	 * Ex: bytes 100-999/1000
+	 */
+	private static final Pattern contentRange = Pattern.compile("bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)");
+
+	/**
+	 * The engine making the requests with the cookies of the client.
+	 */
+	private final RawHttpEngine engine;
+
+	/**
+	 * The directory holding a folder for every course or null if the files are
+	 * kept in a store.
+	 */
+	private final Path directory;
+
+	/**
+	 * The store keeping the files or null if they are saved in the directory.
+	 */
+	private final AttachmentStore store;
+
+	/**
+	 * The student the files are given to in the store.
+	 */
+	private final String studentNumber;
+
+	/**
+	 * The maximum number of files downloaded at the same time from a single host.
+	 */
+	private final int maxPerHost;
+
+	/**
+	 * Holds a semaphore for every host to cap the downloads made on it.
+	 */
+	private final ConcurrentHashMap<String, Semaphore> hostPermits = new ConcurrentHashMap<String, Semaphore>();
+
+	/*
+	 * The number of attachments for every status and the bytes written
+	 */
+	private final AtomicLong downloaded = new AtomicLong();
+	private final AtomicLong resumed = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private final AtomicLong deduplicated = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+
+	/**
+	 * Constructor for the Attachment Downloader.
+	 *
+	 * @param client     The logged in client whose cookies will be used
+	 * @param directory  The directory the files are saved in
+	 * @param maxPerHost The maximum number of files downloaded at the same time
+	 *                   from a single host
+	 */
+	public AttachmentDownloader(WebClient client, Path directory, int maxPerHost) {
+		if (directory == null) {
+			throw new NullPointerException("Directory is null");
+		}
+		if (maxPerHost < 1) {
+			throw new IllegalArgumentException("At least 1 download per host is needed");
+		}
+
+		this.engine = new RawHttpEngine(client);
+		this.directory = directory;
+		this.store = null;
+		this.studentNumber = null;
+		this.maxPerHost = maxPerHost;
+	}
+
+	/**
+	 * Constructor for the Attachment Downloader keeping the files in a store.
+	 *
+	 * @param client        The logged in client whose cookies will be used
+	 * @param store         The store the files are kept in
+	 * @param studentNumber The student the files are given to
+	 * @param maxPerHost    The maximum number of files downloaded at the same time
+	 *                      from a single host
+	 */
+	public AttachmentDownloader(WebClient client, AttachmentStore store, String studentNumber, int maxPerHost) {
+		if (store == null) {
+			throw new NullPointerException("Attachment Store is null");
+		}
+		if (studentNumber == null) {
+			throw new NullPointerException("Student Number is null");
+		}
+		if (maxPerHost < 1) {
+			throw new IllegalArgumentException("At least 1 download per host is needed");
+		}
+
+		this.engine = new RawHttpEngine(client);
+		this.directory = null;
+		this.store = store;
+		this.studentNumber = studentNumber;
+		this.maxPerHost = maxPerHost;
+	}
+
+	/**
+	 * Downloads every attachment at the same time, with no more than the maximum
+	 * per host and {@link #MAX_DOWNLOAD_THREADS} in total.
+	 *
+	 * @param attachments The attachments to download
+	 *
+	 * @return What was done with every attachment in the same order
+	 */
+	public DownloadStatus[] download(Attachment[] attachments) {
+		DownloadStatus[] return_array = new DownloadStatus[attachments.length];
+		String[] names = getNames(attachments);
+
+		if (attachments.length == 0) {
+			return return_array;
+		}
+
+		// The semaphores of the hosts cap the downloads made on each of them
+		ExecutorService pool = VirtualThreads.newExecutor(Math.min(attachments.length, MAX_DOWNLOAD_THREADS));
+
+		try {
+			List<Future<DownloadStatus>> futures = new ArrayList<Future<DownloadStatus>>(attachments.length);
+			for (int i = 0; i < attachments.length; i++) {
+				Attachment attachment = attachments[i];
+				String name = names[i];
+				futures.add(pool.submit(() -> download(attachment, name)));
+			}
+
+			// Waiting for the files in the order they were submitted
+			for (int i = 0; i < attachments.length; i++) {
+				try {
+					return_array[i] = futures.get(i).get();
+				} catch (ExecutionException e) {
+					e.printStackTrace();
+					return_array[i] = DownloadStatus.FAILED;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			pool.shutdownNow();
+		}
+
+		return return_array;
+	}
+
+	/**
+	 * Downloads a single attachment to its path in the directory.
+	 *
+	 * @param attachment The attachment to download
+	 *
+	 * @return What was done with the attachment
+	 */
+	public DownloadStatus download(Attachment attachment) {
+		return download(attachment, getName(attachment));
+	}
+
+	/**
+	 * Gets the name the attachment is saved under: the folder of its course and
+	 * the name of its file. Ex: Course/File.pdf
+	 *
+	 * @param attachment The attachment
+	 *
+	 * @return The name of the file
+	 */
+	public String getName(Attachment attachment) {
+		String fileName = attachment.getFileName();
+
+		// Using the end of the link when the page doesn't show the name
+		if (fileName == null || fileName.isBlank() || fileName.equals("Link")) {
+			String path = attachment.getUrl().getPath();
+			fileName = path.substring(path.lastIndexOf('/') + 1);
+		}
+
+		return sanitize(attachment.getCourseName()) + "/" + sanitize(fileName);
+	}
+
+	/**
+	 * Downloads the attachment while holding a permit of its host.
+	 */
+	private DownloadStatus download(Attachment attachment, String name) {
+		Semaphore permits = getPermits(attachment.getUrl().getHost());
+		DownloadStatus status;
+
+		try {
+			permits.acquire();
+			try {
+				status = this.store == null ? fetch(attachment, this.directory.resolve(name))
+						: fetchToStore(attachment, name);
+			} finally {
+				permits.release();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			status = DownloadStatus.FAILED;
+		} catch (IOException e) {
+			e.printStackTrace();
+			status = DownloadStatus.FAILED;
+		}
+
+		count(status);
+		return status;
+	}
+
+	/**
+	 * Requests the file and streams its body to disk.
+	 */
+	private DownloadStatus fetch(Attachment attachment, Path path) throws IOException {
+		Files.createDirectories(path.getParent());
+		Path part = path.resolveSibling(path.getFileName() + ".part");
+
+		boolean exists = Files.isRegularFile(path);
+		long partial = Files.isRegularFile(part) ? Files.size(part) : 0;
+
+		// Asking for the file only if it changed or for the rest of it
+		HttpURLConnection connection = this.engine.send(attachment.getUrl(), request -> {
+			if (exists) {
+				request.setIfModifiedSince(Files.getLastModifiedTime(path).toMillis());
+			} else if (partial > 0) {
+				// The part has the date of the file it was started from
+				request.setRequestProperty("Range", "bytes=" + partial + "-");
+				request.setRequestProperty("If-Range", httpDate(Files.getLastModifiedTime(part).toMillis()));
+			}
+		});
+
+		try {
+			int code = connection.getResponseCode();
+			if (code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				return DownloadStatus.SKIPPED;
+			}
+			if (code != HttpURLConnection.HTTP_OK && code != HttpURLConnection.HTTP_PARTIAL) {
+				// Starting over next time if the part can't be resumed
+				if (code == 416) {
+					Files.deleteIfExists(part);
+				}
+				throw new IOException("Omnivox answered " + code + " for " + attachment.getUrl());
+			}
+			checkFile(connection, attachment);
+
+			// Only appending the rest of the file to the part that was asked for
+			if (code == HttpURLConnection.HTTP_PARTIAL && !isRest(connection, partial)) {
+				Files.deleteIfExists(part);
+				throw new IOException("Omnivox answered the range " + connection.getHeaderField("Content-Range")
+						+ " instead of the bytes from " + partial + " for " + attachment.getUrl());
+			}
+
+			long length = connection.getContentLengthLong();
+			long modified = connection.getLastModified();
+
+			// Skipping the file if it has the same size and isn't older
+			if (exists && length >= 0 && length == Files.size(path) && modified != 0
+					&& modified <= Files.getLastModifiedTime(path).toMillis()) {
+				return DownloadStatus.SKIPPED;
+			}
+
+			// Omnivox sends the whole file if it changed or if it ignores the range
+			boolean resuming = code == HttpURLConnection.HTTP_PARTIAL && partial > 0;
+			long start = resuming ? partial : 0;
+			long position = start;
+			boolean complete = false;
+
+			try {
+				try (InputStream in = connection.getInputStream();
+						ReadableByteChannel source = Channels.newChannel(in);
+						FileChannel sink = resuming ? FileChannel.open(part, StandardOpenOption.WRITE)
+								: FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+										StandardOpenOption.TRUNCATE_EXISTING)) {
+
+					long transferred;
+					while ((transferred = sink.transferFrom(source, position, chunkSize)) > 0) {
+						position += transferred;
+					}
+				} finally {
+					this.bytes.addAndGet(position - start);
+				}
+
+				if (length >= 0 && position - start != length) {
+					throw new IOException("The download of " + attachment.getUrl() + " stopped after "
+							+ (position - start) + " of " + length + " bytes");
+				}
+
+				Files.move(part, path, StandardCopyOption.REPLACE_EXISTING);
+				complete = true;
+			} finally {
+				// An error here would hide the one that stopped the download
+				if (!complete) {
+					try {
+						keepPart(part, modified);
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+			}
+			if (modified != 0) {
+				Files.setLastModifiedTime(path, FileTime.fromMillis(modified));
+			}
+
+			return resuming ? DownloadStatus.RESUMED : DownloadStatus.DOWNLOADED;
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * Asks for the size and the date of the file, then streams its body into the
+	 * store. The body isn't requested if the student already has the file or if
+	 * the same source was already downloaded.
+	 */
+	private DownloadStatus fetchToStore(Attachment attachment, String name) throws IOException {
+		String current = this.store.getHash(this.studentNumber, name);
+		long since = this.store.getSourceDate(attachment.getUrl(), current);
+
+		HttpURLConnection head = this.engine.send(attachment.getUrl(), request -> {
+			request.setRequestMethod("HEAD");
+			if (since != 0) {
+				request.setIfModifiedSince(since);
+			}
+		});
+		long length;
+		long modified;
+
+		try {
+			int code = head.getResponseCode();
+			if (code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				return DownloadStatus.SKIPPED;
+			}
+			if (code == HttpURLConnection.HTTP_OK) {
+				checkFile(head, attachment);
+			}
+
+			// Without an answer to the HEAD, the source is only known from the GET
+			length = code == HttpURLConnection.HTTP_OK ? head.getContentLengthLong() : -1;
+			modified = code == HttpURLConnection.HTTP_OK ? head.getLastModified() : 0;
+		} finally {
+			head.disconnect();
+		}
+
+		// Referencing the file downloaded for another student
+		String hash = this.store.findSource(attachment.getUrl(), length, modified);
+		if (hash != null) {
+			if (hash.equals(current)) {
+				return DownloadStatus.SKIPPED;
+			}
+			if (this.store.link(this.studentNumber, name, hash)) {
+				return DownloadStatus.DEDUPLICATED;
+			}
+		}
+
+		HttpURLConnection connection = this.engine.send(attachment.getUrl());
+
+		try {
+			int code = connection.getResponseCode();
+			if (code != HttpURLConnection.HTTP_OK) {
+				throw new IOException("Omnivox answered " + code + " for " + attachment.getUrl());
+			}
+			checkFile(connection, attachment);
+
+			length = connection.getContentLengthLong();
+			modified = connection.getLastModified();
+
+			try (InputStream in = new CountingInputStream(connection.getInputStream(), this.bytes)) {
+				hash = this.store.ingest(this.studentNumber, name, in);
+			}
+
+			this.store.recordSource(attachment.getUrl(), length, modified, hash);
+
+			return DownloadStatus.DOWNLOADED;
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * Checks that the response is the file of the attachment and not a page
+	 * Omnivox redirected to, like the login page once the session has expired.
+	 */
+	private static void checkFile(HttpURLConnection connection, Attachment attachment) throws IOException {
+		if (RawHttpEngine.isLoginPage(connection)) {
+			throw new IOException(
+					"The session has expired, Omnivox answered the login page for " + attachment.getUrl());
+		}
+
+		String type = connection.getContentType();
+		boolean redirected = !connection.getURL().toExternalForm().equals(attachment.getUrl().toExternalForm());
+
+		if (redirected && type != null && type.toLowerCase().startsWith("text/html")) {
+			throw new IOException("Omnivox redirected " + attachment.getUrl() + " to the page " + connection.getURL());
+		}
+	}
+
+	/**
+	 * Checks that a partial response is the rest of the file: its range starts
+	 * right after the bytes already in the part and ends with the file.
+	 */
+	private static boolean isRest(HttpURLConnection connection, long partial) {
+		String header = connection.getHeaderField("Content-Range");
+		if (partial == 0 || header == null) {
+			return false;
+		}
+
+		Matcher matcher = contentRange.matcher(header.strip());
+		if (!matcher.matches()) {
+			return false;
+		}
+
+		try {
+			long first = Long.parseLong(matcher.group(1));
+			long last = Long.parseLong(matcher.group(2));
+
+			return first == partial && (matcher.group(3).equals("*") || last + 1 == Long.parseLong(matcher.group(3)));
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Keeps the partial file of a download that stopped so it can be resumed. It
+	 * gets the date of the file on Omnivox, sent with If-Range when it is resumed.
+	 * Without a date, it can't be checked so it is deleted.
+	 */
+	private static void keepPart(Path part, long modified) throws IOException {
+		if (modified != 0 && Files.isRegularFile(part)) {
+			Files.setLastModifiedTime(part, FileTime.fromMillis(modified));
+		} else {
+			Files.deleteIfExists(part);
+		}
+	}
+
+	/**
+	 * Formats a date the way it is sent in the headers.
+	 */
+	private static String httpDate(long millis) {
+		SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+		format.setTimeZone(TimeZone.getTimeZone("GMT"));
+		return format.format(new Date(millis));
+	}
+
+	/**
+	 * Gets the name of every attachment. The attachments of a course with the same
+	 * file name get a number so they are not written to the same file.
+	 */
+	private String[] getNames(Attachment[] attachments) {
+		String[] names = new String[attachments.length];
+		HashSet<String> used = new HashSet<String>();
+
+		for (int i = 0; i < attachments.length; i++) {
+			String name = getName(attachments[i]);
+			int slash = name.lastIndexOf('/');
+			int dot = name.lastIndexOf('.');
+
+			for (int copy = 2; !used.add(name); copy++) {
+				String original = getName(attachments[i]);
+				name = dot > slash + 1 ? original.substring(0, dot) + " (" + copy + ")" + original.substring(dot)
+						: original + " (" + copy + ")";
+			}
+
+			names[i] = name;
+		}
+
+		return names;
+	}
+
+	/**
+	 * Replaces the characters that can't be in a file name.
+	 */
+	private static String sanitize(String name) {
+		if (name == null || name.isBlank()) {
+			return "_";
+		}
+
+		name = name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").strip();
+		return name.equals(".") || name.equals("..") ? "_" : name;
+	}
+
+	/**
+	 * Counts the status of a download.
+	 */
+	private void count(DownloadStatus status) {
+		switch (status) {
+		case DOWNLOADED:
+			this.downloaded.incrementAndGet();
+			break;
+		case RESUMED:
+			this.resumed.incrementAndGet();
+			break;
+		case SKIPPED:
+			this.skipped.incrementAndGet();
+			break;
+		case DEDUPLICATED:
+			this.deduplicated.incrementAndGet();
+			break;
+		case FAILED:
+			this.failed.incrementAndGet();
+			break;
+		}
+	}
+
+	/**
+	 * Gets the semaphore of the host or creates it.
+	 */
+	private Semaphore getPermits(String host) {
+		return this.hostPermits.computeIfAbsent(host, key -> new Semaphore(this.maxPerHost, true));
+	}
+
+	/**
+	 * Adds the bytes read from the stream to a counter.
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+
+		private final AtomicLong counter;
+
+		private CountingInputStream(InputStream in, AtomicLong counter) {
+			super(in);
+			this.counter = counter;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = super.read();
+			if (read >= 0) {
+				this.counter.incrementAndGet();
+			}
+			return read;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read > 0) {
+				this.counter.addAndGet(read);
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			this.counter.addAndGet(skipped);
+			return skipped;
+		}
+	}
+
+	// Getters
+	public Path getDirectory() {
+		return this.directory;
+	}
+
+	public AttachmentStore getStore() {
+		return this.store;
+	}
+
+	public int getMaxPerHost() {
+		return this.maxPerHost;
+	}
+
+	public long getDownloaded() {
+		return this.downloaded.get();
+	}
+
+	public long getResumed() {
+		return this.resumed.get();
+	}
+
+	public long getSkipped() {
+		return this.skipped.get();
+	}
+
+	public long getDeduplicated() {
+		return this.deduplicated.get();
+	}
+
+	public long getFailed() {
+		return this.failed.get();
+	}
+
+	/**
+	 * Gets the number of bytes written to disk.
+	 */
+	public long getBytes() {
+		return this.bytes.get();
+	}
+}
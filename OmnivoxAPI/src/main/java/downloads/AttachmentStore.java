@@ -0,0 +1,497 @@
+package downloads;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class keeps the downloaded attachments on disk by the hash of their
+ * content, so a file given to many students is only stored once.
+ *
+ * Every student has a manifest giving the hash of each of their files by name.
+ * The store counts how many manifest entries reference every file and deletes
+ * a file once nothing references it anymore.
+ *
+ * The directory of the store is laid out like this:
+ * <ul>
+ * <li>objects/ab/abcdef...: The files by their SHA-256 hash</li>
+ * <li>manifests/[hash of the student number].manifest: The names and hashes of
+ * the files of a student</li>
+ * <li>sources.index: The hash of the files already downloaded by their url, size
+ * and date. A line is added for every new source, it is never rewritten.</li>
+ * </ul>
+ *
+ * This class is safe to use from many threads at the same time, but only one
+ * process should use a directory.
+ */
+public class AttachmentStore {
+
+	/**
+	 * The maximum number of bytes moved from a stream to a file at once.
+	 */
+	private static final long chunkSize = 1 << 20;
+
+	/*
+	 * The directories of the store
+	 */
+	private final Path directory;
+	private final Path objects;
+	private final Path manifests;
+
+	/**
+	 * The file holding the hash of the files by their source.
+	 */
+	private final Path sourcesFile;
+
+	/**
+	 * The files of every student by name. The key is the hash of the student
+	 * number, like the name of the manifest.
+	 */
+	private final HashMap<String, Properties> studentFiles = new HashMap<String, Properties>();
+
+	/**
+	 * The number of manifest entries referencing every file.
+	 */
+	private final HashMap<String, Integer> references = new HashMap<String, Integer>();
+
+	/**
+	 * The hash of every file already downloaded by its source.
+	 */
+	private final ConcurrentHashMap<String, String> sources = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * The latest date of every file downloaded from a url, by the url and the
+	 * hash of the file.
+	 */
+	private final ConcurrentHashMap<String, Long> sourceDates = new ConcurrentHashMap<String, Long>();
+
+	/**
+	 * Held while a line is added to the sources file.
+	 */
+	private final Object sourcesLock = new Object();
+
+	/**
+	 * The number of files given to the store that were already in it.
+	 */
+	private long deduplicated = 0;
+
+	/**
+	 * The only constructor for the Attachment Store. The manifests already in the
+	 * directory are read to count the references of every file.
+	 *
+	 * @param directory The directory of the store. It will be created if it
+	 *                  doesn't exist.
+	 */
+	public AttachmentStore(Path directory) throws IOException {
+		if (directory == null) {
+			throw new NullPointerException("Directory is null");
+		}
+
+		this.directory = directory;
+		this.objects = directory.resolve("objects");
+		this.manifests = directory.resolve("manifests");
+		this.sourcesFile = directory.resolve("sources.index");
+
+		Files.createDirectories(this.objects);
+		Files.createDirectories(this.manifests);
+
+		// Counting the references of the manifests
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(this.manifests, "*.manifest")) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				Properties manifest = read(file);
+
+				this.studentFiles.put(name.substring(0, name.length() - ".manifest".length()), manifest);
+				for (String entry : manifest.stringPropertyNames()) {
+					reference(manifest.getProperty(entry));
+				}
+			}
+		}
+
+		if (Files.exists(this.sourcesFile)) {
+			readSources();
+		}
+	}
+
+	/**
+	 * Streams a file into the store and gives it to the student under the name.
+	 * If the same content is already stored, the stream is only used to compute
+	 * its hash and the stored file is referenced.
+	 *
+	 * @param studentNumber The student the file belongs to
+	 * @param name          The name of the file for the student. Ex: Course/File.pdf
+	 * @param in            The content of the file
+	 *
+	 * @return The hash of the content
+	 */
+	public String ingest(String studentNumber, String name, InputStream in) throws IOException {
+		Path temporary = Files.createTempFile(this.objects, "ingest", ".tmp");
+
+		try {
+			MessageDigest digest = newDigest();
+
+			try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(in, digest));
+					FileChannel sink = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+
+				long position = 0;
+				long transferred;
+				while ((transferred = sink.transferFrom(source, position, chunkSize)) > 0) {
+					position += transferred;
+				}
+			}
+
+			String hash = toHex(digest.digest());
+
+			synchronized (this) {
+				Path object = getObject(hash);
+
+				if (Files.exists(object)) {
+					this.deduplicated++;
+				} else {
+					Files.createDirectories(object.getParent());
+					Files.move(temporary, object, StandardCopyOption.ATOMIC_MOVE);
+				}
+
+				put(studentNumber, name, hash);
+			}
+
+			return hash;
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * Gives a file already in the store to the student under the name.
+	 *
+	 * @param studentNumber The student the file belongs to
+	 * @param name          The name of the file for the student
+	 * @param hash          The hash of the stored file
+	 *
+	 * @return If the file is in the store and was given to the student
+	 */
+	public synchronized boolean link(String studentNumber, String name, String hash) throws IOException {
+		if (hash == null || !Files.exists(getObject(hash))) {
+			return false;
+		}
+
+		this.deduplicated++;
+		put(studentNumber, name, hash);
+		return true;
+	}
+
+	/**
+	 * Removes a file of the student. The stored file is deleted if no other
+	 * manifest references it.
+	 *
+	 * @param studentNumber The student the file belongs to
+	 * @param name          The name of the file for the student
+	 */
+	public synchronized void remove(String studentNumber, String name) throws IOException {
+		String key = getKey(studentNumber);
+		Properties manifest = this.studentFiles.get(key);
+
+		if (manifest == null || manifest.getProperty(name) == null) {
+			return;
+		}
+
+		String hash = (String) manifest.remove(name);
+		write(this.manifests.resolve(key + ".manifest"), manifest);
+		release(hash);
+	}
+
+	/**
+	 * Gets the hash of a file of the student.
+	 *
+	 * @param studentNumber The student the file belongs to
+	 * @param name          The name of the file for the student
+	 *
+	 * @return The hash or null if the student doesn't have the file
+	 */
+	public synchronized String getHash(String studentNumber, String name) {
+		Properties manifest = this.studentFiles.get(getKey(studentNumber));
+		return manifest == null ? null : manifest.getProperty(name);
+	}
+
+	/**
+	 * Gets the files of the student.
+	 *
+	 * @param studentNumber The student
+	 *
+	 * @return The hash of every file by name
+	 */
+	public synchronized Map<String, String> getManifest(String studentNumber) {
+		HashMap<String, String> return_map = new HashMap<String, String>();
+		Properties manifest = this.studentFiles.get(getKey(studentNumber));
+
+		if (manifest != null) {
+			for (String name : manifest.stringPropertyNames()) {
+				return_map.put(name, manifest.getProperty(name));
+			}
+		}
+
+		return return_map;
+	}
+
+	/**
+	 * Opens a stored file to read it without loading it in memory.
+	 *
+	 * @param hash The hash of the file
+	 *
+	 * @return The stream of the file
+	 */
+	public InputStream open(String hash) throws IOException {
+		return Files.newInputStream(getObject(hash));
+	}
+
+	/**
+	 * Opens a file of the student to read it without loading it in memory.
+	 *
+	 * @param studentNumber The student the file belongs to
+	 * @param name          The name of the file for the student
+	 *
+	 * @return The stream of the file or null if the student doesn't have it
+	 */
+	public InputStream open(String studentNumber, String name) throws IOException {
+		String hash = getHash(studentNumber, name);
+		return hash == null ? null : open(hash);
+	}
+
+	/**
+	 * Gets the hash of the file already downloaded from the same source.
+	 *
+	 * A source is only known when Omnivox gives the size and the date of the file.
+	 *
+	 * @param url      The url of the file
+	 * @param length   The size of the file or -1 if it isn't known
+	 * @param modified The date the file was modified or 0 if it isn't known
+	 *
+	 * @return The hash of the file or null if the source hasn't been seen
+	 */
+	public String findSource(URL url, long length, long modified) {
+		if (length < 0 || modified == 0) {
+			return null;
+		}
+		return this.sources.get(getSource(url, length, modified));
+	}
+
+	/**
+	 * Gets the date of the file downloaded from the url with the hash, to ask
+	 * Omnivox for the file only if it changed since.
+	 *
+	 * @param url  The url of the file
+	 * @param hash The hash of the file
+	 *
+	 * @return The latest date the file was modified or 0 if it isn't known
+	 */
+	public long getSourceDate(URL url, String hash) {
+		if (hash == null) {
+			return 0;
+		}
+
+		Long modified = this.sourceDates.get(url.toExternalForm() + " " + hash);
+		return modified == null ? 0 : modified;
+	}
+
+	/**
+	 * Keeps the hash of a file downloaded from the source so it isn't downloaded
+	 * again for the other students. A new source is added at the end of the
+	 * sources file.
+	 *
+	 * @param url      The url of the file
+	 * @param length   The size of the file or -1 if it isn't known
+	 * @param modified The date the file was modified or 0 if it isn't known
+	 * @param hash     The hash of the file
+	 */
+	public void recordSource(URL url, long length, long modified, String hash) throws IOException {
+		if (length < 0 || modified == 0) {
+			return;
+		}
+
+		String source = getSource(url, length, modified);
+		if (hash.equals(this.sources.put(source, hash))) {
+			return;
+		}
+		this.sourceDates.merge(url.toExternalForm() + " " + hash, modified, Math::max);
+
+		// The url is last since it is the only part that could have a space
+		String line = hash + " " + length + " " + modified + " " + url.toExternalForm() + "\n";
+		synchronized (this.sourcesLock) {
+			Files.write(this.sourcesFile, line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+		}
+	}
+
+	/**
+	 * Reads the sources file. A line cut by a crash is ignored.
+	 */
+	private void readSources() throws IOException {
+		for (String line : Files.readAllLines(this.sourcesFile, StandardCharsets.UTF_8)) {
+			String[] parts = line.split(" ", 4);
+
+			if (parts.length < 4 || !parts[0].matches("[0-9a-f]{64}")) {
+				continue;
+			}
+
+			try {
+				long length = Long.parseLong(parts[1]);
+				long modified = Long.parseLong(parts[2]);
+
+				this.sources.put(parts[3] + " " + length + " " + modified, parts[0]);
+				this.sourceDates.merge(parts[3] + " " + parts[0], modified, Math::max);
+			} catch (NumberFormatException e) {
+				continue;
+			}
+		}
+	}
+
+	/**
+	 * Gives the stored file to the student under the name and saves the manifest.
+	 */
+	private void put(String studentNumber, String name, String hash) throws IOException {
+		String key = getKey(studentNumber);
+		Properties manifest = this.studentFiles.computeIfAbsent(key, ignored -> new Properties());
+
+		String previous = (String) manifest.setProperty(name, hash);
+		write(this.manifests.resolve(key + ".manifest"), manifest);
+
+		reference(hash);
+		if (previous != null) {
+			release(previous);
+		}
+	}
+
+	/**
+	 * Adds a reference to a stored file.
+	 */
+	private void reference(String hash) {
+		this.references.merge(hash, 1, Integer::sum);
+	}
+
+	/**
+	 * Removes a reference to a stored file and deletes it if it was the last one.
+	 */
+	private void release(String hash) throws IOException {
+		Integer count = this.references.merge(hash, -1, Integer::sum);
+
+		if (count == null || count <= 0) {
+			this.references.remove(hash);
+			Files.deleteIfExists(getObject(hash));
+		}
+	}
+
+	/**
+	 * Gets the path of a stored file.
+	 */
+	private Path getObject(String hash) {
+		if (!hash.matches("[0-9a-f]{64}")) {
+			throw new IllegalArgumentException("Invalid hash: " + hash);
+		}
+		return this.objects.resolve(hash.substring(0, 2)).resolve(hash);
+	}
+
+	/**
+	 * Gets the key of a student. It is a hash of the student number so the
+	 * directory doesn't list them.
+	 */
+	private static String getKey(String studentNumber) {
+		if (studentNumber == null) {
+			throw new NullPointerException("Student Number is null");
+		}
+
+		return toHex(newDigest().digest(studentNumber.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static String getSource(URL url, long length, long modified) {
+		return url.toExternalForm() + " " + length + " " + modified;
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] hash) {
+		StringBuilder hex = new StringBuilder(hash.length * 2);
+		for (byte b : hash) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	private static Properties read(Path file) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(file)) {
+			properties.load(in);
+		}
+		return properties;
+	}
+
+	/**
+	 * Writes to a temporary file first so a crash never leaves a broken file.
+	 */
+	private static void write(Path file, Properties properties) throws IOException {
+		Path temporary = Files.createTempFile(file.getParent(), "store", ".tmp");
+
+		try {
+			try (OutputStream out = Files.newOutputStream(temporary)) {
+				properties.store(out, null);
+			}
+
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	// Getters
+	public Path getDirectory() {
+		return this.directory;
+	}
+
+	/**
+	 * Gets the number of distinct files stored.
+	 */
+	public synchronized int getFiles() {
+		return this.references.size();
+	}
+
+	/**
+	 * Gets the number of manifest entries across every student. It is the number
+	 * of files there would be without the store.
+	 */
+	public synchronized long getReferences() {
+		long total = 0;
+		for (int count : this.references.values()) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * Gets the number of files given to the store that were already in it.
+	 */
+	public synchronized long getDeduplicated() {
+		return this.deduplicated;
+	}
+}
@@ -0,0 +1,34 @@
+package downloads;
+
+/**
+ * This enum represents what the {@link AttachmentDownloader} did with an
+ * {@link Attachment}.
+ */
+public enum DownloadStatus {
+
+	/**
+	 * The whole file was downloaded.
+	 */
+	DOWNLOADED,
+
+	/**
+	 * The rest of a partial file was downloaded.
+	 */
+	RESUMED,
+
+	/**
+	 * The file on disk has the same size and isn't older than the one on Omnivox.
+	 */
+	SKIPPED,
+
+	/**
+	 * The file was already in the store for another student, so only a reference
+	 * to it was added.
+	 */
+	DEDUPLICATED,
+
+	/**
+	 * The file couldn't be downloaded.
+	 */
+	FAILED
+}
@@ -0,0 +1,21 @@
+package engines;
+
+/**
+ * This enum represents the engines that can read the Lea course pages.
+ */
+public enum Engine {
+
+	/**
+	 * Reads the pages with the HtmlUnit browser emulation of the scraper. It is the
+	 * slowest engine but it works with any Omnivox page.
+	 */
+	HTMLUNIT,
+
+	/**
+	 * Reads the pages with plain HTTP requests and the streaming
+	 * {@link RowExtractor}. It needs the scraper to resolve the course urls and the
+	 * assembler to support {@link RawPage} objects. The pages are read with
+	 * HtmlUnit when a course button doesn't have a usable link.
+	 */
+	RAW_HTTP
+}
@@ -0,0 +1,480 @@
+package engines;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * This class is a streaming tokenizer for Html documents.
+ *
+ * It reads the document from a {@link Reader} one token at a time without
+ * building a DOM. It is lenient like a browser: it never fails on broken
+ * markup, it skips comments and doctypes and it doesn't look inside of the
+ * script and style elements.
+ *
+ * Usage: call {@link #next()} until it returns {@link #END}, then read the
+ * current token with the getters.
+ */
+public class HtmlTokenizer {
+
+	/**
+	 * The token type of an opening tag. Ex: &lt;td class="x"&gt;
+	 */
+	public static final int START_TAG = 1;
+
+	/**
+	 * The token type of a closing tag. Ex: &lt;/td&gt;
+	 */
+	public static final int END_TAG = 2;
+
+	/**
+	 * The token type of the text between two tags. Its entities are decoded.
+	 */
+	public static final int TEXT = 3;
+
+	/**
+	 * The token type returned when the document is over.
+	 */
+	public static final int END = 0;
+
+	/**
+	 * The table of the Html named entities shipped with the parser of HtmlUnit.
+	 * The names of the entities end with a semicolon in it.
+	 */
+	private static final String entitiesResource = "/net/sourceforge/htmlunit/cyberneko/res/html_entities.properties";
+
+	/**
+	 * The length of the longest entity name.
+	 */
+	private static final int maxEntityLength = 32;
+
+	/**
+	 * Every named entity of Html by its name without the semicolon.
+	 */
+	private static final HashMap<String, String> entities = new HashMap<String, String>();
+
+	/**
+	 * The chars of the numeric entities from 128 to 159, read as windows-1252 like
+	 * the browsers do.
+	 */
+	private static final String windows1252 = "\u20ac\u0081\u201a\u0192\u201e\u2026\u2020\u2021"
+			+ "\u02c6\u2030\u0160\u2039\u0152\u008d\u017d\u008f"
+			+ "\u0090\u2018\u2019\u201c\u201d\u2022\u2013\u2014"
+			+ "\u02dc\u2122\u0161\u203a\u0153\u009d\u017e\u0178";
+
+	static {
+		Properties table = new Properties();
+		try (InputStream input = HtmlTokenizer.class.getResourceAsStream(entitiesResource)) {
+			if (input != null) {
+				table.load(input);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		for (String name : table.stringPropertyNames()) {
+			if (name.endsWith(";") && name.length() - 1 <= maxEntityLength) {
+				entities.put(name.substring(0, name.length() - 1), table.getProperty(name));
+			}
+		}
+
+		// The non-breaking spaces stay plain spaces so they are stripped with the text
+		entities.put("nbsp", " ");
+	}
+
+	/**
+	 * The reader of the document.
+	 */
+	private final Reader reader;
+
+	/**
+	 * The character read ahead or -2 if there is none.
+	 */
+	private int peeked = -2;
+
+	/**
+	 * Used to build the text and names of the tokens without new buffers.
+	 */
+	private final StringBuilder buffer = new StringBuilder();
+
+	/**
+	 * Holds the attributes of the current start tag.
+	 */
+	private final HashMap<String, String> attributes = new HashMap<String, String>();
+
+	/**
+	 * The attributes given to the readers of the tokens.
+	 */
+	private final Map<String, String> attributesView = Collections.unmodifiableMap(this.attributes);
+
+	/**
+	 * The type of the current token.
+	 */
+	private int type = END;
+
+	/**
+	 * The lower case name of the current tag.
+	 */
+	private String name;
+
+	/**
+	 * The text of the current text token.
+	 */
+	private String text;
+
+	/**
+	 * If the current start tag closes itself. Ex: &lt;br/&gt;
+	 */
+	private boolean selfClosing;
+
+	/**
+	 * The only constructor for the Html Tokenizer.
+	 *
+	 * @param reader The reader of the document. It should be buffered.
+	 */
+	public HtmlTokenizer(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Reads the next token of the document.
+	 *
+	 * @return The type of the token
+	 */
+	public int next() throws IOException {
+		this.name = null;
+		this.text = null;
+		this.selfClosing = false;
+		this.attributes.clear();
+
+		while (true) {
+			int c = read();
+
+			if (c == -1) {
+				return this.type = END;
+			}
+
+			if (c != '<') {
+				unread(c);
+				readText(false);
+				return this.type = TEXT;
+			}
+
+			int after = read();
+
+			if (after == '/') {
+				readName();
+				skipUntil('>');
+				if (this.name.isEmpty())
+					continue;
+				return this.type = END_TAG;
+			}
+
+			if (after == '!' || after == '?') {
+				skipMarkupDeclaration(after);
+				continue;
+			}
+
+			if (after == -1 || !Character.isLetter(after)) {
+				// Not a tag, the < is part of the text
+				unread(after);
+				this.buffer.setLength(0);
+				this.buffer.append('<');
+				readText(true);
+				return this.type = TEXT;
+			}
+
+			unread(after);
+			readName();
+			readAttributes();
+
+			// The content of these elements is never needed
+			if (!this.selfClosing && (this.name.equals("script") || this.name.equals("style"))) {
+				skipRawText(this.name);
+			}
+
+			return this.type = START_TAG;
+		}
+	}
+
+	// Getters
+	public int getType() {
+		return this.type;
+	}
+
+	/**
+	 * Gets the lower case name of the current tag.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Gets the decoded text of the current text token.
+	 */
+	public String getText() {
+		return this.text;
+	}
+
+	/**
+	 * Gets an attribute of the current start tag.
+	 *
+	 * @param attribute The lower case name of the attribute
+	 *
+	 * @return The decoded value or null if the tag doesn't have it
+	 */
+	public String getAttribute(String attribute) {
+		return this.attributes.get(attribute);
+	}
+
+	/**
+	 * Gets the attributes of the current start tag by their lower case name. The
+	 * map is reused by the next start tag.
+	 */
+	public Map<String, String> getAttributes() {
+		return this.attributesView;
+	}
+
+	public boolean isSelfClosing() {
+		return this.selfClosing;
+	}
+
+	// Private methods
+	private int read() throws IOException {
+		if (this.peeked != -2) {
+			int c = this.peeked;
+			this.peeked = -2;
+			return c;
+		}
+		return this.reader.read();
+	}
+
+	private void unread(int c) {
+		this.peeked = c;
+	}
+
+	/**
+	 * Reads the text until the next tag.
+	 * 
+	 * @param continued If the buffer already holds the start of the text
+	 */
+	private void readText(boolean continued) throws IOException {
+		if (!continued) {
+			this.buffer.setLength(0);
+		}
+
+		int c;
+		while ((c = read()) != -1 && c != '<') {
+			if (c == '&') {
+				readEntity(this.buffer);
+			} else {
+				this.buffer.append((char) c);
+			}
+		}
+		unread(c);
+
+		this.text = this.buffer.toString();
+		this.buffer.setLength(0);
+	}
+
+	/**
+	 * Reads the lower case name of a tag.
+	 */
+	private void readName() throws IOException {
+		this.buffer.setLength(0);
+
+		int c;
+		while ((c = read()) != -1 && !Character.isWhitespace(c) && c != '>' && c != '/') {
+			this.buffer.append(Character.toLowerCase((char) c));
+		}
+		unread(c);
+
+		this.name = this.buffer.toString();
+	}
+
+	/**
+	 * Reads the attributes of a start tag until its end.
+	 */
+	private void readAttributes() throws IOException {
+		while (true) {
+			int c = skipWhitespace();
+
+			if (c == -1 || c == '>') {
+				return;
+			}
+
+			if (c == '/') {
+				this.selfClosing = true;
+				continue;
+			}
+			this.selfClosing = false;
+
+			// Reading the name of the attribute
+			this.buffer.setLength(0);
+			while (c != -1 && !Character.isWhitespace(c) && c != '=' && c != '>' && c != '/') {
+				this.buffer.append(Character.toLowerCase((char) c));
+				c = read();
+			}
+			String attribute = this.buffer.toString();
+
+			unread(c);
+			c = skipWhitespace();
+
+			if (c != '=') {
+				// Attribute without a value. Ex: checked
+				unread(c);
+				this.attributes.putIfAbsent(attribute, "");
+				continue;
+			}
+
+			// Reading the value of the attribute
+			this.buffer.setLength(0);
+			int quote = skipWhitespace();
+
+			if (quote == '"' || quote == '\'') {
+				while ((c = read()) != -1 && c != quote) {
+					if (c == '&') {
+						readEntity(this.buffer);
+					} else {
+						this.buffer.append((char) c);
+					}
+				}
+			} else {
+				c = quote;
+				while (c != -1 && !Character.isWhitespace(c) && c != '>') {
+					if (c == '&') {
+						readEntity(this.buffer);
+					} else {
+						this.buffer.append((char) c);
+					}
+					c = read();
+				}
+				unread(c);
+			}
+
+			this.attributes.putIfAbsent(attribute, this.buffer.toString());
+		}
+	}
+
+	/**
+	 * Decodes an entity after its &amp; and appends it. Every named entity of Html
+	 * and every decimal or hexadecimal entity is decoded, unknown entities are kept
+	 * as they are.
+	 */
+	private void readEntity(StringBuilder out) throws IOException {
+		StringBuilder entity = new StringBuilder();
+
+		int c;
+		while ((c = read()) != -1 && c != ';' && entity.length() < maxEntityLength
+				&& (Character.isLetterOrDigit(c) || c == '#')) {
+			entity.append((char) c);
+		}
+
+		if (c != ';') {
+			unread(c);
+			out.append('&').append(entity);
+			return;
+		}
+
+		String value = entity.toString();
+
+		try {
+			if (value.startsWith("#x") || value.startsWith("#X")) {
+				appendCodePoint(out, Integer.parseInt(value.substring(2), 16));
+				return;
+			} else if (value.startsWith("#")) {
+				appendCodePoint(out, Integer.parseInt(value.substring(1)));
+				return;
+			}
+		} catch (IllegalArgumentException e) {
+			// Invalid number, kept as it is
+		}
+
+		String decoded = entities.get(value);
+		if (decoded == null) {
+			out.append('&').append(value).append(';');
+		} else {
+			out.append(decoded);
+		}
+	}
+
+	/**
+	 * Appends the char of a numeric entity like a browser does. The null char, the
+	 * surrogates and the numbers above the last code point give the replacement
+	 * char.
+	 */
+	private static void appendCodePoint(StringBuilder out, int codePoint) {
+		if (codePoint >= 0x80 && codePoint <= 0x9f) {
+			out.append(windows1252.charAt(codePoint - 0x80));
+		} else if (codePoint <= 0 || codePoint > Character.MAX_CODE_POINT
+				|| (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+			out.append('\ufffd');
+		} else {
+			out.appendCodePoint(codePoint);
+		}
+	}
+
+	/**
+	 * Skips a comment, a doctype or a processing instruction.
+	 */
+	private void skipMarkupDeclaration(int first) throws IOException {
+		int c = read();
+
+		if (first == '!' && c == '-') {
+			int next = read();
+			if (next == '-') {
+				// Comment: skipping until -->
+				int dashes = 0;
+				while ((c = read()) != -1) {
+					if (c == '>' && dashes >= 2)
+						return;
+					dashes = c == '-' ? dashes + 1 : 0;
+				}
+				return;
+			}
+			c = next;
+		}
+
+		unread(c);
+		skipUntil('>');
+	}
+
+	/**
+	 * Skips the content of a raw text element until its closing tag.
+	 */
+	private void skipRawText(String element) throws IOException {
+		int matched = -1;
+		String closing = "</" + element;
+
+		int c;
+		while ((c = read()) != -1) {
+			if (matched + 1 < closing.length() && Character.toLowerCase(c) == closing.charAt(matched + 1)) {
+				matched++;
+
+				if (matched + 1 == closing.length()) {
+					skipUntil('>');
+					return;
+				}
+			} else {
+				matched = c == '<' ? 0 : -1;
+			}
+		}
+	}
+
+	private void skipUntil(int end) throws IOException {
+		int c;
+		while ((c = read()) != -1 && c != end) {
+		}
+	}
+
+	private int skipWhitespace() throws IOException {
+		int c;
+		while ((c = read()) != -1 && Character.isWhitespace(c)) {
+		}
+		return c;
+	}
+}
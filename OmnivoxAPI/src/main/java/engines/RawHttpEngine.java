@@ -0,0 +1,359 @@
+package engines;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpCookie;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import com.gargoylesoftware.htmlunit.CookieManager;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.util.Cookie;
+
+import assemblers.Assembler;
+
+/**
+ * This class is the lightweight engine used to read the Lea course pages.
+ *
+ * Instead of emulating a browser, it makes plain HTTP requests with the
+ * cookies of a logged in {@link WebClient} and streams the response through a
+ * {@link RowExtractor}. No DOM and no JavaScript engine is involved, so only the
+ * rows needed by the {@link Assembler} are kept in memory.
+ *
+ * The cookies are read from the client for every request and the cookies set by
+ * the responses are added back to it, so a refreshed session is kept for the
+ * next pages loaded by HtmlUnit. The redirects are followed by hand and only on
+ * the same host, so the cookies are never sent to another host.
+ *
+ * This class is safe to use from many threads at the same time.
+ */
+public class RawHttpEngine {
+
+	/**
+	 * The timeout of the connections in milliseconds. It is the same as the one of
+	 * the scrapers' clients.
+	 */
+	private static final int timeout = 10000;
+
+	/**
+	 * The maximum number of redirects followed for a request.
+	 */
+	private static final int maxRedirects = 5;
+
+	/**
+	 * The cookies of the client, sent with every request.
+	 */
+	private final CookieManager cookieManager;
+
+	/**
+	 * The user agent of the client the cookies come from.
+	 */
+	private final String userAgent;
+
+	/**
+	 * The layout of the pages extracted.
+	 */
+	private final RawLayout layout;
+
+	/**
+	 * Constructor for the Raw Http Engine reading the Lea pages of Champlain and
+	 * Maisonneuve.
+	 *
+	 * @param client The logged in client whose cookies will be used
+	 */
+	public RawHttpEngine(WebClient client) {
+		this(client, RawLayout.lea());
+	}
+
+	/**
+	 * Constructor for the Raw Http Engine.
+	 *
+	 * @param client The logged in client whose cookies will be used
+	 * @param layout The layout of the pages of the college
+	 */
+	public RawHttpEngine(WebClient client, RawLayout layout) {
+		if (client == null) {
+			throw new NullPointerException("Client is null");
+		}
+		if (layout == null) {
+			throw new NullPointerException("Layout is null");
+		}
+
+		this.cookieManager = client.getCookieManager();
+		this.userAgent = client.getBrowserVersion().getUserAgent();
+		this.layout = layout;
+	}
+
+	/**
+	 * Represents the headers and the method added to a request before it is sent.
+	 */
+	@FunctionalInterface
+	public interface RequestSetup {
+		void setup(HttpURLConnection connection) throws IOException;
+	}
+
+	/**
+	 * Fetches a Lea document page and extracts its rows.
+	 *
+	 * @param url The url of the document page
+	 *
+	 * @return The extracted page
+	 */
+	public RawPage fetchDocumentPage(URL url) throws IOException {
+		HttpURLConnection connection = open(url);
+		try (Reader reader = openReader(connection)) {
+			return RowExtractor.extractDocuments(reader, connection.getURL(), this.layout);
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * Fetches a Lea assignment page and extracts its rows.
+	 *
+	 * @param url The url of the assignment page
+	 *
+	 * @return The extracted page
+	 */
+	public RawPage fetchAssignmentPage(URL url) throws IOException {
+		HttpURLConnection connection = open(url);
+		try (Reader reader = openReader(connection)) {
+			return RowExtractor.extractAssignments(reader, connection.getURL(), this.layout);
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * Sends a GET request to the url with the cookies that match it and reads the
+	 * status of the response, like {@link #send(URL, RequestSetup)}.
+	 *
+	 * @param url The url to request
+	 *
+	 * @return The connection of the last response
+	 */
+	public HttpURLConnection send(URL url) throws IOException {
+		return send(url, request -> {
+		});
+	}
+
+	/**
+	 * Sends a request to the url with the cookies that match it and reads the
+	 * status of the response.
+	 *
+	 * The redirects to the same host are followed with the same setup. A redirect
+	 * to another host isn't followed, its response is given as it is. The
+	 * response should be checked with {@link #isLoginPage(HttpURLConnection)}.
+	 *
+	 * @param url   The url to request
+	 * @param setup Adds the headers and the method of the request. It is called
+	 *              again for every redirect.
+	 *
+	 * @return The connection of the last response. Its url is the one that was
+	 *         requested last.
+	 */
+	public HttpURLConnection send(URL url, RequestSetup setup) throws IOException {
+		if (setup == null) {
+			throw new NullPointerException("Setup is null");
+		}
+
+		for (int redirects = 0;; redirects++) {
+			HttpURLConnection connection = connect(url);
+			setup.setup(connection);
+
+			int status = connection.getResponseCode();
+			storeCookies(connection);
+
+			String location = connection.getHeaderField("Location");
+			if (status < 300 || status > 308 || status == HttpURLConnection.HTTP_NOT_MODIFIED || location == null
+					|| redirects == maxRedirects) {
+				return connection;
+			}
+
+			URL next = new URL(url, location);
+			if (!next.getHost().equalsIgnoreCase(url.getHost())
+					|| (url.getProtocol().equals("https") && !next.getProtocol().equals("https"))) {
+				return connection;
+			}
+
+			connection.disconnect();
+			url = next;
+		}
+	}
+
+	/**
+	 * Checks if a connection that got its response was redirected to the Omnivox
+	 * login page. It happens when the session of the cookies has expired.
+	 *
+	 * @param connection The connection after its response code was read
+	 *
+	 * @return If the response is the login page
+	 */
+	public static boolean isLoginPage(HttpURLConnection connection) {
+		return connection.getURL().getPath().contains("/Identification/Login/");
+	}
+
+	/**
+	 * Prepares a connection to the url with the cookies that match it without
+	 * following the redirects.
+	 */
+	private HttpURLConnection connect(URL url) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setConnectTimeout(timeout);
+		connection.setReadTimeout(timeout);
+		connection.setInstanceFollowRedirects(false);
+		connection.setRequestProperty("User-Agent", this.userAgent);
+
+		String cookieHeader = getCookieHeader(url);
+		if (!cookieHeader.isEmpty()) {
+			connection.setRequestProperty("Cookie", cookieHeader);
+		}
+
+		return connection;
+	}
+
+	/**
+	 * Opens a connection to the url with the cookies that match it.
+	 */
+	private HttpURLConnection open(URL url) throws IOException {
+		HttpURLConnection connection = send(url,
+				request -> request.setRequestProperty("Accept-Encoding", "gzip"));
+
+		int status = connection.getResponseCode();
+		if (status != HttpURLConnection.HTTP_OK) {
+			connection.disconnect();
+			throw new IOException("Omnivox answered " + status + " for " + url);
+		}
+		if (isLoginPage(connection)) {
+			connection.disconnect();
+			throw new IOException("The session has expired, Omnivox answered the login page for " + url);
+		}
+
+		return connection;
+	}
+
+	/**
+	 * Opens a buffered reader on the body of the response using its charset.
+	 */
+	private static Reader openReader(HttpURLConnection connection) throws IOException {
+		InputStream in = connection.getInputStream();
+
+		if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+			in = new GZIPInputStream(in);
+		}
+
+		return new BufferedReader(new InputStreamReader(in, getCharset(connection.getContentType())));
+	}
+
+	/**
+	 * Gets the charset of a content type. Omnivox uses UTF-8 when it isn't given.
+	 */
+	private static Charset getCharset(String contentType) {
+		if (contentType != null) {
+			for (String parameter : contentType.split(";")) {
+				parameter = parameter.strip();
+
+				if (parameter.toLowerCase().startsWith("charset=")) {
+					try {
+						return Charset.forName(parameter.substring(8).replace("\"", ""));
+					} catch (IllegalArgumentException e) {
+						break;
+					}
+				}
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	/**
+	 * Builds the Cookie header with the cookies of the client matching the url.
+	 */
+	private String getCookieHeader(URL url) {
+		StringBuilder header = new StringBuilder();
+		String host = url.getHost().toLowerCase();
+		String path = url.getPath().isEmpty() ? "/" : url.getPath();
+		Date now = new Date();
+
+		for (Cookie cookie : this.cookieManager.getCookies()) {
+			String domain = cookie.getDomain() == null ? host : cookie.getDomain().toLowerCase();
+			if (domain.startsWith(".")) {
+				domain = domain.substring(1);
+			}
+
+			if (!host.equals(domain) && !host.endsWith("." + domain))
+				continue;
+			if (cookie.getPath() != null && !path.startsWith(cookie.getPath()))
+				continue;
+			if (cookie.isSecure() && !url.getProtocol().equals("https"))
+				continue;
+			if (cookie.getExpires() != null && cookie.getExpires().before(now))
+				continue;
+
+			if (header.length() > 0) {
+				header.append("; ");
+			}
+			header.append(cookie.getName()).append('=').append(cookie.getValue());
+		}
+
+		return header.toString();
+	}
+
+	/**
+	 * Adds the cookies set by a response to the client. A cookie that has expired
+	 * is removed from it.
+	 */
+	private void storeCookies(HttpURLConnection connection) {
+		URL url = connection.getURL();
+
+		for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+			if (header.getKey() == null || !header.getKey().equalsIgnoreCase("Set-Cookie"))
+				continue;
+
+			for (String value : header.getValue()) {
+				List<HttpCookie> cookies;
+				try {
+					cookies = HttpCookie.parse(value);
+				} catch (IllegalArgumentException e) {
+					continue;
+				}
+
+				for (HttpCookie cookie : cookies) {
+					this.cookieManager.addCookie(toCookie(cookie, url));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Converts a cookie set by a response to the cookie of the client. The domain
+	 * and the path that are not given are the ones of the url.
+	 */
+	private static Cookie toCookie(HttpCookie cookie, URL url) {
+		String domain = cookie.getDomain() == null ? url.getHost() : cookie.getDomain();
+		if (domain.startsWith(".")) {
+			domain = domain.substring(1);
+		}
+
+		String path = cookie.getPath();
+		if (path == null) {
+			String urlPath = url.getPath();
+			int slash = urlPath.lastIndexOf('/');
+			path = slash <= 0 ? "/" : urlPath.substring(0, slash);
+		}
+
+		Date expires = cookie.getMaxAge() < 0 ? null
+				: new Date(System.currentTimeMillis() + cookie.getMaxAge() * 1000);
+
+		return new Cookie(domain.toLowerCase(), cookie.getName(), cookie.getValue(), path, expires,
+				cookie.getSecure(), cookie.isHttpOnly());
+	}
+}
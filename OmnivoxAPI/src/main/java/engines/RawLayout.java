@@ -0,0 +1,106 @@
+package engines;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This class tells the {@link RowExtractor} what it keeps from a Lea course
+ * page: the title of the course, the rows of the documents and of the
+ * assignments, and the cell of the table nested in an assignment row that has
+ * the link of its submission.
+ *
+ * The rows are the tr elements matching their {@link TagPattern}. The layout of
+ * Champlain and Maisonneuve is given by {@link #lea()}, the other colleges get
+ * theirs from their {@link profiles.CollegeProfile}.
+ *
+ * This class is Immutable and final.
+ */
+public final class RawLayout {
+
+	/**
+	 * The layout of the Lea pages of Champlain and Maisonneuve.
+	 */
+	private static final RawLayout lea = new RawLayout(TagPattern.compile(".TitrePageLigne2"),
+			TagPattern.compile("tr.itemDataGrid, tr.itemDataGridAltern"),
+			TagPattern.compile("table#tabListeTravEtu tr[height=30]"), 1);
+
+	private final TagPattern courseName;
+	private final TagPattern documentRows;
+	private final TagPattern assignmentRows;
+
+	/**
+	 * The index of the cell of the nested table, starting at 0.
+	 */
+	private final int checkCell;
+
+	/**
+	 * The names of the ancestors used by the patterns.
+	 */
+	private final Set<String> ancestorNames;
+
+	/**
+	 * The only constructor for the Raw Layout.
+	 *
+	 * @param courseName     The element holding the name of the course
+	 * @param documentRows   The rows of the document page
+	 * @param assignmentRows The rows of the assignment page
+	 * @param checkCell      The cell of the table nested in an assignment row
+	 *                       with the link of its submission, starting at 0
+	 */
+	public RawLayout(TagPattern courseName, TagPattern documentRows, TagPattern assignmentRows, int checkCell) {
+		if (courseName == null) {
+			throw new NullPointerException("Course Name is null");
+		}
+		if (documentRows == null) {
+			throw new NullPointerException("Document Rows is null");
+		}
+		if (assignmentRows == null) {
+			throw new NullPointerException("Assignment Rows is null");
+		}
+		if (checkCell < 0) {
+			throw new IllegalArgumentException("The index of a cell starts at 0");
+		}
+
+		this.courseName = courseName;
+		this.documentRows = documentRows;
+		this.assignmentRows = assignmentRows;
+		this.checkCell = checkCell;
+
+		HashSet<String> names = new HashSet<String>(courseName.getAncestorNames());
+		names.addAll(documentRows.getAncestorNames());
+		names.addAll(assignmentRows.getAncestorNames());
+		this.ancestorNames = names;
+	}
+
+	/**
+	 * Gets the layout of the Lea pages of Champlain and Maisonneuve.
+	 */
+	public static RawLayout lea() {
+		return lea;
+	}
+
+	/**
+	 * Checks if the attributes of an element with that name are needed to match
+	 * the patterns.
+	 */
+	boolean isAncestor(String name) {
+		return this.ancestorNames.contains(name);
+	}
+
+	// Getters
+	public TagPattern getCourseName() {
+		return this.courseName;
+	}
+
+	public TagPattern getDocumentRows() {
+		return this.documentRows;
+	}
+
+	public TagPattern getAssignmentRows() {
+		return this.assignmentRows;
+	}
+
+	public int getCheckCell() {
+		return this.checkCell;
+	}
+}
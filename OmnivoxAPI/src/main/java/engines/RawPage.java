@@ -0,0 +1,56 @@
+package engines;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents a Lea course page read by the {@link RawHttpEngine}.
+ * 
+ * It is the lightweight version of an HtmlPage: it only holds the course name
+ * and the rows the assemblers need.
+ * 
+ * This class is Immutable and final.
+ */
+public final class RawPage {
+
+	/**
+	 * The url the page was fetched from.
+	 */
+	private final URL url;
+
+	/**
+	 * The name of the course in the title of the page.
+	 */
+	private final String courseName;
+
+	/**
+	 * The rows of the page in the order they appear.
+	 */
+	private final List<RawRow> rows;
+
+	/**
+	 * The only constructor for the Raw Page.
+	 */
+	RawPage(URL url, String courseName, List<RawRow> rows) {
+		this.url = url;
+		this.courseName = courseName;
+		this.rows = Collections.unmodifiableList(rows);
+	}
+
+	// Getters
+	public URL getUrl() {
+		return this.url;
+	}
+
+	/**
+	 * Gets the name of the course or null if the page doesn't have a title.
+	 */
+	public String getCourseName() {
+		return this.courseName;
+	}
+
+	public List<RawRow> getRows() {
+		return this.rows;
+	}
+}
@@ -0,0 +1,101 @@
+package engines;
+
+/**
+ * This class represents a table row extracted by the {@link RowExtractor}
+ * without building a DOM.
+ * 
+ * It only keeps what the assemblers read from a row: the text of every cell,
+ * the first link of every cell and if a cell starts with an image.
+ * 
+ * This class is Immutable and final.
+ */
+public final class RawRow {
+
+	/**
+	 * The text of every cell with its whitespace collapsed.
+	 */
+	private final String[] texts;
+
+	/**
+	 * The text of the first link of every cell or null if the cell has no link.
+	 */
+	private final String[] linkTexts;
+
+	/**
+	 * The href of the first link of every cell or null if the cell has no link.
+	 */
+	private final String[] linkUrls;
+
+	/**
+	 * If an image is a direct child of every cell. Ex: The star of a new document
+	 */
+	private final boolean[] images;
+
+	/**
+	 * If the row has a link in the check cell of the {@link RawLayout}, in a table
+	 * nested in one of its cells. Ex: The submission of an assignment
+	 */
+	private final boolean nestedLink;
+
+	/**
+	 * The only constructor for the Raw Row.
+	 */
+	RawRow(String[] texts, String[] linkTexts, String[] linkUrls, boolean[] images, boolean nestedLink) {
+		this.texts = texts;
+		this.linkTexts = linkTexts;
+		this.linkUrls = linkUrls;
+		this.images = images;
+		this.nestedLink = nestedLink;
+	}
+
+	/**
+	 * Gets the number of cells of the row.
+	 */
+	public int getCellCount() {
+		return this.texts.length;
+	}
+
+	/**
+	 * Gets the text of a cell.
+	 * 
+	 * @param cell The index of the cell starting at 0
+	 */
+	public String getText(int cell) {
+		return this.texts[cell];
+	}
+
+	/**
+	 * Gets the text of the first link in a cell.
+	 * 
+	 * @param cell The index of the cell starting at 0
+	 * 
+	 * @return The text of the link or null if the cell doesn't have one
+	 */
+	public String getLinkText(int cell) {
+		return this.linkTexts[cell];
+	}
+
+	/**
+	 * Gets the href of the first link in a cell as it is written in the page.
+	 * 
+	 * @param cell The index of the cell starting at 0
+	 * 
+	 * @return The href of the link or null if the cell doesn't have one
+	 */
+	public String getLinkUrl(int cell) {
+		return this.linkUrls[cell];
+	}
+
+	/**
+	 * Checks if an image is a direct child of a cell.
+	 * 
+	 * @param cell The index of the cell starting at 0
+	 */
+	public boolean hasImage(int cell) {
+		return this.images[cell];
+	}
+
+	public boolean hasNestedLink() {
+		return this.nestedLink;
+	}
+}
@@ -0,0 +1,355 @@
+package engines;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * This class extracts the rows of a Lea course page from a stream of Html
+ * tokens given by the {@link HtmlTokenizer}.
+ *
+ * It only keeps the rows the assemblers need and the title of the course, found
+ * with the {@link RawLayout} of the college. The rest of the page is read and
+ * thrown away right away.
+ */
+public final class RowExtractor {
+
+	/**
+	 * The elements that never have content nor a closing tag.
+	 */
+	private static final HashSet<String> voidElements = new HashSet<String>(Arrays.asList("area", "base", "br",
+			"col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr"));
+
+	/**
+	 * The elements that separate the text like a line break.
+	 */
+	private static final HashSet<String> blockElements = new HashSet<String>(
+			Arrays.asList("address", "blockquote", "br", "dd", "div", "dl", "dt", "fieldset", "form", "h1", "h2",
+					"h3", "h4", "h5", "h6", "hr", "li", "ol", "p", "pre", "table", "tbody", "td", "tfoot", "th",
+					"thead", "tr", "ul"));
+
+	/**
+	 * The layout of the pages of the college.
+	 */
+	private final RawLayout layout;
+
+	/**
+	 * The rows to extract.
+	 */
+	private final TagPattern rowPattern;
+
+	/**
+	 * The names of the elements currently open from the root to the deepest.
+	 */
+	private final ArrayList<String> open = new ArrayList<String>();
+
+	/**
+	 * The attributes of the elements currently open. They are only kept for the
+	 * ancestors of the layout's patterns, the others are null.
+	 */
+	private final ArrayList<Map<String, String>> openAttributes = new ArrayList<Map<String, String>>();
+
+	/**
+	 * The rows extracted so far.
+	 */
+	private final ArrayList<RawRow> rows = new ArrayList<RawRow>();
+
+	/*
+	 * State of the title being read
+	 */
+	private String courseName;
+	private StringBuilder title;
+	private int titleDepth = -1;
+
+	/*
+	 * State of the row being read. The depths are -1 when not inside of the
+	 * element.
+	 */
+	private RowBuilder row;
+	private int rowDepth = -1;
+	private int cellDepth = -1;
+	private int linkDepth = -1;
+	private int nestedRowDepth = -1;
+	private int nestedCellDepth = -1;
+	private int nestedCells = 0;
+
+	private RowExtractor(RawLayout layout, TagPattern rowPattern) {
+		this.layout = layout;
+		this.rowPattern = rowPattern;
+	}
+
+	/**
+	 * Extracts the rows of a Lea document page of Champlain or Maisonneuve.
+	 *
+	 * @param reader The reader of the page
+	 * @param url    The url of the page
+	 *
+	 * @return The extracted page
+	 */
+	public static RawPage extractDocuments(Reader reader, URL url) throws IOException {
+		return extractDocuments(reader, url, RawLayout.lea());
+	}
+
+	/**
+	 * Extracts the rows of a Lea document page.
+	 *
+	 * @param reader The reader of the page
+	 * @param url    The url of the page
+	 * @param layout The layout of the pages of the college
+	 *
+	 * @return The extracted page
+	 */
+	public static RawPage extractDocuments(Reader reader, URL url, RawLayout layout) throws IOException {
+		return new RowExtractor(layout, layout.getDocumentRows()).extract(reader, url);
+	}
+
+	/**
+	 * Extracts the rows of a Lea assignment page of Champlain or Maisonneuve.
+	 *
+	 * @param reader The reader of the page
+	 * @param url    The url of the page
+	 *
+	 * @return The extracted page
+	 */
+	public static RawPage extractAssignments(Reader reader, URL url) throws IOException {
+		return extractAssignments(reader, url, RawLayout.lea());
+	}
+
+	/**
+	 * Extracts the rows of a Lea assignment page.
+	 *
+	 * @param reader The reader of the page
+	 * @param url    The url of the page
+	 * @param layout The layout of the pages of the college
+	 *
+	 * @return The extracted page
+	 */
+	public static RawPage extractAssignments(Reader reader, URL url, RawLayout layout) throws IOException {
+		return new RowExtractor(layout, layout.getAssignmentRows()).extract(reader, url);
+	}
+
+	private RawPage extract(Reader reader, URL url) throws IOException {
+		HtmlTokenizer tokenizer = new HtmlTokenizer(reader);
+
+		int type;
+		while ((type = tokenizer.next()) != HtmlTokenizer.END) {
+			if (type == HtmlTokenizer.TEXT) {
+				appendText(tokenizer.getText());
+			} else if (type == HtmlTokenizer.START_TAG) {
+				startElement(tokenizer);
+			} else {
+				endElement(tokenizer.getName());
+			}
+		}
+
+		// Closing what the page left open
+		popTo(0);
+
+		return new RawPage(url, this.courseName, this.rows);
+	}
+
+	private void startElement(HtmlTokenizer tokenizer) {
+		String name = tokenizer.getName();
+
+		// Closing the cells and rows that have no closing tag
+		if (name.equals("td") || name.equals("th")) {
+			int cell = Math.max(this.open.lastIndexOf("td"), this.open.lastIndexOf("th"));
+			if (cell > this.open.lastIndexOf("tr")) {
+				popTo(cell);
+			}
+		} else if (name.equals("tr")) {
+			int tr = this.open.lastIndexOf("tr");
+			if (tr > this.open.lastIndexOf("table")) {
+				popTo(tr);
+			}
+		}
+
+		if (blockElements.contains(name)) {
+			appendText(" ");
+		}
+
+		// Matched before it is opened, so an ancestor is never the element itself
+		Map<String, String> attributes = tokenizer.getAttributes();
+		boolean title = this.courseName == null && this.title == null
+				&& this.layout.getCourseName().matches(name, attributes, this.open, this.openAttributes);
+		boolean rowStart = this.row == null && name.equals("tr")
+				&& this.rowPattern.matches(name, attributes, this.open, this.openAttributes);
+
+		// Void elements are never pushed but still have the depth of a child
+		int depth = this.open.size();
+		if (!voidElements.contains(name) && !tokenizer.isSelfClosing()) {
+			this.open.add(name);
+			this.openAttributes.add(this.layout.isAncestor(name) ? new HashMap<String, String>(attributes) : null);
+		}
+
+		// Checking if it is the title of the course
+		if (title && depth < this.open.size()) {
+			this.title = new StringBuilder();
+			this.titleDepth = depth;
+		}
+
+		if (this.row == null) {
+			if (rowStart) {
+				this.row = new RowBuilder();
+				this.rowDepth = depth;
+			}
+			return;
+		}
+
+		// Inside of a row
+		if ((name.equals("td") || name.equals("th")) && depth == this.rowDepth + 1) {
+			this.row.newCell();
+			this.cellDepth = depth;
+		} else if (this.cellDepth == -1) {
+			return;
+		} else if (name.equals("img") && depth == this.cellDepth + 1) {
+			this.row.images.set(this.row.images.size() - 1, true);
+		} else if (name.equals("a")) {
+			if (this.nestedCellDepth != -1 && this.nestedCells == this.layout.getCheckCell() + 1) {
+				this.row.nestedLink = true;
+			}
+
+			if (this.linkDepth == -1 && this.row.linkTexts.get(this.row.linkTexts.size() - 1) == null) {
+				this.linkDepth = depth;
+				this.row.linkTexts.set(this.row.linkTexts.size() - 1, new StringBuilder());
+				String href = tokenizer.getAttribute("href");
+				this.row.linkUrls.set(this.row.linkUrls.size() - 1, href == null ? "" : href);
+			}
+		} else if (name.equals("tr")) {
+			this.nestedRowDepth = depth;
+			this.nestedCells = 0;
+		} else if ((name.equals("td") || name.equals("th")) && depth == this.nestedRowDepth + 1) {
+			this.nestedCellDepth = depth;
+			this.nestedCells++;
+		}
+	}
+
+	private void endElement(String name) {
+		int index = this.open.lastIndexOf(name);
+
+		// Closing tag without an opening tag
+		if (index == -1) {
+			return;
+		}
+
+		popTo(index);
+
+		if (blockElements.contains(name)) {
+			appendText(" ");
+		}
+	}
+
+	/**
+	 * Closes every open element down to the given depth included.
+	 */
+	private void popTo(int depth) {
+		for (int i = this.open.size() - 1; i >= depth; i--) {
+			this.open.remove(i);
+			this.openAttributes.remove(i);
+
+			if (i == this.titleDepth) {
+				this.courseName = collapse(this.title);
+				this.title = null;
+				this.titleDepth = -1;
+			}
+
+			if (this.row == null)
+				continue;
+
+			if (i == this.linkDepth) {
+				this.linkDepth = -1;
+			}
+			if (i == this.nestedCellDepth) {
+				this.nestedCellDepth = -1;
+			}
+			if (i == this.nestedRowDepth) {
+				this.nestedRowDepth = -1;
+			}
+			if (i == this.cellDepth) {
+				this.cellDepth = -1;
+			}
+			if (i == this.rowDepth) {
+				this.rows.add(this.row.build());
+				this.row = null;
+				this.rowDepth = -1;
+			}
+		}
+	}
+
+	private void appendText(String text) {
+		if (this.title != null) {
+			this.title.append(text);
+		}
+
+		if (this.row != null && this.cellDepth != -1) {
+			this.row.texts.get(this.row.texts.size() - 1).append(text);
+
+			if (this.linkDepth != -1) {
+				this.row.linkTexts.get(this.row.linkTexts.size() - 1).append(text);
+			}
+		}
+	}
+
+	/**
+	 * Collapses every run of whitespace to a single space and strips the text.
+	 */
+	static String collapse(CharSequence text) {
+		StringBuilder collapsed = new StringBuilder(text.length());
+		boolean space = false;
+
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+
+			if (Character.isWhitespace(c) || c == ' ') {
+				space = collapsed.length() > 0;
+			} else {
+				if (space) {
+					collapsed.append(' ');
+					space = false;
+				}
+				collapsed.append(c);
+			}
+		}
+
+		return collapsed.toString();
+	}
+
+	/**
+	 * Used to build a {@link RawRow} while its cells are read.
+	 */
+	private static final class RowBuilder {
+		private final ArrayList<StringBuilder> texts = new ArrayList<StringBuilder>();
+		private final ArrayList<StringBuilder> linkTexts = new ArrayList<StringBuilder>();
+		private final ArrayList<String> linkUrls = new ArrayList<String>();
+		private final ArrayList<Boolean> images = new ArrayList<Boolean>();
+		private boolean nestedLink = false;
+
+		private void newCell() {
+			this.texts.add(new StringBuilder());
+			this.linkTexts.add(null);
+			this.linkUrls.add(null);
+			this.images.add(false);
+		}
+
+		private RawRow build() {
+			int cells = this.texts.size();
+
+			String[] texts = new String[cells];
+			String[] linkTexts = new String[cells];
+			boolean[] images = new boolean[cells];
+
+			for (int i = 0; i < cells; i++) {
+				texts[i] = collapse(this.texts.get(i));
+				linkTexts[i] = this.linkTexts.get(i) == null ? null : collapse(this.linkTexts.get(i));
+				images[i] = this.images.get(i);
+			}
+
+			return new RawRow(texts, linkTexts, this.linkUrls.toArray(new String[0]), images, this.nestedLink);
+		}
+	}
+}
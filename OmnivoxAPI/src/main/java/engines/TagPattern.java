@@ -0,0 +1,351 @@
+package engines;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class is a simple CSS selector matched against the start tags read by
+ * the {@link RowExtractor}. A streaming extractor can't evaluate an XPath, since
+ * it never has the whole page.
+ *
+ * A pattern is a list of alternatives separated by commas. Every alternative is
+ * an element with an optional ancestor before it:
+ * <ul>
+ * <li>{@code tr.itemDataGrid}: An element by name and class</li>
+ * <li>{@code .TitrePageLigne2}: Any element with the class</li>
+ * <li>{@code table#tabListeTravEtu tr[height=30]}: An element by name and
+ * attribute inside of a table with the id</li>
+ * </ul>
+ * An element is tested by its name (* or nothing for any element), .class, #id,
+ * [attribute] and [attribute=value]. An ancestor needs a name, it is tested on
+ * the closest open element with that name.
+ *
+ * This class is Immutable and final.
+ */
+public final class TagPattern {
+
+	/**
+	 * The element of every alternative.
+	 */
+	private final Step[] elements;
+
+	/**
+	 * The ancestor of every alternative or null if it doesn't have one.
+	 */
+	private final Step[] ancestors;
+
+	/**
+	 * The names of the ancestors.
+	 */
+	private final Set<String> ancestorNames;
+
+	/**
+	 * The pattern it was compiled from.
+	 */
+	private final String pattern;
+
+	private TagPattern(String pattern, Step[] elements, Step[] ancestors) {
+		this.pattern = pattern;
+		this.elements = elements;
+		this.ancestors = ancestors;
+
+		HashSet<String> names = new HashSet<String>();
+		for (Step ancestor : ancestors) {
+			if (ancestor != null) {
+				names.add(ancestor.name);
+			}
+		}
+		this.ancestorNames = Collections.unmodifiableSet(names);
+	}
+
+	/**
+	 * Compiles the pattern.
+	 *
+	 * @param pattern The pattern. Ex: tr.itemDataGrid, tr.itemDataGridAltern
+	 *
+	 * @return The compiled pattern
+	 *
+	 * @throws IllegalArgumentException If the pattern can't be read
+	 */
+	public static TagPattern compile(String pattern) throws IllegalArgumentException {
+		if (pattern == null) {
+			throw new NullPointerException("Pattern is null");
+		}
+
+		List<String> alternatives = split(pattern, ',');
+		if (alternatives.isEmpty()) {
+			throw new IllegalArgumentException("The pattern is empty");
+		}
+
+		Step[] elements = new Step[alternatives.size()];
+		Step[] ancestors = new Step[alternatives.size()];
+
+		for (int i = 0; i < alternatives.size(); i++) {
+			List<String> steps = split(alternatives.get(i), ' ');
+
+			if (steps.size() == 0 || steps.size() > 2) {
+				throw new IllegalArgumentException("An alternative needs an element and at most one ancestor: "
+						+ pattern);
+			}
+
+			elements[i] = Step.compile(steps.get(steps.size() - 1), pattern);
+
+			if (steps.size() == 2) {
+				ancestors[i] = Step.compile(steps.get(0), pattern);
+
+				if (ancestors[i].name == null) {
+					throw new IllegalArgumentException("An ancestor needs a name: " + pattern);
+				}
+			}
+		}
+
+		return new TagPattern(pattern.strip(), elements, ancestors);
+	}
+
+	/**
+	 * Splits the text at the separator outside of the brackets. The whitespace
+	 * around the parts is removed and the empty parts are left out.
+	 */
+	private static List<String> split(String text, char separator) {
+		ArrayList<String> parts = new ArrayList<String>();
+		StringBuilder part = new StringBuilder();
+		char quote = 0;
+		boolean bracket = false;
+
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (bracket) {
+				if (c == '"' || c == '\'') {
+					quote = c;
+				} else if (c == ']') {
+					bracket = false;
+				}
+			} else if (c == '[') {
+				bracket = true;
+			} else if (c == separator || (separator == ' ' && Character.isWhitespace(c))) {
+				if (!part.toString().isBlank()) {
+					parts.add(part.toString().strip());
+				}
+				part.setLength(0);
+				continue;
+			}
+
+			part.append(c);
+		}
+
+		if (!part.toString().isBlank()) {
+			parts.add(part.toString().strip());
+		}
+
+		return parts;
+	}
+
+	/**
+	 * Checks if a start tag matches the pattern.
+	 *
+	 * @param name           The lower case name of the element
+	 * @param attributes     The attributes of the element
+	 * @param openNames      The names of the elements open around it from the root
+	 * @param openAttributes The attributes of the open elements. Only the ones of
+	 *                       the ancestor names are needed, the others can be null.
+	 *
+	 * @return If one of the alternatives matches
+	 */
+	public boolean matches(String name, Map<String, String> attributes, List<String> openNames,
+			List<Map<String, String>> openAttributes) {
+
+		for (int i = 0; i < this.elements.length; i++) {
+			if (!this.elements[i].matches(name, attributes))
+				continue;
+
+			Step ancestor = this.ancestors[i];
+			if (ancestor == null) {
+				return true;
+			}
+
+			int index = openNames.lastIndexOf(ancestor.name);
+			if (index != -1 && ancestor.matches(ancestor.name, openAttributes.get(index))) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	// Getters
+	/**
+	 * Gets the names of the ancestors whose attributes are needed by
+	 * {@link #matches}.
+	 */
+	public Set<String> getAncestorNames() {
+		return this.ancestorNames;
+	}
+
+	// Overrides
+	@Override
+	public String toString() {
+		return this.pattern;
+	}
+
+	/**
+	 * An element of a pattern with its tests.
+	 */
+	private static final class Step {
+
+		/**
+		 * The lower case name or null for any element.
+		 */
+		private final String name;
+
+		/**
+		 * The lower case name of the attribute of every test.
+		 */
+		private final String[] attributes;
+
+		/**
+		 * The value of every test or null if the attribute only needs to be there.
+		 */
+		private final String[] values;
+
+		/**
+		 * If a test looks for a class among the classes of the attribute.
+		 */
+		private final boolean[] classes;
+
+		private Step(String name, List<String> attributes, List<String> values, List<Boolean> classes) {
+			this.name = name;
+			this.attributes = attributes.toArray(new String[0]);
+			this.values = values.toArray(new String[0]);
+			this.classes = new boolean[classes.size()];
+
+			for (int i = 0; i < this.classes.length; i++) {
+				this.classes[i] = classes.get(i);
+			}
+		}
+
+		private static Step compile(String step, String pattern) {
+			ArrayList<String> attributes = new ArrayList<String>();
+			ArrayList<String> values = new ArrayList<String>();
+			ArrayList<Boolean> classes = new ArrayList<Boolean>();
+
+			int i = readName(step, 0);
+			String name = step.substring(0, i).toLowerCase();
+			if (name.isEmpty() || name.equals("*")) {
+				name = null;
+			}
+
+			while (i < step.length()) {
+				char c = step.charAt(i);
+
+				if (c == '.' || c == '#') {
+					int end = readName(step, i + 1);
+					if (end == i + 1) {
+						throw new IllegalArgumentException("Missing the name after " + c + " in " + pattern);
+					}
+
+					attributes.add(c == '.' ? "class" : "id");
+					values.add(step.substring(i + 1, end));
+					classes.add(c == '.');
+					i = end;
+				} else if (c == '[') {
+					int end = step.indexOf(']', i);
+					if (end == -1) {
+						throw new IllegalArgumentException("Missing ] in " + pattern);
+					}
+
+					String test = step.substring(i + 1, end);
+					int equals = test.indexOf('=');
+					String attribute = (equals == -1 ? test : test.substring(0, equals)).strip().toLowerCase();
+					if (attribute.isEmpty()) {
+						throw new IllegalArgumentException("Missing the attribute in " + pattern);
+					}
+
+					attributes.add(attribute);
+					values.add(equals == -1 ? null : unquote(test.substring(equals + 1).strip()));
+					classes.add(false);
+					i = end + 1;
+				} else {
+					throw new IllegalArgumentException("Unexpected " + c + " in " + pattern);
+				}
+			}
+
+			if (name == null && attributes.isEmpty() && !step.equals("*")) {
+				throw new IllegalArgumentException("Empty element in " + pattern);
+			}
+
+			return new Step(name, attributes, values, classes);
+		}
+
+		/**
+		 * Gives the index after the name starting at the index.
+		 */
+		private static int readName(String step, int start) {
+			int i = start;
+			while (i < step.length()) {
+				char c = step.charAt(i);
+				if (!Character.isLetterOrDigit(c) && c != '-' && c != '_' && c != '*')
+					break;
+				i++;
+			}
+			return i;
+		}
+
+		private static String unquote(String value) {
+			if (value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'')
+					&& value.charAt(value.length() - 1) == value.charAt(0)) {
+				return value.substring(1, value.length() - 1);
+			}
+			return value;
+		}
+
+		private boolean matches(String name, Map<String, String> attributes) {
+			if (this.name != null && !this.name.equals(name)) {
+				return false;
+			}
+
+			for (int i = 0; i < this.attributes.length; i++) {
+				String value = attributes == null ? null : attributes.get(this.attributes[i]);
+
+				if (value == null) {
+					return false;
+				}
+				if (this.values[i] == null)
+					continue;
+
+				if (this.classes[i] ? !hasClass(value, this.values[i]) : !value.equals(this.values[i])) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		/**
+		 * Checks if the class is one of the classes separated by whitespace.
+		 */
+		private static boolean hasClass(String classes, String name) {
+			int index = classes.indexOf(name);
+
+			while (index != -1) {
+				int end = index + name.length();
+				boolean start = index == 0 || Character.isWhitespace(classes.charAt(index - 1));
+
+				if (start && (end == classes.length() || Character.isWhitespace(classes.charAt(end)))) {
+					return true;
+				}
+				index = classes.indexOf(name, index + 1);
+			}
+
+			return false;
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package fleet;
+
+import java.util.function.Function;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+
+import assemblers.Assembler;
+import scrapers.OmnivoxScraper;
+import sessions.Session;
+import sessions.SessionPool;
+import students.Student;
+import students.StudentManager;
+import students.StudentManagerConfiguration;
+
+/**
+ * This class represents one student refreshed by a {@link FleetRefresher}. It
+ * holds the manager of the student and the credentials used to log in.
+ *
+ * An account can also take its client from a {@link SessionPool} instead of
+ * holding one. A session is leased for every refresh and a manager is built
+ * with its scraper, so the pool caps the clients and the sessions of every
+ * host.
+ *
+ * This class is final.
+ */
+public final class FleetAccount {
+
+	/**
+	 * The manager of the student. For an account using a pool, it is the manager
+	 * of the last refresh or null if it was never refreshed.
+	 */
+	private volatile StudentManager manager;
+
+	private final String studentNumber;
+	private final String password;
+
+	/**
+	 * The pool the sessions are leased from or null if the account has its own
+	 * manager.
+	 */
+	private final SessionPool pool;
+
+	/**
+	 * Builds the scraper of the student's college with a leased client.
+	 */
+	private final Function<WebClient, ? extends OmnivoxScraper> factory;
+
+	private final Assembler assembler;
+	private final Student student;
+	private final StudentManagerConfiguration configuration;
+
+	/**
+	 * Constructor for the Fleet Account with its own manager.
+	 *
+	 * @param manager       The manager of the student. It shouldn't be shared with
+	 *                      another account.
+	 * @param studentNumber The student number used to log in
+	 * @param password      The password used to log in
+	 */
+	public FleetAccount(StudentManager manager, String studentNumber, String password) {
+		if (manager == null) {
+			throw new NullPointerException("Manager is null");
+		}
+
+		this.manager = manager;
+		this.studentNumber = studentNumber;
+		this.password = password;
+		this.pool = null;
+		this.factory = null;
+		this.assembler = manager.getAssembler();
+		this.student = manager.getStudent();
+		this.configuration = manager.getConfiguration();
+	}
+
+	/**
+	 * Constructor for the Fleet Account taking its client from a pool.
+	 *
+	 * @param pool          The pool the sessions are leased from
+	 * @param factory       Builds the scraper of the student's college with the
+	 *                      leased client. Ex: ChamplainScraper::new
+	 * @param assembler     The assembler of the student's college
+	 * @param student       The student filled by every refresh
+	 * @param configuration The configuration of the managers. It can be shared
+	 *                      with other accounts.
+	 * @param studentNumber The student number used to log in
+	 * @param password      The password used to log in
+	 */
+	public FleetAccount(SessionPool pool, Function<WebClient, ? extends OmnivoxScraper> factory,
+			Assembler assembler, Student student, StudentManagerConfiguration configuration, String studentNumber,
+			String password) {
+
+		if (pool == null) {
+			throw new NullPointerException("Pool is null");
+		}
+		if (factory == null) {
+			throw new NullPointerException("Factory is null");
+		}
+		if (assembler == null || student == null || configuration == null) {
+			throw new NullPointerException("Assembler, Student or Configuration is null");
+		}
+		if (studentNumber == null) {
+			throw new NullPointerException("Student Number is null");
+		}
+
+		this.manager = null;
+		this.studentNumber = studentNumber;
+		this.password = password;
+		this.pool = pool;
+		this.factory = factory;
+		this.assembler = assembler;
+		this.student = student;
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Logs in and gets everything the student has. It blocks until it is done.
+	 *
+	 * The scraper of an account with its own manager is used the way it is
+	 * configured. The scraper built with a leased client fetches the course pages
+	 * on virtual threads if asked.
+	 *
+	 * @param virtualThreads If the scraper built with a leased client fetches the
+	 *                       course pages on virtual threads
+	 *
+	 * @throws InterruptedException If the thread is interrupted while waiting for
+	 *                              the host in the pool
+	 */
+	void refresh(boolean virtualThreads) throws InterruptedException {
+		if (this.pool == null) {
+			refresh(this.manager);
+			return;
+		}
+
+		try (Session<? extends OmnivoxScraper> session = this.pool.lease(this.studentNumber, this.factory)) {
+			OmnivoxScraper scraper = session.getScraper();
+			scraper.setVirtualThreads(virtualThreads);
+
+			StudentManager manager = new StudentManager(scraper, this.assembler, this.student, this.configuration);
+			this.manager = manager;
+			refresh(manager);
+		}
+	}
+
+	private void refresh(StudentManager manager) {
+		manager.login(this.studentNumber, this.password);
+		manager.refresh();
+	}
+
+	/**
+	 * Checks if the client is taken from a pool for every refresh.
+	 */
+	public boolean isPooled() {
+		return this.pool != null;
+	}
+
+	// Getters
+	public StudentManager getManager() {
+		return this.manager;
+	}
+
+	public Student getStudent() {
+		return this.student;
+	}
+
+	public String getStudentNumber() {
+		return this.studentNumber;
+	}
+}
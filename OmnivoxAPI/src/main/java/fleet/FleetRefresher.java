@@ -0,0 +1,248 @@
+package fleet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import students.Student;
+
+/**
+ * This class refreshes many students at the same time.
+ *
+ * Almost all of the time of a refresh is spent waiting for Omnivox, so by
+ * default every student is refreshed on its own virtual thread and every
+ * course page of a student is fetched on its own virtual thread too. If the
+ * Java version doesn't have virtual threads (below 21), a bounded pool of
+ * platform threads is used instead.
+ *
+ * Every student refreshed holds a client and the worker clients of its course
+ * pages, so the number of students refreshed at the same time is capped, and so
+ * is the number of students refreshed on the same Omnivox host. The accounts
+ * taking their client from a {@link sessions.SessionPool} are capped on their
+ * host by the pool instead.
+ */
+public class FleetRefresher implements AutoCloseable {
+
+	/**
+	 * The maximum number of students refreshed at the same time without virtual
+	 * threads.
+	 */
+	public static final int DEFAULT_PLATFORM_THREADS = 32;
+
+	/**
+	 * The default maximum number of students refreshed at the same time.
+	 */
+	public static final int DEFAULT_MAX_STUDENTS = 64;
+
+	/**
+	 * The default maximum number of students refreshed at the same time on a
+	 * single host.
+	 */
+	public static final int DEFAULT_MAX_PER_HOST = 16;
+
+	/**
+	 * The executor running the refresh of every student.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * If the students are refreshed on virtual threads.
+	 */
+	private final boolean virtualThreads;
+
+	/**
+	 * Caps the students refreshed at the same time.
+	 */
+	private final Semaphore students;
+
+	/**
+	 * The maximum number of students refreshed at the same time on a single host.
+	 */
+	private final int maxPerHost;
+
+	/**
+	 * Holds a semaphore for every host to cap the students refreshed on it.
+	 */
+	private final ConcurrentHashMap<String, Semaphore> hostPermits = new ConcurrentHashMap<String, Semaphore>();
+
+	/**
+	 * Constructor for the Fleet Refresher using virtual threads when they are
+	 * supported and the default caps.
+	 */
+	public FleetRefresher() {
+		this(DEFAULT_MAX_STUDENTS, DEFAULT_MAX_PER_HOST);
+	}
+
+	/**
+	 * Constructor for the Fleet Refresher using virtual threads when they are
+	 * supported.
+	 *
+	 * @param maxStudents The maximum number of students refreshed at the same time
+	 * @param maxPerHost  The maximum number of students refreshed at the same time
+	 *                    on a single host
+	 */
+	public FleetRefresher(int maxStudents, int maxPerHost) {
+		this(newExecutor(maxStudents), VirtualThreads.isSupported(), maxStudents, maxPerHost);
+	}
+
+	/**
+	 * Constructor for the Fleet Refresher using the given executor and the
+	 * default caps. The course pages are fetched the way the scrapers are
+	 * configured.
+	 *
+	 * Note: The executor is shut down when the refresher is closed.
+	 *
+	 * @param executor The executor running the refresh of every student
+	 */
+	public FleetRefresher(ExecutorService executor) {
+		this(executor, false, DEFAULT_MAX_STUDENTS, DEFAULT_MAX_PER_HOST);
+	}
+
+	/**
+	 * Constructor for the Fleet Refresher using the given executor. The course
+	 * pages are fetched the way the scrapers are configured.
+	 *
+	 * Note: The executor is shut down when the refresher is closed.
+	 *
+	 * @param executor    The executor running the refresh of every student
+	 * @param maxStudents The maximum number of students refreshed at the same time
+	 * @param maxPerHost  The maximum number of students refreshed at the same time
+	 *                    on a single host
+	 */
+	public FleetRefresher(ExecutorService executor, int maxStudents, int maxPerHost) {
+		this(executor, false, maxStudents, maxPerHost);
+	}
+
+	private FleetRefresher(ExecutorService executor, boolean virtualThreads, int maxStudents, int maxPerHost) {
+		if (executor == null) {
+			throw new NullPointerException("Executor is null");
+		}
+		if (maxStudents < 1) {
+			throw new IllegalArgumentException("The maximum students must be at least 1");
+		}
+		if (maxPerHost < 1) {
+			throw new IllegalArgumentException("The maximum students per host must be at least 1");
+		}
+
+		this.executor = executor;
+		this.virtualThreads = virtualThreads;
+		this.students = new Semaphore(maxStudents);
+		this.maxPerHost = maxPerHost;
+	}
+
+	/**
+	 * Starts the refresh of every account without blocking.
+	 *
+	 * @param accounts The accounts to refresh
+	 *
+	 * @return The future of every account in the same order. A future fails if
+	 *         its student couldn't be refreshed.
+	 */
+	public List<CompletableFuture<Student>> refresh(Collection<FleetAccount> accounts) {
+		List<CompletableFuture<Student>> return_list = new ArrayList<CompletableFuture<Student>>(accounts.size());
+
+		for (FleetAccount account : accounts) {
+			return_list.add(CompletableFuture.supplyAsync(() -> refresh(account), this.executor));
+		}
+
+		return return_list;
+	}
+
+	/**
+	 * Refreshes an account once its host and the refresher have room for it. The
+	 * host is waited for first, so the students waiting for a busy host don't
+	 * keep the others from being refreshed.
+	 */
+	private Student refresh(FleetAccount account) {
+		Semaphore host = account.isPooled() ? null : getPermits(account.getManager().getScraper().getHost());
+
+		try {
+			if (host != null) {
+				host.acquire();
+			}
+			try {
+				this.students.acquire();
+				try {
+					// Every course page gets its own virtual thread too
+					account.refresh(this.virtualThreads);
+				} finally {
+					this.students.release();
+				}
+			} finally {
+				if (host != null) {
+					host.release();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CompletionException(e);
+		}
+
+		return account.getStudent();
+	}
+
+	/**
+	 * Refreshes every account and waits until they are all done.
+	 *
+	 * @param accounts The accounts to refresh
+	 *
+	 * @return The error of every account that couldn't be refreshed
+	 */
+	public LinkedHashMap<FleetAccount, Throwable> refreshAll(Collection<FleetAccount> accounts)
+			throws InterruptedException {
+
+		LinkedHashMap<FleetAccount, Throwable> failures = new LinkedHashMap<FleetAccount, Throwable>();
+		List<CompletableFuture<Student>> futures = refresh(accounts);
+
+		int i = 0;
+		for (FleetAccount account : accounts) {
+			try {
+				futures.get(i).get();
+			} catch (ExecutionException e) {
+				failures.put(account, e.getCause());
+			}
+			i++;
+		}
+
+		return failures;
+	}
+
+	/**
+	 * Stops accepting new refreshes. The refreshes that started are not stopped.
+	 */
+	@Override
+	public void close() {
+		this.executor.shutdown();
+	}
+
+	/**
+	 * Creates an executor using virtual threads or a bounded pool of platform
+	 * threads if they are not supported.
+	 */
+	private static ExecutorService newExecutor(int maxStudents) {
+		return VirtualThreads.newExecutor(Math.max(1, Math.min(maxStudents, DEFAULT_PLATFORM_THREADS)));
+	}
+
+	/**
+	 * Gets the semaphore of the host or creates it.
+	 */
+	private Semaphore getPermits(String host) {
+		return this.hostPermits.computeIfAbsent(host, key -> new Semaphore(this.maxPerHost, true));
+	}
+
+	// Getters
+	public boolean isVirtualThreads() {
+		return this.virtualThreads;
+	}
+
+	public int getMaxPerHost() {
+		return this.maxPerHost;
+	}
+}
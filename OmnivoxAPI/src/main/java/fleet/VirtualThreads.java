@@ -0,0 +1,89 @@
+package fleet;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class creates executors running every task on its own virtual thread
+ * when the Java version supports them (21 and above).
+ *
+ * The project is still compiled for older versions, so the executor is looked
+ * up once with reflection instead of being called directly.
+ */
+public final class VirtualThreads {
+
+	/**
+	 * The Executors.newVirtualThreadPerTaskExecutor method or null if the Java
+	 * version doesn't have virtual threads.
+	 */
+	private static final Method factory = findFactory();
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * Checks if the running Java version has virtual threads.
+	 */
+	public static boolean isSupported() {
+		return factory != null;
+	}
+
+	/**
+	 * Creates an executor starting a new virtual thread for every task.
+	 *
+	 * @return The executor or null if virtual threads are not supported
+	 */
+	public static ExecutorService newThreadPerTaskExecutor() {
+		if (factory == null) {
+			return null;
+		}
+
+		try {
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Creates an executor starting a new virtual thread for every task or a
+	 * bounded pool of platform threads if virtual threads are not supported. The
+	 * platform threads stop when they are idle, the tasks wait in a queue when
+	 * they are all busy.
+	 *
+	 * Note: The virtual threads are not bounded, the tasks must bound what they
+	 * hold themselves (Ex: with a semaphore).
+	 *
+	 * @param platformThreads The maximum number of platform threads
+	 *
+	 * @return The executor
+	 */
+	public static ExecutorService newExecutor(int platformThreads) {
+		if (platformThreads < 1) {
+			throw new IllegalArgumentException("The platform threads must be at least 1");
+		}
+
+		ExecutorService executor = newThreadPerTaskExecutor();
+		if (executor != null) {
+			return executor;
+		}
+
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(platformThreads, platformThreads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>());
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	private static Method findFactory() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+}
@@ -1,11 +1,21 @@
 package main;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 import assemblers.Assembler;
 import assemblers.ChamplainAssembler;
 import assemblers.MaisonneuveAssembler;
+import assemblers.ProfileAssembler;
+import profiles.CollegeProfile;
+import profiles.ProfileSource;
 import scrapers.ChamplainScraper;
 import scrapers.MaisonneuveScraper;
 import scrapers.OmnivoxScraper;
+import scrapers.ProfileScraper;
+import scrapers.WhatsNewItem;
 import students.Student;
 import students.StudentManager;
 import students.StudentPrinter;
@@ -36,9 +46,18 @@ public class Main {
 			break;
 
 		default:
+			// Any other CEGEP is read from its profile
+			ProfileSource source = getProfileSource(cegepName);
+			if (source != null) {
+				scraper = new ProfileScraper(source);
+				assembler = new ProfileAssembler(source);
+				break;
+			}
+
 			System.out.println("The currently supported CEGEPs are:");
 			System.out.println("\t- Champlain");
 			System.out.println("\t- Maisonneuve");
+			System.out.println("Or the path of a college profile. Ex: college.properties");
 			System.exit(0);
 		}
 
@@ -66,7 +85,36 @@ public class Main {
 		printer.printCalendarEvents();
 
 		// Print what's new
-		scraper.printWhatsNew();
+		WhatsNewItem[] whatsNew = scraper.fetchWhatsNew();
+		if (whatsNew.length == 0) {
+			System.out.println("Nothing New");
+		}
+		for (WhatsNewItem item : whatsNew) {
+			System.out.println(item.getText());
+		}
+	}
+
+	/**
+	 * Gets the profile of the CEGEP from a file, read again when it is modified,
+	 * or from the profiles bundled with the API.
+	 * 
+	 * @param cegepName The path of a profile or the name of a bundled one
+	 * 
+	 * @return The source of the profile or null if there is none
+	 */
+	private static ProfileSource getProfileSource(String cegepName) {
+		try {
+			Path file = Paths.get(cegepName);
+			if (Files.isRegularFile(file)) {
+				return new ProfileSource(file, 5000);
+			}
+
+			CollegeProfile profile = CollegeProfile.bundled(cegepName);
+			return profile == null ? null : new ProfileSource(profile);
+		} catch (IOException | IllegalArgumentException e) {
+			e.printStackTrace();
+		}
+		return null;
 	}
 
 }
@@ -0,0 +1,590 @@
+package profiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import assemblers.DateParser;
+import assemblers.Selector;
+import engines.RawLayout;
+import engines.TagPattern;
+import scrapers.ResourceRules;
+
+/**
+ * This class holds everything that changes from one Omnivox college to
+ * another: the login url, the XPaths of the buttons and of the rows, the cells
+ * read on every row by both engines, the links of the attached files and how
+ * the dates are cut out of their cells.
+ *
+ * A profile is read from a properties file and compiled once when it is
+ * loaded: the cells become {@link Selector} objects, the dates become
+ * {@link Pattern} objects and the month names are given to its own
+ * {@link DateParser}. A college is then supported without any code by the
+ * {@link scrapers.ProfileScraper} and the {@link assemblers.ProfileAssembler}.
+ *
+ * The keys shared by every college have defaults, so a profile only needs:
+ * <ul>
+ * <li>name: The name of the college. Ex: Champlain</li>
+ * <li>login.url: The Omnivox login url of the college</li>
+ * <li>lea.button: The XPath of the Lea button on the home page</li>
+ * <li>document.button: The XPath of the document button inside of a course
+ * panel</li>
+ * <li>whats.new: The XPath of the entries of the what's new section</li>
+ * <li>document.title: The cell of the title of a document row</li>
+ * <li>document.date: The regular expression finding the date in the distributed
+ * cell of a document. The first group that matched is the date.</li>
+ * <li>assignment.date: The same for the distributed cell of an assignment</li>
+ * </ul>
+ * The resource rules are added with the numbered keys resources.allow.1,
+ * resources.allow.2, ... and resources.deny.1, ... and the month names with
+ * months.[1 to 12] = [names separated by commas]. See the bundled
+ * profiles/champlain.properties for every key.
+ *
+ * This class is Immutable and final.
+ */
+public final class CollegeProfile {
+
+	/**
+	 * The values of the keys shared by every college.
+	 */
+	private static final Properties defaults = new Properties();
+
+	static {
+		defaults.setProperty("assignment.button", "./div[2]/a[2]");
+		defaults.setProperty("course.name", "//*[@class='TitrePageLigne2']");
+
+		defaults.setProperty("document.rows", "//*[@class='itemDataGrid' or @class='itemDataGridAltern']");
+		defaults.setProperty("document.distributed", "./td[3]");
+		defaults.setProperty("document.view", "./td[4]");
+		defaults.setProperty("document.star", "./td[1]/img");
+		defaults.setProperty("course.raw.name", ".TitrePageLigne2");
+		defaults.setProperty("document.raw.rows", "tr.itemDataGrid, tr.itemDataGridAltern");
+		defaults.setProperty("assignment.raw.rows", "table#tabListeTravEtu tr[height=30]");
+		defaults.setProperty("assignment.raw.check", "1");
+
+		defaults.setProperty("document.raw.link", "false");
+		defaults.setProperty("document.raw.title", "1");
+		defaults.setProperty("document.raw.distributed", "2");
+		defaults.setProperty("document.raw.view", "3");
+		defaults.setProperty("document.raw.star", "0");
+
+		defaults.setProperty("assignment.rows", "//*[@id='tabListeTravEtu']/tbody/tr[@height='30']");
+		defaults.setProperty("assignment.title", "./td[2]");
+		defaults.setProperty("assignment.distributed", "./td[3]");
+		defaults.setProperty("assignment.check", "./td/table/tbody/tr/td[2]/a");
+		defaults.setProperty("assignment.star", "./td[1]/img");
+		defaults.setProperty("assignment.raw.title", "1");
+		defaults.setProperty("assignment.raw.distributed", "2");
+		defaults.setProperty("assignment.raw.star", "0");
+
+		defaults.setProperty("attachment.title", "./td[2]");
+		defaults.setProperty("attachment.link", "(?i)(^|/)VisualiseDocument\\.aspx\\?");
+
+		defaults.setProperty("calendar.events", "//*[@id='tblCalendrierEvenement']/tbody/tr/td/div[4]/div");
+		defaults.setProperty("event.day", "./div/div[2]");
+		defaults.setProperty("event.month", "./div/div[3]");
+		defaults.setProperty("event.title", "./div[3]/h3");
+		defaults.setProperty("event.course", "./div[3]/div/span");
+		defaults.setProperty("event.description", "./div[3]/div/text()");
+	}
+
+	/*
+	 * The college
+	 */
+	private final String name;
+	private final String loginUrl;
+
+	/*
+	 * The XPaths used by the scraper
+	 */
+	private final String leaButton;
+	private final String documentButton;
+	private final String assignmentButton;
+	private final String whatsNew;
+	private final List<String> allowedResources;
+	private final List<String> deniedResources;
+
+	/*
+	 * The XPaths of the pages used by the assembler
+	 */
+	private final String courseName;
+	private final String documentRows;
+	private final String assignmentRows;
+	private final String calendarEvents;
+
+	/*
+	 * The cells of a row compiled when the profile is loaded
+	 */
+	private final Selector documentTitle;
+	private final Selector documentDistributed;
+	private final Selector documentView;
+	private final Selector documentStar;
+	private final Selector assignmentTitle;
+	private final Selector assignmentDistributed;
+	private final Selector assignmentCheck;
+	private final Selector assignmentStar;
+	private final Selector eventDay;
+	private final Selector eventMonth;
+	private final Selector eventTitle;
+	private final Selector eventCourse;
+	private final Selector eventDescription;
+
+	/**
+	 * If the title of a document read by the raw http engine is the text of the
+	 * link in its cell instead of the text of the whole cell.
+	 */
+	private final boolean rawDocumentLink;
+
+	/**
+	 * The elements kept by the raw http engine.
+	 */
+	private final RawLayout rawLayout;
+
+	/*
+	 * The indexes of the cells read by the raw http engine, starting at 0
+	 */
+	private final int rawDocumentTitle;
+	private final int rawDocumentDistributed;
+	private final int rawDocumentView;
+	private final int rawDocumentStar;
+	private final int rawAssignmentTitle;
+	private final int rawAssignmentDistributed;
+	private final int rawAssignmentStar;
+
+	/*
+	 * The attached files of the document rows
+	 */
+	private final Selector attachmentTitle;
+	private final Pattern attachmentLink;
+
+	/*
+	 * The dates cut out of the distributed cells
+	 */
+	private final Pattern documentDate;
+	private final Pattern assignmentDate;
+
+	/**
+	 * Parses the dates with the month names of the college.
+	 */
+	private final DateParser dateParser;
+
+	/**
+	 * The only constructor for the College Profile. It compiles every key.
+	 *
+	 * @param properties The keys of the profile. The shared keys that are missing
+	 *                   use their defaults.
+	 *
+	 * @throws IllegalArgumentException If a key is missing or can't be compiled
+	 */
+	public CollegeProfile(Properties properties) throws IllegalArgumentException {
+		if (properties == null) {
+			throw new NullPointerException("Properties is null");
+		}
+
+		Properties keys = new Properties(defaults);
+		keys.putAll(properties);
+
+		this.name = get(keys, "name");
+		this.loginUrl = get(keys, "login.url");
+
+		this.leaButton = get(keys, "lea.button");
+		this.documentButton = get(keys, "document.button");
+		this.assignmentButton = get(keys, "assignment.button");
+		this.whatsNew = get(keys, "whats.new");
+		this.allowedResources = getNumbered(keys, "resources.allow");
+		this.deniedResources = getNumbered(keys, "resources.deny");
+
+		this.courseName = get(keys, "course.name");
+		this.documentRows = get(keys, "document.rows");
+		this.assignmentRows = get(keys, "assignment.rows");
+		this.calendarEvents = get(keys, "calendar.events");
+
+		this.documentTitle = getSelector(keys, "document.title");
+		this.documentDistributed = getSelector(keys, "document.distributed");
+		this.documentView = getSelector(keys, "document.view");
+		this.documentStar = getSelector(keys, "document.star");
+		this.assignmentTitle = getSelector(keys, "assignment.title");
+		this.assignmentDistributed = getSelector(keys, "assignment.distributed");
+		this.assignmentCheck = getSelector(keys, "assignment.check");
+		this.assignmentStar = getSelector(keys, "assignment.star");
+		this.eventDay = getSelector(keys, "event.day");
+		this.eventMonth = getSelector(keys, "event.month");
+		this.eventTitle = getSelector(keys, "event.title");
+		this.eventCourse = getSelector(keys, "event.course");
+		this.eventDescription = getSelector(keys, "event.description");
+
+		this.rawDocumentLink = Boolean.parseBoolean(get(keys, "document.raw.link"));
+		this.rawLayout = new RawLayout(getTagPattern(keys, "course.raw.name"),
+				getTagPattern(keys, "document.raw.rows"), getTagPattern(keys, "assignment.raw.rows"),
+				getCell(keys, "assignment.raw.check"));
+		this.rawDocumentTitle = getCell(keys, "document.raw.title");
+		this.rawDocumentDistributed = getCell(keys, "document.raw.distributed");
+		this.rawDocumentView = getCell(keys, "document.raw.view");
+		this.rawDocumentStar = getCell(keys, "document.raw.star");
+		this.rawAssignmentTitle = getCell(keys, "assignment.raw.title");
+		this.rawAssignmentDistributed = getCell(keys, "assignment.raw.distributed");
+		this.rawAssignmentStar = getCell(keys, "assignment.raw.star");
+
+		this.attachmentTitle = getSelector(keys, "attachment.title");
+		this.attachmentLink = getPattern(keys, "attachment.link");
+
+		this.documentDate = getPattern(keys, "document.date");
+		this.assignmentDate = getPattern(keys, "assignment.date");
+
+		this.dateParser = new DateParser(1024, getMonths(keys));
+
+		// Checked now instead of when the scraper is created
+		getResourceRules();
+	}
+
+	/**
+	 * Reads and compiles the profile in the file.
+	 *
+	 * @param file The properties file of the profile in UTF-8
+	 *
+	 * @return The compiled profile
+	 *
+	 * @throws IllegalArgumentException If a key is missing or can't be compiled
+	 */
+	public static CollegeProfile read(Path file) throws IOException, IllegalArgumentException {
+		if (file == null) {
+			throw new NullPointerException("File is null");
+		}
+
+		try (InputStream in = Files.newInputStream(file)) {
+			return load(in);
+		}
+	}
+
+	/**
+	 * Reads the profile bundled with the API for the college.
+	 *
+	 * @param college The name of the college. Ex: champlain
+	 *
+	 * @return The compiled profile or null if there is no profile for the college
+	 */
+	public static CollegeProfile bundled(String college) throws IOException {
+		if (college == null) {
+			throw new NullPointerException("College is null");
+		}
+		if (!college.matches("[A-Za-z0-9_-]+")) {
+			return null;
+		}
+
+		try (InputStream in = CollegeProfile.class
+				.getResourceAsStream("/profiles/" + college.toLowerCase(Locale.ROOT) + ".properties")) {
+			return in == null ? null : load(in);
+		}
+	}
+
+	private static CollegeProfile load(InputStream in) throws IOException {
+		Properties properties = new Properties();
+		try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		return new CollegeProfile(properties);
+	}
+
+	/**
+	 * Gets the rules of the resources the scraper's client doesn't need, on top of
+	 * the rules shared by every college.
+	 *
+	 * @return A new set of rules
+	 */
+	public ResourceRules getResourceRules() {
+		ResourceRules rules = ResourceRules.omnivox();
+
+		try {
+			for (String regex : this.allowedResources) {
+				rules.allow(regex);
+			}
+			for (String regex : this.deniedResources) {
+				rules.deny(regex);
+			}
+		} catch (PatternSyntaxException e) {
+			throw new IllegalArgumentException("Invalid resource rule in the profile of " + this.name, e);
+		}
+
+		return rules;
+	}
+
+	/**
+	 * Cuts the date out of the text of a distributed cell.
+	 *
+	 * @param pattern The date pattern of the profile
+	 * @param text    The text of the cell
+	 *
+	 * @return The first group that matched or the whole text if nothing matched so
+	 *         it fails to be parsed
+	 */
+	public static String cutDate(Pattern pattern, String text) {
+		Matcher matcher = pattern.matcher(text);
+
+		if (matcher.lookingAt()) {
+			for (int i = 1; i <= matcher.groupCount(); i++) {
+				if (matcher.group(i) != null) {
+					return matcher.group(i);
+				}
+			}
+			return matcher.group();
+		}
+
+		return text;
+	}
+
+	private static String get(Properties keys, String key) {
+		String value = keys.getProperty(key);
+		if (value == null || value.isBlank()) {
+			throw new IllegalArgumentException("The profile is missing " + key);
+		}
+		return value.strip();
+	}
+
+	private static Selector getSelector(Properties keys, String key) {
+		try {
+			return Selector.compile(get(keys, key));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid " + key + " in the profile: " + e.getMessage(), e);
+		}
+	}
+
+	private static TagPattern getTagPattern(Properties keys, String key) {
+		try {
+			return TagPattern.compile(get(keys, key));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid " + key + " in the profile: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Gets the index of a cell read by the raw http engine.
+	 */
+	private static int getCell(Properties keys, String key) {
+		try {
+			int cell = Integer.parseInt(get(keys, key));
+			if (cell >= 0) {
+				return cell;
+			}
+		} catch (NumberFormatException e) {
+			// Thrown below
+		}
+		throw new IllegalArgumentException("Invalid " + key + " in the profile: the index of a cell starts at 0");
+	}
+
+	/**
+	 * Compiles the pattern so the dot also matches the line breaks of the cells.
+	 */
+	private static Pattern getPattern(Properties keys, String key) {
+		try {
+			return Pattern.compile(get(keys, key), Pattern.DOTALL);
+		} catch (PatternSyntaxException e) {
+			throw new IllegalArgumentException("Invalid " + key + " in the profile: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Gets the values of key.1, key.2, ... until one is missing.
+	 */
+	private static List<String> getNumbered(Properties keys, String key) {
+		ArrayList<String> values = new ArrayList<String>();
+		for (int i = 1; keys.getProperty(key + "." + i) != null; i++) {
+			values.add(keys.getProperty(key + "." + i).strip());
+		}
+		return Collections.unmodifiableList(values);
+	}
+
+	private static Map<String, Integer> getMonths(Properties keys) {
+		HashMap<String, Integer> months = new HashMap<String, Integer>();
+
+		for (int month = 1; month <= 12; month++) {
+			String names = keys.getProperty("months." + month);
+			if (names == null)
+				continue;
+
+			for (String name : names.split(",")) {
+				if (!name.isBlank()) {
+					months.put(name.strip(), month);
+				}
+			}
+		}
+
+		return months;
+	}
+
+	// Getters
+	public String getName() {
+		return this.name;
+	}
+
+	public String getLoginUrl() {
+		return this.loginUrl;
+	}
+
+	public String getLeaButton() {
+		return this.leaButton;
+	}
+
+	public String getDocumentButton() {
+		return this.documentButton;
+	}
+
+	public String getAssignmentButton() {
+		return this.assignmentButton;
+	}
+
+	public String getWhatsNew() {
+		return this.whatsNew;
+	}
+
+	public List<String> getAllowedResources() {
+		return this.allowedResources;
+	}
+
+	public List<String> getDeniedResources() {
+		return this.deniedResources;
+	}
+
+	public String getCourseName() {
+		return this.courseName;
+	}
+
+	public String getDocumentRows() {
+		return this.documentRows;
+	}
+
+	public String getAssignmentRows() {
+		return this.assignmentRows;
+	}
+
+	public String getCalendarEvents() {
+		return this.calendarEvents;
+	}
+
+	public Selector getDocumentTitle() {
+		return this.documentTitle;
+	}
+
+	public Selector getDocumentDistributed() {
+		return this.documentDistributed;
+	}
+
+	public Selector getDocumentView() {
+		return this.documentView;
+	}
+
+	public Selector getDocumentStar() {
+		return this.documentStar;
+	}
+
+	public Selector getAssignmentTitle() {
+		return this.assignmentTitle;
+	}
+
+	public Selector getAssignmentDistributed() {
+		return this.assignmentDistributed;
+	}
+
+	public Selector getAssignmentCheck() {
+		return this.assignmentCheck;
+	}
+
+	public Selector getAssignmentStar() {
+		return this.assignmentStar;
+	}
+
+	public Selector getEventDay() {
+		return this.eventDay;
+	}
+
+	public Selector getEventMonth() {
+		return this.eventMonth;
+	}
+
+	public Selector getEventTitle() {
+		return this.eventTitle;
+	}
+
+	public Selector getEventCourse() {
+		return this.eventCourse;
+	}
+
+	public Selector getEventDescription() {
+		return this.eventDescription;
+	}
+
+	public boolean isRawDocumentLink() {
+		return this.rawDocumentLink;
+	}
+
+	public RawLayout getRawLayout() {
+		return this.rawLayout;
+	}
+
+	public int getRawDocumentTitle() {
+		return this.rawDocumentTitle;
+	}
+
+	public int getRawDocumentDistributed() {
+		return this.rawDocumentDistributed;
+	}
+
+	public int getRawDocumentView() {
+		return this.rawDocumentView;
+	}
+
+	public int getRawDocumentStar() {
+		return this.rawDocumentStar;
+	}
+
+	public int getRawAssignmentTitle() {
+		return this.rawAssignmentTitle;
+	}
+
+	public int getRawAssignmentDistributed() {
+		return this.rawAssignmentDistributed;
+	}
+
+	public int getRawAssignmentStar() {
+		return this.rawAssignmentStar;
+	}
+
+	public Selector getAttachmentTitle() {
+		return this.attachmentTitle;
+	}
+
+	public Pattern getAttachmentLink() {
+		return this.attachmentLink;
+	}
+
+	public Pattern getDocumentDate() {
+		return this.documentDate;
+	}
+
+	public Pattern getAssignmentDate() {
+		return this.assignmentDate;
+	}
+
+	public DateParser getDateParser() {
+		return this.dateParser;
+	}
+
+	// Overrides
+	@Override
+	public String toString() {
+		return this.name;
+	}
+}
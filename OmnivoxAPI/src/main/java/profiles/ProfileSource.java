@@ -0,0 +1,184 @@
+package profiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class gives the current {@link CollegeProfile} of a college to the
+ * {@link scrapers.ProfileScraper} and the {@link assemblers.ProfileAssembler}.
+ *
+ * When it reads a file, the file is checked again at most once every check
+ * interval and the profile is compiled again when the file was modified, so a
+ * selector can be fixed without restarting the fleet. If the new file can't be
+ * compiled, the error is printed and the last profile is kept until the file
+ * is fixed.
+ *
+ * The profile is only checked when it is asked for, and the assembler asks for
+ * it once for every page, so a page is always read with the same profile.
+ *
+ * This class is safe to use from many threads at the same time.
+ */
+public class ProfileSource {
+
+	/**
+	 * The file of the profile. It is null if the profile never changes.
+	 */
+	private final Path file;
+
+	/**
+	 * The minimum time in milliseconds between 2 checks of the file.
+	 */
+	private final long checkInterval;
+
+	/**
+	 * The current profile.
+	 */
+	private volatile CollegeProfile profile;
+
+	/**
+	 * The modification time of the file the current profile was read from.
+	 */
+	private volatile FileTime modified;
+
+	/**
+	 * The time in milliseconds of the next check of the file.
+	 */
+	private volatile long nextCheck;
+
+	/*
+	 * Stats
+	 */
+	private final AtomicLong reloads = new AtomicLong();
+	private final AtomicLong failedReloads = new AtomicLong();
+
+	/**
+	 * Constructor for a Profile Source that never changes.
+	 *
+	 * @param profile The profile given every time
+	 */
+	public ProfileSource(CollegeProfile profile) {
+		if (profile == null) {
+			throw new NullPointerException("Profile is null");
+		}
+
+		this.file = null;
+		this.checkInterval = 0;
+		this.profile = profile;
+	}
+
+	/**
+	 * Constructor for a Profile Source reading the file again when it is modified.
+	 *
+	 * @param file          The properties file of the profile
+	 * @param checkInterval The minimum time in milliseconds between 2 checks of
+	 *                      the file
+	 *
+	 * @throws IllegalArgumentException If the profile of the file can't be
+	 *                                  compiled
+	 */
+	public ProfileSource(Path file, long checkInterval) throws IOException, IllegalArgumentException {
+		if (file == null) {
+			throw new NullPointerException("File is null");
+		}
+		if (checkInterval < 0) {
+			throw new IllegalArgumentException("The check interval can't be negative");
+		}
+
+		this.file = file;
+		this.checkInterval = checkInterval;
+		this.modified = Files.getLastModifiedTime(file);
+		this.profile = CollegeProfile.read(file);
+		this.nextCheck = System.currentTimeMillis() + checkInterval;
+	}
+
+	/**
+	 * Gets the source of a profile bundled with the API. It never changes.
+	 *
+	 * @param college The name of the college. Ex: champlain
+	 *
+	 * @return The source of the bundled profile
+	 *
+	 * @throws IllegalStateException If the API has no profile for the college
+	 */
+	public static ProfileSource bundled(String college) {
+		try {
+			CollegeProfile profile = CollegeProfile.bundled(college);
+			if (profile != null) {
+				return new ProfileSource(profile);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("The bundled profile of " + college + " can't be read", e);
+		}
+		throw new IllegalStateException("There is no bundled profile for " + college);
+	}
+
+	/**
+	 * Gets the current profile. The file is read again first if the check interval
+	 * has passed and it was modified.
+	 *
+	 * @return The current profile
+	 */
+	public CollegeProfile get() {
+		if (this.file != null && System.currentTimeMillis() >= this.nextCheck) {
+			check();
+		}
+		return this.profile;
+	}
+
+	/**
+	 * Checks the file now and compiles it again if it was modified.
+	 *
+	 * @return If a new profile was loaded
+	 */
+	public synchronized boolean check() {
+		if (this.file == null) {
+			return false;
+		}
+
+		this.nextCheck = System.currentTimeMillis() + this.checkInterval;
+
+		try {
+			FileTime modified = Files.getLastModifiedTime(this.file);
+			if (modified.equals(this.modified)) {
+				return false;
+			}
+
+			// Only remembered once it is compiled, a broken file is read again
+			this.profile = CollegeProfile.read(this.file);
+			this.modified = modified;
+			this.reloads.incrementAndGet();
+			return true;
+		} catch (IOException | IllegalArgumentException e) {
+			this.failedReloads.incrementAndGet();
+			e.printStackTrace();
+		}
+
+		return false;
+	}
+
+	// Getters
+	public Path getFile() {
+		return this.file;
+	}
+
+	public long getCheckInterval() {
+		return this.checkInterval;
+	}
+
+	/**
+	 * Gets the number of times the profile was compiled again from the file.
+	 */
+	public long getReloads() {
+		return this.reloads.get();
+	}
+
+	/**
+	 * Gets the number of times the modified file couldn't be read or compiled.
+	 */
+	public long getFailedReloads() {
+		return this.failedReloads.get();
+	}
+}
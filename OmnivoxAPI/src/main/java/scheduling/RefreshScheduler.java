@@ -0,0 +1,312 @@
+package scheduling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import changes.ChangeDetector;
+import changes.ElementChange;
+import courses.CourseAssignment;
+import students.Student;
+
+/**
+ * This class refreshes many students again and again, each at its own pace.
+ *
+ * The interval of a student follows its change rate: the more its refreshes
+ * find changes, the closer it gets to the minimum interval. Every interval is
+ * jittered so the students don't all hit Omnivox at the same time.
+ *
+ * A student with an assignment due soon is moved to the priority lane: its
+ * interval is capped and its refreshes run on their own threads so they never
+ * wait behind the other students.
+ */
+public class RefreshScheduler implements AutoCloseable {
+
+	private final SchedulerConfiguration configuration;
+
+	/**
+	 * Starts the refreshes when they are due. The refreshes themselves run in the
+	 * lanes.
+	 */
+	private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "refresh-timer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/*
+	 * The threads running the refreshes
+	 */
+	private final ExecutorService normalLane;
+	private final ExecutorService priorityLane;
+
+	/**
+	 * Every student scheduled by its id.
+	 */
+	private final ConcurrentHashMap<String, ScheduledStudent> students
+			= new ConcurrentHashMap<String, ScheduledStudent>();
+
+	/**
+	 * Receive the changes of every refresh that has some.
+	 */
+	private final List<BiConsumer<ScheduledStudent, List<ElementChange>>> listeners
+			= new CopyOnWriteArrayList<BiConsumer<ScheduledStudent, List<ElementChange>>>();
+
+	private volatile boolean closed = false;
+
+	/**
+	 * Constructor for the Refresh Scheduler with 4 threads for the students and 2
+	 * threads for the priority lane.
+	 *
+	 * @param configuration The bounds of the intervals
+	 */
+	public RefreshScheduler(SchedulerConfiguration configuration) {
+		this(configuration, 4, 2);
+	}
+
+	/**
+	 * Constructor for the Refresh Scheduler.
+	 *
+	 * @param configuration   The bounds of the intervals
+	 * @param threads         The number of students refreshed at the same time
+	 * @param priorityThreads The number of students of the priority lane refreshed
+	 *                        at the same time
+	 */
+	public RefreshScheduler(SchedulerConfiguration configuration, int threads, int priorityThreads) {
+		if (configuration == null) {
+			throw new NullPointerException("Configuration is null");
+		}
+		if (threads < 1 || priorityThreads < 1) {
+			throw new IllegalArgumentException("Every lane needs at least 1 thread");
+		}
+
+		this.configuration = configuration;
+		this.normalLane = Executors.newFixedThreadPool(threads);
+		this.priorityLane = Executors.newFixedThreadPool(priorityThreads);
+	}
+
+	/**
+	 * Starts refreshing a student. The first refresh happens at a random time
+	 * within the minimum interval so that scheduling many students at once
+	 * doesn't refresh them all at once.
+	 *
+	 * The refresh needs to return a new Student object every time since the
+	 * students only add what they are given.
+	 *
+	 * @param id      The id of the student. Ex: the student number
+	 * @param refresh Logs in and gets the student
+	 *
+	 * @return The scheduled student
+	 */
+	public ScheduledStudent schedule(String id, Callable<Student> refresh) {
+		if (id == null || refresh == null) {
+			throw new NullPointerException("Id or refresh is null");
+		}
+		if (this.closed) {
+			throw new IllegalStateException("The scheduler is closed");
+		}
+
+		ScheduledStudent student = new ScheduledStudent(id, refresh, this.configuration.getMaxInterval());
+		if (this.students.putIfAbsent(id, student) != null) {
+			throw new IllegalArgumentException("The student " + id + " is already scheduled");
+		}
+
+		long spread = ThreadLocalRandom.current().nextLong(this.configuration.getMinInterval().toMillis() + 1);
+		scheduleNext(student, Duration.ofMillis(spread), student.getInterval());
+
+		return student;
+	}
+
+	/**
+	 * Stops refreshing a student. A refresh that is running is not stopped.
+	 *
+	 * @param id The id of the student
+	 */
+	public void unschedule(String id) {
+		ScheduledStudent student = this.students.remove(id);
+
+		if (student != null) {
+			student.cancel();
+		}
+	}
+
+	/**
+	 * Adds a listener receiving the changes of every refresh that has some.
+	 */
+	public void addListener(BiConsumer<ScheduledStudent, List<ElementChange>> listener) {
+		if (listener == null) {
+			throw new NullPointerException("Listener is null");
+		}
+
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * Stops every refresh. The refreshes that are running are interrupted.
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+
+		for (ScheduledStudent student : this.students.values()) {
+			student.cancel();
+		}
+
+		this.timer.shutdownNow();
+		this.normalLane.shutdownNow();
+		this.priorityLane.shutdownNow();
+	}
+
+	/**
+	 * Refreshes the student, finds its changes and schedules its next refresh.
+	 */
+	private void refresh(ScheduledStudent scheduled) {
+		if (this.closed || scheduled.isCancelled())
+			return;
+
+		try {
+			Student student = scheduled.getRefresh().call();
+			ChangeDetector detector = scheduled.getDetector();
+
+			// The first refresh is what the next ones are compared with
+			List<ElementChange> changes;
+			if (scheduled.getRefreshes() == 0) {
+				detector.setBaseline(student);
+				changes = Collections.emptyList();
+			} else {
+				changes = detector.update(student);
+			}
+
+			scheduled.refreshed(changes.size(), this.configuration.getChangeRateWeight(),
+					hasAssignmentDue(student));
+
+			if (!changes.isEmpty()) {
+				for (BiConsumer<ScheduledStudent, List<ElementChange>> listener : this.listeners) {
+					listener.accept(scheduled, changes);
+				}
+			}
+		} catch (Exception e) {
+			// Trying again after the same interval
+			e.printStackTrace();
+			scheduled.failed();
+		}
+
+		Duration interval = getInterval(scheduled);
+		scheduleNext(scheduled, jitter(scheduled, interval), interval);
+	}
+
+	/**
+	 * Puts the next refresh of the student in the timer.
+	 */
+	private void scheduleNext(ScheduledStudent scheduled, Duration delay, Duration interval) {
+		if (this.closed || scheduled.isCancelled())
+			return;
+
+		try {
+			ScheduledFuture<?> next = this.timer.schedule(() -> {
+				ExecutorService lane = scheduled.isPriority() ? this.priorityLane : this.normalLane;
+
+				try {
+					lane.execute(() -> refresh(scheduled));
+				} catch (RejectedExecutionException e) {
+					// The scheduler was closed
+				}
+			}, delay.toMillis(), TimeUnit.MILLISECONDS);
+
+			scheduled.scheduled(next, interval, Instant.now().plus(delay));
+		} catch (RejectedExecutionException e) {
+			// The scheduler was closed
+		}
+	}
+
+	/**
+	 * Gets the interval of the student from its change rate. It goes from the
+	 * maximum interval at a rate of 0 to the minimum interval at a rate of 1.
+	 */
+	private Duration getInterval(ScheduledStudent scheduled) {
+		long min = this.configuration.getMinInterval().toMillis();
+		long max = this.configuration.getMaxInterval().toMillis();
+
+		long interval = max - Math.round((max - min) * scheduled.getChangeRate());
+
+		return Duration.ofMillis(Math.min(interval, getCap(scheduled)));
+	}
+
+	/**
+	 * Gets the longest delay of the student: the priority interval in the
+	 * priority lane or the maximum interval. The configuration keeps both above
+	 * the minimum interval.
+	 */
+	private long getCap(ScheduledStudent scheduled) {
+		long max = this.configuration.getMaxInterval().toMillis();
+
+		if (scheduled.isPriority()) {
+			return Math.min(max, this.configuration.getPriorityInterval().toMillis());
+		}
+		return max;
+	}
+
+	/**
+	 * Adds or removes a random part of the interval. The delay stays between the
+	 * minimum interval and the cap of the student.
+	 */
+	private Duration jitter(ScheduledStudent scheduled, Duration interval) {
+		double jitter = this.configuration.getJitter();
+		double factor = 1 + (jitter == 0 ? 0 : ThreadLocalRandom.current().nextDouble(-jitter, jitter));
+
+		long delay = Math.round(interval.toMillis() * factor);
+		long min = this.configuration.getMinInterval().toMillis();
+
+		return Duration.ofMillis(Math.min(Math.max(min, delay), getCap(scheduled)));
+	}
+
+	/**
+	 * Checks if the student has an assignment not handed in that is due within the
+	 * priority window.
+	 */
+	private boolean hasAssignmentDue(Student student) {
+		long now = System.currentTimeMillis();
+		long end = now + this.configuration.getPriorityWindow().toMillis();
+
+		CourseAssignment[] assignments;
+		synchronized (student) {
+			assignments = student.getAllAssignments();
+		}
+
+		for (CourseAssignment assignment : assignments) {
+			long due = assignment.getDate().getTime();
+
+			if (!assignment.isCompleted() && due >= now && due <= end) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	// Getters
+	public ScheduledStudent getStudent(String id) {
+		return this.students.get(id);
+	}
+
+	public Collection<ScheduledStudent> getStudents() {
+		return Collections.unmodifiableCollection(this.students.values());
+	}
+
+	public SchedulerConfiguration getConfiguration() {
+		return this.configuration;
+	}
+}
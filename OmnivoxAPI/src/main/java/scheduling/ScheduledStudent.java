@@ -0,0 +1,160 @@
+package scheduling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledFuture;
+
+import changes.ChangeDetector;
+import students.Student;
+
+/**
+ * This class represents a student refreshed by the {@link RefreshScheduler}. It
+ * holds how the student is refreshed and what the scheduler observed so far.
+ *
+ * The change rate is a moving average of the refreshes that found a change. It
+ * is 1 when every refresh finds a change and 0 when none does.
+ */
+public final class ScheduledStudent {
+
+	private final String id;
+
+	/**
+	 * Gets a new refreshed Student every time it is called.
+	 */
+	private final Callable<Student> refresh;
+
+	/**
+	 * Finds what changed since the last refresh.
+	 */
+	private final ChangeDetector detector = new ChangeDetector();
+
+	/*
+	 * What was observed so far
+	 */
+	private double changeRate = 0.5;
+	private Duration interval;
+	private boolean priority = false;
+	private int refreshes = 0;
+	private int failures = 0;
+	private int lastChanges = 0;
+	private Instant lastRefresh;
+	private Instant nextRefresh;
+
+	/**
+	 * The next refresh waiting in the timer or null if none is.
+	 */
+	private ScheduledFuture<?> next;
+
+	private boolean cancelled = false;
+
+	/**
+	 * The only constructor for the Scheduled Student.
+	 */
+	ScheduledStudent(String id, Callable<Student> refresh, Duration interval) {
+		this.id = id;
+		this.refresh = refresh;
+		this.interval = interval;
+	}
+
+	/**
+	 * Records a refresh that worked.
+	 *
+	 * @param changes  The number of changes it found
+	 * @param weight   The weight of this refresh in the change rate
+	 * @param priority If the student has an assignment due soon
+	 */
+	synchronized void refreshed(int changes, double weight, boolean priority) {
+		// The first refresh has nothing to be compared with
+		if (this.refreshes > 0) {
+			this.changeRate = weight * (changes > 0 ? 1 : 0) + (1 - weight) * this.changeRate;
+		}
+
+		this.refreshes++;
+		this.lastChanges = changes;
+		this.priority = priority;
+		this.lastRefresh = Instant.now();
+	}
+
+	synchronized void failed() {
+		this.failures++;
+	}
+
+	synchronized void scheduled(ScheduledFuture<?> next, Duration interval, Instant nextRefresh) {
+		this.next = next;
+		this.interval = interval;
+		this.nextRefresh = nextRefresh;
+	}
+
+	/**
+	 * Stops the next refreshes of the student.
+	 */
+	synchronized void cancel() {
+		this.cancelled = true;
+
+		if (this.next != null) {
+			this.next.cancel(false);
+		}
+	}
+
+	Callable<Student> getRefresh() {
+		return this.refresh;
+	}
+
+	ChangeDetector getDetector() {
+		return this.detector;
+	}
+
+	// Getters
+	public String getId() {
+		return this.id;
+	}
+
+	public synchronized double getChangeRate() {
+		return this.changeRate;
+	}
+
+	/**
+	 * Gets the interval before the next refresh without the jitter.
+	 */
+	public synchronized Duration getInterval() {
+		return this.interval;
+	}
+
+	/**
+	 * Checks if the student is refreshed in the priority lane.
+	 */
+	public synchronized boolean isPriority() {
+		return this.priority;
+	}
+
+	public synchronized int getRefreshes() {
+		return this.refreshes;
+	}
+
+	public synchronized int getFailures() {
+		return this.failures;
+	}
+
+	/**
+	 * Gets the number of changes found by the last refresh.
+	 */
+	public synchronized int getLastChanges() {
+		return this.lastChanges;
+	}
+
+	/**
+	 * Gets the time of the last refresh that worked or null if there was none.
+	 */
+	public synchronized Instant getLastRefresh() {
+		return this.lastRefresh;
+	}
+
+	public synchronized Instant getNextRefresh() {
+		return this.nextRefresh;
+	}
+
+	public synchronized boolean isCancelled() {
+		return this.cancelled;
+	}
+}
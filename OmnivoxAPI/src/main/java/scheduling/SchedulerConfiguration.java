@@ -0,0 +1,137 @@
+package scheduling;
+
+import java.time.Duration;
+
+/**
+ * This class is used to configure how often the {@link RefreshScheduler}
+ * refreshes every student.
+ *
+ * The interval of a student goes from the maximum interval when its courses
+ * never change to the minimum interval when they change at every refresh.
+ */
+public class SchedulerConfiguration {
+
+	/*
+	 * Bounds of the interval between two refreshes of a student
+	 */
+	private Duration minInterval = Duration.ofMinutes(15);
+	private Duration maxInterval = Duration.ofHours(6);
+
+	/**
+	 * The fraction of the interval added or removed at random so the refreshes of
+	 * many students are spread instead of hitting Omnivox at the same time.
+	 */
+	private double jitter = 0.1;
+
+	/**
+	 * The weight of the last refresh in the change rate of a student. A higher
+	 * weight adapts faster but forgets faster.
+	 */
+	private double changeRateWeight = 0.3;
+
+	/**
+	 * A student with an assignment not handed in that is due within this time is
+	 * refreshed in the priority lane.
+	 */
+	private Duration priorityWindow = Duration.ofHours(48);
+
+	/**
+	 * The longest interval of a student in the priority lane.
+	 */
+	private Duration priorityInterval = Duration.ofMinutes(30);
+
+	/**
+	 * Sets the bounds of the interval between two refreshes of a student.
+	 *
+	 * @param minInterval The interval of a student whose courses always change
+	 * @param maxInterval The interval of a student whose courses never change
+	 */
+	public void setIntervals(Duration minInterval, Duration maxInterval) {
+		if (minInterval == null || maxInterval == null) {
+			throw new NullPointerException("Interval is null");
+		}
+		if (minInterval.isNegative() || minInterval.isZero() || maxInterval.compareTo(minInterval) < 0) {
+			throw new IllegalArgumentException("The intervals must be positive and the minimum below the maximum");
+		}
+		if (this.priorityInterval.compareTo(minInterval) < 0) {
+			throw new IllegalArgumentException("The minimum interval can't be above the priority interval");
+		}
+
+		this.minInterval = minInterval;
+		this.maxInterval = maxInterval;
+	}
+
+	/**
+	 * Sets the fraction of the interval added or removed at random.
+	 *
+	 * @param jitter Between 0 (no jitter) and 1
+	 */
+	public void setJitter(double jitter) {
+		if (jitter < 0 || jitter > 1) {
+			throw new IllegalArgumentException("The jitter must be between 0 and 1");
+		}
+
+		this.jitter = jitter;
+	}
+
+	/**
+	 * Sets the weight of the last refresh in the change rate of a student.
+	 *
+	 * @param changeRateWeight Above 0 and at most 1
+	 */
+	public void setChangeRateWeight(double changeRateWeight) {
+		if (changeRateWeight <= 0 || changeRateWeight > 1) {
+			throw new IllegalArgumentException("The weight must be above 0 and at most 1");
+		}
+
+		this.changeRateWeight = changeRateWeight;
+	}
+
+	/**
+	 * Sets when a student is moved to the priority lane.
+	 *
+	 * @param priorityWindow   How long before an assignment is due the student is
+	 *                         in the priority lane
+	 * @param priorityInterval The longest interval of a student in the priority
+	 *                         lane. It can't be below the minimum interval.
+	 */
+	public void setPriority(Duration priorityWindow, Duration priorityInterval) {
+		if (priorityWindow == null || priorityInterval == null) {
+			throw new NullPointerException("Priority duration is null");
+		}
+		if (priorityWindow.isNegative() || priorityInterval.isNegative() || priorityInterval.isZero()) {
+			throw new IllegalArgumentException("The priority durations must be positive");
+		}
+		if (priorityInterval.compareTo(this.minInterval) < 0) {
+			throw new IllegalArgumentException("The priority interval can't be below the minimum interval");
+		}
+
+		this.priorityWindow = priorityWindow;
+		this.priorityInterval = priorityInterval;
+	}
+
+	// Getters
+	public Duration getMinInterval() {
+		return this.minInterval;
+	}
+
+	public Duration getMaxInterval() {
+		return this.maxInterval;
+	}
+
+	public double getJitter() {
+		return this.jitter;
+	}
+
+	public double getChangeRateWeight() {
+		return this.changeRateWeight;
+	}
+
+	public Duration getPriorityWindow() {
+		return this.priorityWindow;
+	}
+
+	public Duration getPriorityInterval() {
+		return this.priorityInterval;
+	}
+}
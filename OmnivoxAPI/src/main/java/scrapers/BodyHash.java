@@ -0,0 +1,35 @@
+package scrapers;
+
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+/**
+ * This class computes a fast 64 bit hash of a page body. It is used to know if
+ * a page downloaded again has the same body as the last time.
+ * 
+ * The hash is made of two different 32 bit checksums that the JVM computes with
+ * special CPU instructions, so it costs much less than reading the page. It is
+ * not a secure hash: it only needs to tell apart two versions of the same page.
+ */
+public final class BodyHash {
+
+	private BodyHash() {
+	}
+
+	/**
+	 * Hashes the body of a page.
+	 * 
+	 * @param body The bytes of the body
+	 * 
+	 * @return The hash of the body
+	 */
+	public static long of(byte[] body) {
+		CRC32C high = new CRC32C();
+		high.update(body, 0, body.length);
+
+		CRC32 low = new CRC32();
+		low.update(body, 0, body.length);
+
+		return high.getValue() << 32 | low.getValue();
+	}
+}
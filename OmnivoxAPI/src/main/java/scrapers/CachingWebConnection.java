@@ -0,0 +1,141 @@
+package scrapers;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.gargoylesoftware.htmlunit.HttpMethod;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebConnection;
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import com.gargoylesoftware.htmlunit.WebResponseData;
+import com.gargoylesoftware.htmlunit.util.WebConnectionWrapper;
+
+/**
+ * This class is installed under a {@link WebClient} to make conditional
+ * requests for the pages kept in a {@link PageCache}.
+ * 
+ * When a page was seen before, the ETag and Last-Modified validators are sent
+ * with the request. If Omnivox answers 304 Not Modified, the kept body is
+ * given to the client like a normal response. Every other Html page downloaded
+ * is hashed and kept.
+ * 
+ * A client has a single caching connection. Its cache is replaced when another
+ * one is installed and removed when the client is given to another student, so
+ * the pages of a student are never sent or given to another one.
+ */
+public class CachingWebConnection extends WebConnectionWrapper {
+
+	/**
+	 * The cache shared by the connections of the scraper's clients or null if the
+	 * requests are only passed on.
+	 */
+	private volatile PageCache cache;
+
+	private CachingWebConnection(WebClient client, PageCache cache) {
+		super(client);
+		this.cache = cache;
+	}
+
+	/**
+	 * Installs the cache on the client. If a caching connection is already
+	 * installed under the client, like when the client is reused, its cache is
+	 * replaced instead of installing another one.
+	 * 
+	 * @param client The client making the requests
+	 * @param cache  The cache holding the pages
+	 * 
+	 * @return The caching connection of the client
+	 */
+	public static CachingWebConnection install(WebClient client, PageCache cache) {
+		if (cache == null) {
+			throw new NullPointerException("Cache is null");
+		}
+
+		CachingWebConnection connection = find(client);
+		if (connection != null) {
+			connection.cache = cache;
+			return connection;
+		}
+
+		return new CachingWebConnection(client, cache);
+	}
+
+	/**
+	 * Removes the cache from the client. Its caching connection only passes the
+	 * requests on until another cache is installed.
+	 * 
+	 * @param client The client making the requests
+	 */
+	public static void remove(WebClient client) {
+		CachingWebConnection connection = find(client);
+		if (connection != null) {
+			connection.cache = null;
+		}
+	}
+
+	/**
+	 * Finds the caching connection under the other wrappers of the client.
+	 */
+	private static CachingWebConnection find(WebClient client) {
+		WebConnection connection = client.getWebConnection();
+
+		while (connection instanceof WebConnectionWrapper) {
+			if (connection instanceof CachingWebConnection) {
+				return (CachingWebConnection) connection;
+			}
+			connection = ((WebConnectionWrapper) connection).getWrappedWebConnection();
+		}
+
+		return null;
+	}
+
+	@Override
+	public WebResponse getResponse(WebRequest request) throws IOException {
+		PageCache cache = this.cache;
+
+		// Only the pages can be cached
+		if (cache == null || request.getHttpMethod() != HttpMethod.GET) {
+			return super.getResponse(request);
+		}
+
+		PageCache.Entry entry = cache.getEntry(request.getUrl());
+
+		// Sending the validators of the kept page
+		if (entry != null) {
+			if (entry.etag != null) {
+				request.setAdditionalHeader("If-None-Match", entry.etag);
+			}
+			if (entry.lastModified != null) {
+				request.setAdditionalHeader("If-Modified-Since", entry.lastModified);
+			}
+		}
+
+		WebResponse response = super.getResponse(request);
+
+		if (response.getStatusCode() == 304 && entry != null) {
+			cache.notModified(entry);
+			return new WebResponse(entry.data, request, response.getLoadTime());
+		}
+
+		if (response.getStatusCode() == 200 && "text/html".equals(response.getContentType())) {
+			WebResponseData data = new WebResponseData(readBody(response), response.getStatusCode(),
+					response.getStatusMessage(), response.getResponseHeaders());
+
+			cache.store(request.getUrl(), response.getResponseHeaderValue("ETag"),
+					response.getResponseHeaderValue("Last-Modified"), BodyHash.of(data.getBody()), data);
+		}
+
+		return response;
+	}
+
+	private static byte[] readBody(WebResponse response) throws IOException {
+		try (InputStream in = response.getContentAsStream()) {
+			return in.readAllBytes();
+		}
+	}
+
+	public PageCache getCache() {
+		return this.cache;
+	}
+}
@@ -0,0 +1,177 @@
+package scrapers;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+import assemblers.Assembler;
+
+/**
+ * This class remembers the accounts whose Omnivox calendar has been set to show
+ * one day at a time, like the {@link Assembler} needs it.
+ *
+ * Omnivox keeps the mode of the calendar for the account. Like before, the mode
+ * is only changed when the {@link Assembler} finds the calendar empty. The
+ * scraper then keeps the refreshed home page, so the next reads find the events
+ * without changing the mode again.
+ *
+ * The calendar pages are marked with the scraper that loaded them so the
+ * assembler changes the mode through it. Once the mode of an account is set, an
+ * empty calendar doesn't change it again: a page requested before the mode was
+ * set is only loaded again and a page requested after it has no events. The
+ * mode is only forgotten and changed once more if a page requested after it was
+ * set is in another mode, since the student may have changed it on Omnivox.
+ *
+ * An instance is owned by the {@link sessions.SessionPool} or the configuration
+ * of the {@link students.StudentManager} and shared by all of their scrapers.
+ * This class is safe to use from many threads at the same time.
+ */
+public class CalendarModes {
+
+	/**
+	 * The key of the user data marking the calendar pages with their scraper.
+	 */
+	private static final String userDataKey = CalendarModes.class.getName();
+
+	/**
+	 * The key of the user data holding when a calendar page was requested.
+	 */
+	private static final String requestedKey = userDataKey + ".requested";
+
+	/**
+	 * The time ({@link System#nanoTime()}) the calendar mode of every account was
+	 * set.
+	 */
+	private final ConcurrentHashMap<String, Long> accounts = new ConcurrentHashMap<String, Long>();
+
+	/*
+	 * Stats
+	 */
+	private final AtomicLong changes = new AtomicLong();
+	private final AtomicLong avoided = new AtomicLong();
+	private final AtomicLong forgotten = new AtomicLong();
+
+	/**
+	 * Checks if the calendar mode of the account has already been set.
+	 *
+	 * @param account The student number of the account
+	 *
+	 * @return If the mode is known to be right
+	 */
+	public boolean isSet(String account) {
+		return account != null && this.accounts.containsKey(account);
+	}
+
+	/**
+	 * Checks if the calendar page was requested after the mode of the account was
+	 * set, so it is shown in that mode unless the student changed it.
+	 *
+	 * @param account The student number of the account
+	 * @param page    The home page or a calendar view
+	 *
+	 * @return If the mode was set before the page was requested
+	 */
+	public boolean isSetBefore(String account, HtmlPage page) {
+		Long set = account == null ? null : this.accounts.get(account);
+		Object requested = page == null ? null : page.getUserData(requestedKey);
+
+		return set != null && requested instanceof Long && (Long) requested - set >= 0;
+	}
+
+	/**
+	 * Remembers that the calendar mode of the account has been set.
+	 *
+	 * @param account The student number of the account
+	 */
+	public void set(String account) {
+		this.changes.incrementAndGet();
+
+		if (account != null) {
+			this.accounts.put(account, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Counts a change of the calendar mode avoided since the mode of the account
+	 * was already set.
+	 */
+	void avoid() {
+		this.avoided.incrementAndGet();
+	}
+
+	/**
+	 * Forgets the calendar mode of the account. The mode will be set again the
+	 * next time the calendar is empty. It is called when a calendar page
+	 * requested after the mode was set is in another mode, since the student may
+	 * have changed the mode on Omnivox.
+	 *
+	 * @param account The student number of the account
+	 */
+	public void forget(String account) {
+		if (account != null && this.accounts.remove(account) != null) {
+			this.forgotten.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Marks a calendar page with the scraper that loaded it.
+	 *
+	 * @param page    The home page or a calendar view
+	 * @param scraper The scraper of the page
+	 */
+	static void mark(HtmlPage page, OmnivoxScraper scraper) {
+		if (page != null) {
+			page.setUserData(userDataKey, scraper, null);
+		}
+	}
+
+	/**
+	 * Keeps when a calendar page was requested.
+	 *
+	 * @param page      The home page or a calendar view
+	 * @param requested The time ({@link System#nanoTime()}) the page was
+	 *                  requested
+	 */
+	static void requested(HtmlPage page, long requested) {
+		if (page != null) {
+			page.setUserData(requestedKey, requested, null);
+		}
+	}
+
+	/**
+	 * Gets the scraper that loaded the calendar page.
+	 *
+	 * @param page The home page or a calendar view
+	 *
+	 * @return The scraper or null if the page wasn't marked
+	 */
+	public static OmnivoxScraper getScraper(HtmlPage page) {
+		Object scraper = page == null ? null : page.getUserData(userDataKey);
+		return scraper instanceof OmnivoxScraper ? (OmnivoxScraper) scraper : null;
+	}
+
+	// Getters
+	/**
+	 * Gets the number of times the calendar mode was changed on Omnivox.
+	 */
+	public long getChanges() {
+		return this.changes.get();
+	}
+
+	/**
+	 * Gets the number of times an empty calendar didn't change the mode on Omnivox
+	 * since it was already set.
+	 */
+	public long getAvoided() {
+		return this.avoided.get();
+	}
+
+	/**
+	 * Gets the number of accounts whose mode was forgotten since their calendar
+	 * was shown in another mode.
+	 */
+	public long getForgotten() {
+		return this.forgotten.get();
+	}
+}
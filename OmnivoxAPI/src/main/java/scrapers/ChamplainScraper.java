@@ -1,8 +1,10 @@
 package scrapers;
 
 import java.io.IOException;
-import java.util.List;
+import java.net.URL;
+import java.util.function.Consumer;
 
+import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.html.HtmlElement;
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
 
@@ -16,72 +18,87 @@ public class ChamplainScraper extends OmnivoxScraper{
 	 * The Omnivox login link for Champlain college.
 	 */
 	private static final String loginUrl = "https://champlaincollege-st-lambert.omnivox.ca/intr/Module/Identification/Login/Login.aspx";
+
+	/**
+	 * The XPath of the document button inside of a course panel on the Lea page.
+	 */
+	private static final String documentButton = "./div[2]/a";
+
+	/**
+	 * The XPath of the assignment button inside of a course panel on the Lea page.
+	 */
+	private static final String assignmentButton = "./div[2]/a[2]";
+
+	/**
+	 * The XPath of the entries of the what's new section on the home page.
+	 */
+	private static final String whatsNewEntries = "//*[@id=\"qdn-sans-bouton-wrapper\"]/a/div[2]";
 	
 	/**
 	 * Default constructor for the Champlain Scraper.
 	 * */
 	public ChamplainScraper() {
-		super(loginUrl);
+		this(newClient());
+	}
+
+	/**
+	 * Constructor for the Champlain Scraper using an existing client.
+	 * 
+	 * @param client The client used to make the requests
+	 */
+	public ChamplainScraper(WebClient client) {
+		super(loginUrl, client, resourceRules());
 	}
 
 	@Override
 	public HtmlPage[] getDocumentPages() {
-		List<HtmlElement> classes = this.LeaPage.getByXPath("//*[@class='card-panel section-spacing']");
-		
-		// Creating return array
-		HtmlPage[] return_array = new HtmlPage[classes.size()];
-		
-		for(int i = 0; i < classes.size(); i++) {
-			
-			HtmlElement button = classes.get(i).getFirstByXPath("./div[2]/a");
-			
-			try {
-				return_array[i] = button.click();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-		}
-		
-		return return_array;
+		return fetchCoursePages(documentButton, PageType.DOCUMENTS);
 	}
 
 	@Override
 	public HtmlPage[] getAssignmentPages() {
-		List<HtmlElement> classes = this.LeaPage.getByXPath("//*[@class='card-panel section-spacing']");
-		
-		// Creating return array
-		HtmlPage[] return_array = new HtmlPage[classes.size()];
-		
-		for(int i = 0; i < classes.size(); i++) {
-			
-			HtmlElement button = classes.get(i).getFirstByXPath("./div[2]/a[2]");
-			
-			try {
-				return_array[i] = button.click();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-			
-		}
-		
-		return return_array;
+		return fetchCoursePages(assignmentButton, PageType.ASSIGNMENTS);
 	}
 
 	@Override
-	public void printWhatsNew() {
-//		Check if there is anything new
-		List<HtmlElement> whats_new = this.homePage.<HtmlElement>getByXPath("//*[@id=\"qdn-sans-bouton-wrapper\"]/a/div[2]");
-		
-		if(whats_new.size() > 0) {
-			
-//			If there is something new
-//			Printing the text of the elements
-			for(HtmlElement news : whats_new) {
-				System.out.println(news.asText());
-			}
-		} else {
-			System.out.println("Nothing New");
-		}
+	public CoursePages getCoursePages() {
+		return fetchCoursePages(documentButton, assignmentButton);
+	}
+
+	@Override
+	public void streamDocumentPages(int capacity, Consumer<HtmlPage> consumer) {
+		streamCoursePages(documentButton, PageType.DOCUMENTS, capacity, consumer);
+	}
+
+	@Override
+	public void streamAssignmentPages(int capacity, Consumer<HtmlPage> consumer) {
+		streamCoursePages(assignmentButton, PageType.ASSIGNMENTS, capacity, consumer);
+	}
+
+	@Override
+	public URL[] getDocumentUrls() {
+		return resolveCourseUrls(documentButton);
+	}
+
+	@Override
+	public URL[] getAssignmentUrls() {
+		return resolveCourseUrls(assignmentButton);
+	}
+
+	@Override
+	protected String getWhatsNewXPath() {
+		return whatsNewEntries;
+	}
+
+	/**
+	 * Denies the webparts of the home page that are not read, on top of the rules
+	 * shared by every college. The calendar and the what's new webparts are kept.
+	 */
+	private static ResourceRules resourceRules() {
+		return ResourceRules.omnivox()
+				.allow("/WebParts/Intraflex_CalendrierScolaire/")
+				.allow("/WebParts/[^/]*QuoiDeNeuf")
+				.deny("champlaincollege-st-lambert\\.omnivox\\.ca/.*/WebParts/");
 	}
 
 	@Override
@@ -0,0 +1,170 @@
+package scrapers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.TopLevelWindow;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebWindow;
+import com.gargoylesoftware.htmlunit.html.FrameWindow;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * This class bounds what a long lived {@link WebClient} keeps between
+ * refreshes.
+ *
+ * HtmlUnit keeps the history of every window, the windows opened by the clicked
+ * buttons and its own cache of resources. When a scraper is reused for many
+ * refreshes, they grow at every refresh. This class caps the history and the
+ * cache of the client and closes the windows that are not needed anymore once
+ * the pages are assembled.
+ *
+ * The footprint of a client is estimated with the bytes of the pages still held
+ * by its windows.
+ */
+public class ClientLifecycle {
+
+	/**
+	 * The maximum number of pages kept in the history of a window.
+	 */
+	private int maxHistory = 2;
+
+	/**
+	 * The maximum number of resources kept in the cache of the client.
+	 */
+	private int maxCachedResources = 25;
+
+	/**
+	 * Caps the history and the cache of the client. It is called when the client
+	 * is given to a scraper.
+	 *
+	 * @param client The client to bound
+	 */
+	public void apply(WebClient client) {
+		client.getOptions().setHistorySizeLimit(this.maxHistory);
+
+		// The pages of the history are loaded again instead of being kept
+		client.getOptions().setHistoryPageCacheLimit(0);
+
+		client.getCache().setMaxSize(this.maxCachedResources);
+	}
+
+	/**
+	 * Closes every window of the client that doesn't hold one of the pages to keep
+	 * and removes the outdated resources from its cache.
+	 *
+	 * Note: The client must not be loading a page at the same time.
+	 *
+	 * @param client The client to release
+	 * @param keep   The pages still used. Ex: The home and Lea pages
+	 *
+	 * @return The number of windows closed
+	 */
+	public int release(WebClient client, Page... keep) {
+		int closed = 0;
+
+		// Copying the windows since closing one removes it from the list
+		for (TopLevelWindow window : new ArrayList<TopLevelWindow>(client.getTopLevelWindows())) {
+			if (holds(window, keep) || client.getTopLevelWindows().size() == 1)
+				continue;
+
+			window.close();
+			closed++;
+		}
+
+		client.getCache().clearOutdated();
+		return closed;
+	}
+
+	/**
+	 * Estimates the heap used by the client with the bytes of the pages held by its
+	 * windows and their frames.
+	 *
+	 * It doesn't include the DOM built from the pages, so it should be used to
+	 * compare the clients and to see their growth over time.
+	 *
+	 * @param client The client to measure
+	 *
+	 * @return The bytes of the pages held by the client
+	 */
+	public long getFootprint(WebClient client) {
+		long bytes = 0;
+
+		for (TopLevelWindow window : new ArrayList<TopLevelWindow>(client.getTopLevelWindows())) {
+			bytes += getBytes(window);
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Checks if the window holds one of the pages.
+	 */
+	private static boolean holds(WebWindow window, Page[] pages) {
+		Page enclosed = window.getEnclosedPage();
+
+		for (Page page : pages) {
+			if (page != null && page == enclosed)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the bytes of the page held by the window and its frames.
+	 */
+	private static long getBytes(WebWindow window) {
+		Page page = window.getEnclosedPage();
+
+		if (page == null || page.getWebResponse() == null) {
+			return 0;
+		}
+
+		long bytes = Math.max(0, page.getWebResponse().getContentLength());
+
+		if (page instanceof HtmlPage) {
+			List<FrameWindow> frames = ((HtmlPage) page).getFrames();
+			for (FrameWindow frame : frames) {
+				bytes += getBytes(frame);
+			}
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Sets the maximum number of pages kept in the history of a window.
+	 *
+	 * @param maxHistory The maximum of at least 1
+	 */
+	public void setMaxHistory(int maxHistory) {
+		if (maxHistory < 1) {
+			throw new IllegalArgumentException("The history must keep at least 1 page");
+		}
+
+		this.maxHistory = maxHistory;
+	}
+
+	/**
+	 * Sets the maximum number of resources kept in the cache of the client.
+	 *
+	 * @param maxCachedResources The maximum or 0 to keep none
+	 */
+	public void setMaxCachedResources(int maxCachedResources) {
+		if (maxCachedResources < 0) {
+			throw new IllegalArgumentException("The cache size can't be negative");
+		}
+
+		this.maxCachedResources = maxCachedResources;
+	}
+
+	// Getters
+	public int getMaxHistory() {
+		return this.maxHistory;
+	}
+
+	public int getMaxCachedResources() {
+		return this.maxCachedResources;
+	}
+}
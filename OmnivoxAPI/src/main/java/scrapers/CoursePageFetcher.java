@@ -0,0 +1,377 @@
+package scrapers;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import com.gargoylesoftware.htmlunit.CookieManager;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+import fleet.VirtualThreads;
+
+/**
+ * This class is used by the {@link OmnivoxScraper} to fetch the course pages
+ * concurrently.
+ *
+ * It holds a bounded number of worker {@link WebClient} objects. Every worker
+ * shares the {@link CookieManager} of the logged in client so that the requests
+ * are made with the same Omnivox session.
+ *
+ * The threads and the workers are kept from one fetch to the next, so a refresh
+ * doesn't wait for them to start. They are closed with the fetcher.
+ */
+class CoursePageFetcher {
+
+	/**
+	 * The cookie jar of the logged in client shared by every worker.
+	 */
+	private final CookieManager cookieManager;
+
+	/**
+	 * The maximum number of pages fetched at the same time.
+	 */
+	private final int threads;
+
+	/**
+	 * The cache installed under every worker or null if there is none.
+	 */
+	private final PageCache pageCache;
+
+	/**
+	 * The filter of the logged in client shared with every worker.
+	 */
+	private final FilteringWebConnection resourceFilter;
+
+	/**
+	 * Chooses if JavaScript runs on the pages fetched by the workers.
+	 */
+	private final JavaScriptPolicy javaScriptPolicy;
+
+	/**
+	 * Bounds the history and the cache of every worker.
+	 */
+	private final ClientLifecycle clientLifecycle;
+
+	/**
+	 * If every page is fetched on its own virtual thread instead of a fixed pool.
+	 */
+	private final boolean virtualThreads;
+
+	/**
+	 * Bounds the pages fetched at the same time, and so the worker clients, to the
+	 * number of threads. The fixed pool already does, but the virtual threads are
+	 * not bounded.
+	 */
+	private final Semaphore fetching;
+
+	/**
+	 * Holds the worker clients that are not fetching a page at the moment.
+	 */
+	private final LinkedBlockingQueue<WebClient> idleClients = new LinkedBlockingQueue<WebClient>();
+
+	/**
+	 * Holds every worker client created so they can be closed.
+	 */
+	private final List<WebClient> workers = new ArrayList<WebClient>();
+
+	/**
+	 * The threads fetching the pages, kept until the fetcher is closed.
+	 */
+	private final ExecutorService pool;
+
+	/**
+	 * The number of fetches and streams using this fetcher. The workers are only
+	 * closed once none are left.
+	 */
+	private int users = 0;
+
+	/**
+	 * If the fetcher was closed. The last user closes the workers if it was
+	 * closed while being used.
+	 */
+	private boolean closed = false;
+
+	/**
+	 * The only constructor for the Course Page Fetcher.
+	 *
+	 * @param owner          The logged in client whose cookies will be shared
+	 * @param threads        The maximum number of pages fetched at the same time
+	 * @param pageCache      The cache installed under every worker or null
+	 * @param resourceFilter   The filter shared with every worker
+	 * @param javaScriptPolicy Chooses if JavaScript runs on the fetched pages
+	 * @param clientLifecycle  Bounds the history and the cache of every worker
+	 * @param virtualThreads   If every page is fetched on its own virtual thread
+	 */
+	CoursePageFetcher(WebClient owner, int threads, PageCache pageCache, FilteringWebConnection resourceFilter,
+			JavaScriptPolicy javaScriptPolicy, ClientLifecycle clientLifecycle, boolean virtualThreads) {
+		this.cookieManager = owner.getCookieManager();
+		this.threads = threads;
+		this.fetching = new Semaphore(threads);
+		this.pageCache = pageCache;
+		this.resourceFilter = resourceFilter;
+		this.javaScriptPolicy = javaScriptPolicy;
+		this.clientLifecycle = clientLifecycle;
+		this.virtualThreads = virtualThreads;
+		this.pool = newPool(threads, virtualThreads);
+	}
+
+	/**
+	 * Fetches all of the given urls in parallel.
+	 *
+	 * The returned array keeps the order of the urls. If a url is null or its page
+	 * couldn't be fetched, the corresponding element will be null.
+	 *
+	 * @param urls  The urls of the pages to fetch
+	 * @param types The type of every page
+	 *
+	 * @return The fetched pages in the same order as the urls
+	 */
+	HtmlPage[] fetch(URL[] urls, PageType[] types) {
+		HtmlPage[] return_array = new HtmlPage[urls.length];
+
+		if (urls.length == 0) {
+			return return_array;
+		}
+
+		List<Future<HtmlPage>> futures = new ArrayList<Future<HtmlPage>>(urls.length);
+
+		try {
+			// Submitting every page so they are fetched at the same time
+			for (int i = 0; i < urls.length; i++) {
+				URL url = urls[i];
+				PageType type = types[i];
+				futures.add(url == null ? null : this.pool.submit(() -> fetchPage(url, type)));
+			}
+
+			// Waiting for the pages in the order they were submitted
+			for (int i = 0; i < urls.length; i++) {
+				if (futures.get(i) == null)
+					continue;
+
+				try {
+					return_array[i] = futures.get(i).get();
+				} catch (ExecutionException e) {
+					e.printStackTrace();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			cancel(futures);
+		}
+
+		return return_array;
+	}
+
+	/**
+	 * Fetches the given urls in parallel and puts the pages in the queue in the
+	 * same order as the urls.
+	 * 
+	 * No more than the number of threads are fetched ahead of the page waiting to
+	 * be put in the queue. Since the queue is bounded, a slow consumer slows down
+	 * the fetching.
+	 * 
+	 * @param urls     The urls of the pages to fetch
+	 * @param type     The type of the pages
+	 * @param fallback Gets the page of an index whose url is null
+	 * @param queue    The queue receiving every page. An empty element is put if
+	 *                 the page couldn't be fetched.
+	 * 
+	 * @throws InterruptedException If the consumer stopped the stream
+	 */
+	void stream(URL[] urls, PageType type, IntFunction<HtmlPage> fallback, BlockingQueue<Optional<HtmlPage>> queue)
+			throws InterruptedException {
+
+		List<Future<HtmlPage>> futures = new ArrayList<Future<HtmlPage>>(urls.length);
+
+		try {
+			int submitted = 0;
+
+			for (int i = 0; i < urls.length; i++) {
+
+				// Keeping the workers busy with the next pages
+				for (; submitted < urls.length && submitted - i < this.threads; submitted++) {
+					URL url = urls[submitted];
+					futures.add(url == null ? null : this.pool.submit(() -> fetchPage(url, type)));
+				}
+
+				HtmlPage page = null;
+
+				if (futures.get(i) == null) {
+					page = fallback.apply(i);
+				} else {
+					try {
+						page = futures.get(i).get();
+					} catch (ExecutionException e) {
+						e.printStackTrace();
+					}
+				}
+
+				futures.set(i, null);
+				queue.put(Optional.ofNullable(page));
+			}
+		} finally {
+			cancel(futures);
+		}
+	}
+
+	/**
+	 * Stops the pages that are still fetched for a fetch or a stream that ended.
+	 * The threads are kept for the next ones.
+	 */
+	private static void cancel(List<Future<HtmlPage>> futures) {
+		for (Future<HtmlPage> future : futures) {
+			if (future != null) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Counts a fetch or a stream using this fetcher. It is called by the scraper
+	 * while it holds its lock, so the fetcher can't be closed and replaced in
+	 * between. Every call needs a call to {@link #release()}.
+	 */
+	synchronized void acquire() {
+		this.users++;
+	}
+
+	/**
+	 * Counts the end of a fetch or a stream. The workers are closed if the fetcher
+	 * was closed while it was used.
+	 */
+	synchronized void release() {
+		this.users--;
+
+		if (this.users == 0 && this.closed) {
+			closeWorkers();
+		}
+	}
+
+	/**
+	 * Closes the threads and every worker client created by this fetcher. If it is
+	 * in use, they are closed when the last user releases it.
+	 */
+	synchronized void close() {
+		this.closed = true;
+
+		if (this.users == 0) {
+			closeWorkers();
+		}
+	}
+
+	private void closeWorkers() {
+		this.pool.shutdownNow();
+
+		synchronized (this.workers) {
+			for (WebClient worker : this.workers) {
+				worker.close();
+			}
+			this.workers.clear();
+		}
+		this.idleClients.clear();
+	}
+
+	/**
+	 * Estimates the heap used by the worker clients with the bytes of the pages
+	 * they hold.
+	 */
+	long getFootprint() {
+		long bytes = 0;
+
+		synchronized (this.workers) {
+			for (WebClient worker : this.workers) {
+				bytes += this.clientLifecycle.getFootprint(worker);
+			}
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Creates the threads fetching the pages. A virtual thread is started for every
+	 * page if they are supported. Otherwise, the platform threads are daemons that
+	 * stop when they are idle, so a fetcher that isn't closed doesn't keep them.
+	 */
+	private static ExecutorService newPool(int threads, boolean virtualThreads) {
+		if (virtualThreads) {
+			ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor();
+			if (executor != null) {
+				return executor;
+			}
+		}
+
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), runnable -> {
+					Thread thread = new Thread(runnable, "course-page-fetcher");
+					thread.setDaemon(true);
+					return thread;
+				});
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	/**
+	 * Fetches a single page with an idle worker client.
+	 *
+	 * @param url  The url of the page
+	 * @param type The type of the page
+	 *
+	 * @return The fetched page
+	 */
+	private HtmlPage fetchPage(URL url, PageType type) throws Exception {
+		this.fetching.acquire();
+		try {
+			WebClient worker = borrowClient();
+			try {
+				return this.javaScriptPolicy.load(worker, type, () -> worker.getPage(url));
+			} finally {
+				this.idleClients.offer(worker);
+			}
+		} finally {
+			this.fetching.release();
+		}
+	}
+
+	/**
+	 * Gets an idle worker client or creates one if none are idle.
+	 *
+	 * Since no more pages than the number of threads are fetched at the same time,
+	 * no more than that number of workers will be created, with virtual threads
+	 * too.
+	 */
+	private WebClient borrowClient() {
+		WebClient worker = this.idleClients.poll();
+
+		if (worker == null) {
+			worker = OmnivoxScraper.newClient();
+			worker.setCookieManager(this.cookieManager);
+
+			// A worker never goes back so it doesn't need to keep its pages
+			this.clientLifecycle.apply(worker);
+
+			this.resourceFilter.share(worker);
+
+			if (this.pageCache != null) {
+				CachingWebConnection.install(worker, this.pageCache);
+			}
+
+			synchronized (this.workers) {
+				this.workers.add(worker);
+			}
+		}
+
+		return worker;
+	}
+}
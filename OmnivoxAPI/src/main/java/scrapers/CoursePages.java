@@ -0,0 +1,62 @@
+package scrapers;
+
+import java.net.URL;
+
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * This class holds the document and assignment pages of every course found in
+ * a single walk of the Lea page. It is returned by
+ * {@link OmnivoxScraper#getCoursePages()}.
+ *
+ * The arrays are in the order of the course panels so the same index always
+ * refers to the same course.
+ *
+ * This class is Immutable and final.
+ */
+public final class CoursePages {
+
+	private final HtmlPage[] documentPages;
+	private final HtmlPage[] assignmentPages;
+
+	/**
+	 * The links of the pages. An element is null if its button doesn't have a
+	 * usable link.
+	 */
+	private final URL[] documentUrls;
+	private final URL[] assignmentUrls;
+
+	/**
+	 * The only constructor for the Course Pages.
+	 */
+	CoursePages(HtmlPage[] documentPages, HtmlPage[] assignmentPages, URL[] documentUrls, URL[] assignmentUrls) {
+		this.documentPages = documentPages;
+		this.assignmentPages = assignmentPages;
+		this.documentUrls = documentUrls;
+		this.assignmentUrls = assignmentUrls;
+	}
+
+	/**
+	 * Gets the number of courses.
+	 */
+	public int size() {
+		return this.documentPages.length;
+	}
+
+	// Getters
+	public HtmlPage[] getDocumentPages() {
+		return this.documentPages.clone();
+	}
+
+	public HtmlPage[] getAssignmentPages() {
+		return this.assignmentPages.clone();
+	}
+
+	public URL[] getDocumentUrls() {
+		return this.documentUrls.clone();
+	}
+
+	public URL[] getAssignmentUrls() {
+		return this.assignmentUrls.clone();
+	}
+}
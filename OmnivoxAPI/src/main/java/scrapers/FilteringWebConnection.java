@@ -0,0 +1,209 @@
+package scrapers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebConnection;
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import com.gargoylesoftware.htmlunit.WebResponseData;
+import com.gargoylesoftware.htmlunit.util.NameValuePair;
+import com.gargoylesoftware.htmlunit.util.WebConnectionWrapper;
+
+/**
+ * This class is installed under a {@link WebClient} to stop the requests of the
+ * resources that are not needed to read Omnivox, like the analytics, the web
+ * fonts and the social widgets.
+ *
+ * Every request is checked against the {@link ResourceRules}. A denied request
+ * is never sent: the client receives an empty response of the same type so the
+ * page keeps loading like the resource was there.
+ *
+ * Since the size of a denied resource isn't known, the bytes saved are estimated
+ * with the average size of the resources that were downloaded.
+ */
+public class FilteringWebConnection extends WebConnectionWrapper {
+
+	/**
+	 * The rules checked for every request.
+	 */
+	private volatile ResourceRules rules;
+
+	/**
+	 * The number of requests that were replaced by a stub.
+	 */
+	private final AtomicLong deniedRequests;
+
+	/**
+	 * The number of resources that were downloaded. The pages are not counted.
+	 */
+	private final AtomicLong allowedResources;
+
+	/**
+	 * The bytes of the resources that were downloaded. The pages are not counted.
+	 */
+	private final AtomicLong allowedBytes;
+
+	/**
+	 * Installs the connection under the client.
+	 *
+	 * @param client The client making the requests
+	 * @param rules  The rules checked for every request
+	 */
+	public FilteringWebConnection(WebClient client, ResourceRules rules) {
+		this(client, rules, new AtomicLong(), new AtomicLong(), new AtomicLong());
+	}
+
+	private FilteringWebConnection(WebClient client, ResourceRules rules, AtomicLong deniedRequests,
+			AtomicLong allowedResources, AtomicLong allowedBytes) {
+		super(client);
+		setRules(rules);
+		this.deniedRequests = deniedRequests;
+		this.allowedResources = allowedResources;
+		this.allowedBytes = allowedBytes;
+	}
+
+	/**
+	 * Installs the rules on the client. If a filter is already installed under the
+	 * client, like when the client is reused, its rules are replaced instead of
+	 * installing another one.
+	 *
+	 * @param client The client making the requests
+	 * @param rules  The rules checked for every request
+	 *
+	 * @return The filter of the client
+	 */
+	public static FilteringWebConnection install(WebClient client, ResourceRules rules) {
+		WebConnection connection = client.getWebConnection();
+
+		// Looking for a filter under the other wrappers
+		while (connection instanceof WebConnectionWrapper) {
+			if (connection instanceof FilteringWebConnection) {
+				FilteringWebConnection filter = (FilteringWebConnection) connection;
+				filter.setRules(rules);
+				return filter;
+			}
+			connection = ((WebConnectionWrapper) connection).getWrappedWebConnection();
+		}
+
+		return new FilteringWebConnection(client, rules);
+	}
+
+	/**
+	 * Installs a filter under a worker client with the same rules. The requests of
+	 * the worker are counted with the ones of this filter.
+	 *
+	 * @param worker The worker client
+	 */
+	void share(WebClient worker) {
+		new FilteringWebConnection(worker, this.rules, this.deniedRequests, this.allowedResources, this.allowedBytes);
+	}
+
+	@Override
+	public WebResponse getResponse(WebRequest request) throws IOException {
+
+		if (!this.rules.isAllowed(request.getUrl())) {
+			this.deniedRequests.incrementAndGet();
+			return stub(request);
+		}
+
+		WebResponse response = super.getResponse(request);
+
+		// Only the resources are used to estimate the bytes saved
+		if (!"text/html".equals(response.getContentType())) {
+			this.allowedResources.incrementAndGet();
+			this.allowedBytes.addAndGet(Math.max(0, response.getContentLength()));
+		}
+
+		return response;
+	}
+
+	/**
+	 * Builds the empty response given to the client instead of a denied resource.
+	 */
+	private static WebResponse stub(WebRequest request) {
+		List<NameValuePair> headers = new ArrayList<NameValuePair>();
+		headers.add(new NameValuePair("Content-Type", getStubType(request) + "; charset=UTF-8"));
+		headers.add(new NameValuePair("Content-Length", "0"));
+
+		WebResponseData data = new WebResponseData("".getBytes(StandardCharsets.UTF_8), 200, "OK", headers);
+		return new WebResponse(data, request, 0);
+	}
+
+	/**
+	 * Gets the content type of the stub from the extension of the resource. A
+	 * resource without a known extension (Ex: gtag/js) gets its type from the
+	 * Accept header of the request: the scripts ask for anything.
+	 */
+	private static String getStubType(WebRequest request) {
+		String path = request.getUrl().getPath().toLowerCase();
+
+		if (path.endsWith(".js")) {
+			return "application/javascript";
+		}
+		if (path.endsWith(".css")) {
+			return "text/css";
+		}
+		if (path.endsWith(".json")) {
+			return "application/json";
+		}
+
+		String accept = request.getAdditionalHeaders().get("Accept");
+		accept = accept == null ? "*/*" : accept.strip();
+
+		if (accept.equals("*/*")) {
+			return "application/javascript";
+		}
+		if (accept.startsWith("text/css")) {
+			return "text/css";
+		}
+
+		// Frames and webparts get an empty page
+		return "text/html";
+	}
+
+	/**
+	 * Sets the rules checked for every request.
+	 *
+	 * Note: The rules should not be changed after they are set since the requests
+	 * are checked from many threads.
+	 *
+	 * @param rules The rules to use
+	 */
+	public void setRules(ResourceRules rules) {
+		if (rules == null) {
+			throw new NullPointerException("Resource Rules are null");
+		}
+
+		this.rules = rules;
+	}
+
+	// Getters
+	public ResourceRules getRules() {
+		return this.rules;
+	}
+
+	public long getDeniedRequests() {
+		return this.deniedRequests.get();
+	}
+
+	/**
+	 * Gets the estimated number of bytes that were not downloaded.
+	 */
+	public long getBytesSaved() {
+		long resources = this.allowedResources.get();
+		return resources == 0 ? 0 : this.deniedRequests.get() * this.allowedBytes.get() / resources;
+	}
+
+	public long getAllowedResources() {
+		return this.allowedResources.get();
+	}
+
+	public long getAllowedBytes() {
+		return this.allowedBytes.get();
+	}
+}
@@ -0,0 +1,201 @@
+package scrapers;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+
+/**
+ * This class chooses if JavaScript runs on every {@link PageType} loaded by the
+ * scraper's clients.
+ *
+ * The document and assignment tables of Lea are rendered by the server, so
+ * JavaScript is off for those pages by default. It stays on for the login, the
+ * home page and the Lea page since their buttons and the calendar mode can need
+ * it.
+ *
+ * In the measurement mode, every other load of a page type without JavaScript
+ * is made with JavaScript on. The average latency of both is kept so the
+ * latency saved for every page type can be reported.
+ *
+ * This class is safe to use from many threads at the same time, but a client
+ * must only load one page at a time since the option is set on the client.
+ */
+public class JavaScriptPolicy {
+
+	/**
+	 * If JavaScript runs on every page type.
+	 */
+	private final EnumMap<PageType, Boolean> enabled = new EnumMap<PageType, Boolean>(PageType.class);
+
+	/**
+	 * If the latency with and without JavaScript is measured.
+	 */
+	private volatile boolean measuring = false;
+
+	/*
+	 * The number of loads and their total time in nanoseconds for every page type.
+	 * Index 0 is without JavaScript and index 1 is with it.
+	 */
+	private final EnumMap<PageType, AtomicLong[]> loads = new EnumMap<PageType, AtomicLong[]>(PageType.class);
+	private final EnumMap<PageType, AtomicLong[]> nanos = new EnumMap<PageType, AtomicLong[]>(PageType.class);
+
+	/**
+	 * The number of loads of every page type in the measurement mode. Used to
+	 * alternate between with and without JavaScript.
+	 */
+	private final EnumMap<PageType, AtomicLong> measured = new EnumMap<PageType, AtomicLong>(PageType.class);
+
+	/**
+	 * Default constructor for the JavaScript Policy with JavaScript off for the
+	 * document and assignment pages.
+	 */
+	public JavaScriptPolicy() {
+		for (PageType type : PageType.values()) {
+			this.enabled.put(type, true);
+			this.loads.put(type, new AtomicLong[] { new AtomicLong(), new AtomicLong() });
+			this.nanos.put(type, new AtomicLong[] { new AtomicLong(), new AtomicLong() });
+			this.measured.put(type, new AtomicLong());
+		}
+
+		this.enabled.put(PageType.DOCUMENTS, false);
+		this.enabled.put(PageType.ASSIGNMENTS, false);
+	}
+
+	/**
+	 * Represents the loading of a page.
+	 */
+	@FunctionalInterface
+	public interface PageLoad<T> {
+		T load() throws IOException;
+	}
+
+	/**
+	 * Loads a page with JavaScript on or off depending on its type. The option of
+	 * the client is set back to what it was once the page is loaded.
+	 *
+	 * @param client The client loading the page
+	 * @param type   The type of the page
+	 * @param load   Loads the page with the client
+	 *
+	 * @return The loaded page
+	 */
+	public <T> T load(WebClient client, PageType type, PageLoad<T> load) throws IOException {
+		boolean javaScript = isEnabled(type);
+
+		// Loading every other page with JavaScript to compare
+		if (this.measuring && !javaScript) {
+			javaScript = this.measured.get(type).getAndIncrement() % 2 == 1;
+		}
+
+		boolean previous = client.getOptions().isJavaScriptEnabled();
+		client.getOptions().setJavaScriptEnabled(javaScript);
+
+		long start = System.nanoTime();
+		try {
+			return load.load();
+		} finally {
+			long time = System.nanoTime() - start;
+			client.getOptions().setJavaScriptEnabled(previous);
+
+			int index = javaScript ? 1 : 0;
+			this.loads.get(type)[index].incrementAndGet();
+			this.nanos.get(type)[index].addAndGet(time);
+		}
+	}
+
+	/**
+	 * Sets if JavaScript runs on a page type.
+	 *
+	 * @param type       The type of the pages
+	 * @param javaScript If JavaScript runs on them
+	 */
+	public synchronized void setEnabled(PageType type, boolean javaScript) {
+		if (type == null) {
+			throw new NullPointerException("Page Type is null");
+		}
+
+		this.enabled.put(type, javaScript);
+	}
+
+	/**
+	 * Checks if JavaScript runs on a page type.
+	 */
+	public synchronized boolean isEnabled(PageType type) {
+		return this.enabled.get(type);
+	}
+
+	/**
+	 * Sets if every other load of a page type without JavaScript is made with
+	 * JavaScript on to measure the latency saved.
+	 *
+	 * @param measuring If the measurement mode is on
+	 */
+	public void setMeasuring(boolean measuring) {
+		this.measuring = measuring;
+	}
+
+	public boolean isMeasuring() {
+		return this.measuring;
+	}
+
+	/**
+	 * Gets the number of pages of a type that were loaded.
+	 *
+	 * @param type       The type of the pages
+	 * @param javaScript If JavaScript was on
+	 */
+	public long getLoads(PageType type, boolean javaScript) {
+		return this.loads.get(type)[javaScript ? 1 : 0].get();
+	}
+
+	/**
+	 * Gets the average time it took to load a page of a type in nanoseconds.
+	 *
+	 * @param type       The type of the pages
+	 * @param javaScript If JavaScript was on
+	 *
+	 * @return The average time or 0 if no page was loaded
+	 */
+	public long getAverageNanos(PageType type, boolean javaScript) {
+		int index = javaScript ? 1 : 0;
+		long loads = this.loads.get(type)[index].get();
+		return loads == 0 ? 0 : this.nanos.get(type)[index].get() / loads;
+	}
+
+	/**
+	 * Gets the time saved on every page of a type by loading it without
+	 * JavaScript in nanoseconds.
+	 *
+	 * It needs pages of the type loaded with and without JavaScript, like in the
+	 * measurement mode.
+	 *
+	 * @param type The type of the pages
+	 *
+	 * @return The time saved or 0 if it wasn't measured
+	 */
+	public long getLatencySaved(PageType type) {
+		if (getLoads(type, true) == 0 || getLoads(type, false) == 0) {
+			return 0;
+		}
+		return getAverageNanos(type, true) - getAverageNanos(type, false);
+	}
+
+	/**
+	 * Prints the average latency with and without JavaScript and the latency saved
+	 * for every page type.
+	 *
+	 * @param out The stream to print to
+	 */
+	public void printReport(PrintStream out) {
+		out.printf("%-11s | %3s | %10s | %10s | %10s%n", "Page", "JS", "No JS (ms)", "JS (ms)", "Saved (ms)");
+
+		for (PageType type : PageType.values()) {
+			out.printf("%-11s | %3s | %10.1f | %10.1f | %10.1f%n", type, isEnabled(type) ? "on" : "off",
+					getAverageNanos(type, false) / 1e6, getAverageNanos(type, true) / 1e6,
+					getLatencySaved(type) / 1e6);
+		}
+	}
+}
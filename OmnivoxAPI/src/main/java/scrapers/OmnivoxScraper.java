@@ -1,18 +1,38 @@
 package scrapers;
 
 import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 import com.gargoylesoftware.htmlunit.HttpMethod;
+import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.TopLevelWindow;
 import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebWindow;
+import com.gargoylesoftware.htmlunit.html.HtmlAnchor;
+import com.gargoylesoftware.htmlunit.html.HtmlElement;
 import com.gargoylesoftware.htmlunit.html.HtmlForm;
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.util.Cookie;
 import com.gargoylesoftware.htmlunit.util.NameValuePair;
 
 import assemblers.Assembler;
+import sessions.SessionStore;
+import sessions.StoredSession;
 
 /**
  * This abstract class is used to collect the {@link HtmlPage} object from
@@ -22,6 +42,18 @@ import assemblers.Assembler;
  */
 public abstract class OmnivoxScraper {
 
+	/**
+	 * How long the consumer of a stream waits for a page before checking if the
+	 * producer stopped.
+	 */
+	private static final long streamPollMillis = 100;
+
+	/**
+	 * The maximum number of course pages fetched at the same time on virtual
+	 * threads. Every page fetched at the same time needs its own worker client.
+	 */
+	public static final int MAX_VIRTUAL_FETCHES = 16;
+
 	/**
 	 * This String represents the login url of the Omnivox page.
 	 * 
@@ -33,7 +65,102 @@ public abstract class OmnivoxScraper {
 	/**
 	 * This is the webclient used to connect and make requests to
 	 */
-	private final WebClient client = newClient();
+	private final WebClient client;
+
+	/**
+	 * Locks the client while it loads a page or while a page it loaded is used. A
+	 * lock is used instead of synchronizing on the client, since a virtual thread
+	 * blocked on the network inside of a synchronized block pins its carrier
+	 * thread (Java 21 to 23).
+	 */
+	private final ReentrantLock clientLock = new ReentrantLock();
+
+	/**
+	 * The maximum number of course pages fetched at the same time.
+	 * 
+	 * When it is 1, the course pages are fetched one after another by clicking
+	 * their buttons on the Lea page.
+	 */
+	private int fetchThreads = 1;
+
+	/**
+	 * If every course page is fetched on its own virtual thread. The fetch threads
+	 * are ignored when it is on, no more than {@link #MAX_VIRTUAL_FETCHES} pages
+	 * are fetched at the same time.
+	 */
+	private boolean virtualThreads = false;
+
+	/**
+	 * Used to keep the session after the process restarts. The session isn't kept
+	 * if it is null.
+	 */
+	private SessionStore sessionStore;
+
+	/**
+	 * The username of the student logged in. Used as the key of the session store.
+	 */
+	private String username;
+
+	/**
+	 * The url of the Lea page from the restored session. It is null if the session
+	 * wasn't restored.
+	 */
+	private String restoredLeaUrl;
+
+	/**
+	 * The cache used to make conditional requests. No cache is used if it is null.
+	 */
+	private PageCache pageCache;
+
+	/**
+	 * The filter stopping the requests of the resources that are not needed.
+	 */
+	private final FilteringWebConnection resourceFilter;
+
+	/**
+	 * Chooses if JavaScript runs on every page loaded by the client and the worker
+	 * clients.
+	 */
+	private JavaScriptPolicy javaScriptPolicy = new JavaScriptPolicy();
+
+	/**
+	 * Bounds the history, the windows and the cache kept by the client between
+	 * refreshes.
+	 */
+	private ClientLifecycle clientLifecycle = new ClientLifecycle();
+
+	/**
+	 * Remembers the accounts whose calendar mode has already been set. It is
+	 * replaced by the one shared by the pool or the manager of the scraper.
+	 */
+	private CalendarModes calendarModes = new CalendarModes();
+
+	/**
+	 * Used to fetch the course pages concurrently. It is only created when the
+	 * fetch threads are above 1.
+	 */
+	private CoursePageFetcher fetcher;
+
+	/**
+	 * The Lea page the course panels were found on. The panels are searched again
+	 * when the Lea page changes.
+	 */
+	private HtmlPage panelsPage;
+
+	/**
+	 * The course panels of the Lea page in the order they appear.
+	 */
+	private List<HtmlElement> coursePanels;
+
+	/**
+	 * The button of every course panel by its XPath.
+	 */
+	private final HashMap<String, HtmlElement[]> courseButtons = new HashMap<String, HtmlElement[]>();
+
+	/**
+	 * The link of every course panel's button by the XPath of the button.
+	 */
+	private final HashMap<String, URL[]> courseUrls = new HashMap<String, URL[]>();
 
 	/**
 	 * Represents the Html Version of the Omnivox homepage.
@@ -46,11 +173,46 @@ public abstract class OmnivoxScraper {
 	protected HtmlPage LeaPage;
 
 	/**
-	 * The only constructor for the Omnivox Scraper.
+	 * Constructor for the Omnivox Scraper with its own new client.
 	 * 
 	 * @param loginUrl The login url for starting the Omnivox Scraper
 	 */
 	public OmnivoxScraper(String loginUrl) throws IllegalArgumentException {
+		this(loginUrl, newClient());
+	}
+
+	/**
+	 * Constructor for the Omnivox Scraper using an existing client. It is used to
+	 * reuse a client leased from a pool instead of building a new one.
+	 * 
+	 * @param loginUrl The login url for starting the Omnivox Scraper
+	 * @param client   The client used to make the requests
+	 */
+	public OmnivoxScraper(String loginUrl, WebClient client) throws IllegalArgumentException {
+		this(loginUrl, client, ResourceRules.omnivox());
+	}
+
+	/**
+	 * Constructor for the Omnivox Scraper using an existing client and the rules
+	 * of the resources the client doesn't need to download. The rules are
+	 * installed on the client right away.
+	 * 
+	 * A college should give the rules shared by every college
+	 * ({@link ResourceRules#omnivox()}) with the rules of its own pages.
+	 * 
+	 * @param loginUrl The login url for starting the Omnivox Scraper
+	 * @param client   The client used to make the requests
+	 * @param rules    The rules of the resources
+	 */
+	protected OmnivoxScraper(String loginUrl, WebClient client, ResourceRules rules)
+			throws IllegalArgumentException {
+
+		if (client == null) {
+			throw new NullPointerException("Client is null");
+		}
+		if (rules == null) {
+			throw new NullPointerException("Rules is null");
+		}
 
 		// Check if it matches the login pattern
 		if (!loginUrl
@@ -60,6 +222,9 @@ public abstract class OmnivoxScraper {
 		}
 
 		this.loginUrl = loginUrl;
+		this.client = client;
+		this.resourceFilter = FilteringWebConnection.install(client, rules);
+		this.clientLifecycle.apply(client);
 	}
 
 	/**
@@ -80,13 +245,185 @@ public abstract class OmnivoxScraper {
 	 */
 	public abstract HtmlPage[] getAssignmentPages();
 
+	/**
+	 * This method gets the document and assignment pages of every course.
+	 * 
+	 * The default implementation calls {@link #getDocumentPages()} then
+	 * {@link #getAssignmentPages()} and doesn't know the links of the pages. It
+	 * should be overridden with {@link #fetchCoursePages(String, String)} so the
+	 * Lea page is only walked once.
+	 * 
+	 * @return The pages of every course
+	 */
+	public CoursePages getCoursePages() {
+		HtmlPage[] documentPages = getDocumentPages();
+		HtmlPage[] assignmentPages = getAssignmentPages();
+
+		return new CoursePages(documentPages, assignmentPages, new URL[documentPages.length],
+				new URL[assignmentPages.length]);
+	}
+
+	/**
+	 * This method gives the document page of every course to the consumer as soon
+	 * as it is fetched, in the same order as {@link #getDocumentPages()}.
+	 * 
+	 * The default implementation gets all of the pages first. It should be
+	 * overridden with {@link #streamCoursePages} so the fetching of the next pages
+	 * overlaps with the consumer.
+	 * 
+	 * @param capacity The maximum number of fetched pages waiting for the consumer
+	 * @param consumer Receives every page. A page is null if it couldn't be
+	 *                 fetched.
+	 */
+	public void streamDocumentPages(int capacity, Consumer<HtmlPage> consumer) {
+		for (HtmlPage page : getDocumentPages()) {
+			consumer.accept(page);
+		}
+	}
+
+	/**
+	 * This method gives the assignment page of every course to the consumer as
+	 * soon as it is fetched, in the same order as {@link #getAssignmentPages()}.
+	 * 
+	 * The default implementation gets all of the pages first. It should be
+	 * overridden with {@link #streamCoursePages} so the fetching of the next pages
+	 * overlaps with the consumer.
+	 * 
+	 * @param capacity The maximum number of fetched pages waiting for the consumer
+	 * @param consumer Receives every page. A page is null if it couldn't be
+	 *                 fetched.
+	 */
+	public void streamAssignmentPages(int capacity, Consumer<HtmlPage> consumer) {
+		for (HtmlPage page : getAssignmentPages()) {
+			consumer.accept(page);
+		}
+	}
+
+	/**
+	 * This method resolves the link of every course's document page without
+	 * opening them. It is needed by the raw http engine.
+	 * 
+	 * It is different for every college since the button of the document page is
+	 * different. It should use {@link #resolveCourseUrls(String)}.
+	 * 
+	 * @return The url of every course's document page. An element is null if its
+	 *         button doesn't have a usable link.
+	 */
+	public abstract URL[] getDocumentUrls();
+
+	/**
+	 * This method resolves the link of every course's assignment page without
+	 * opening them. It is needed by the raw http engine.
+	 * 
+	 * It is different for every college since the button of the assignment page
+	 * is different. It should use {@link #resolveCourseUrls(String)}.
+	 * 
+	 * @return The url of every course's assignment page. An element is null if its
+	 *         button doesn't have a usable link.
+	 */
+	public abstract URL[] getAssignmentUrls();
+
+	/**
+	 * Gets the XPath of the entries of the what's new section on the home page.
+	 * 
+	 * The section is different for every college.
+	 * 
+	 * @return The XPath of every entry
+	 */
+	protected abstract String getWhatsNewXPath();
+
+	/**
+	 * Gets the entries of the what's new section of the Omnivox home page.
+	 * 
+	 * Only the home page is loaded again, without going to Lea, so it can be called
+	 * often between the refreshes. It is loaded by a worker client so it doesn't
+	 * wait for the pages loaded by this scraper's client. If a page cache is set,
+	 * the home page is only downloaded when it changed.
+	 * 
+	 * @return The entries in the order they appear. It is empty if there is nothing
+	 *         new.
+	 * 
+	 * @throws IllegalStateException If the session has expired and Omnivox answered
+	 *                               the login page
+	 */
+	public WhatsNewItem[] fetchWhatsNew() {
+		if (this.homePage == null) {
+			throw new NullPointerException("Home Page is null, you need to login first");
+		}
+
+		HtmlPage page = fetch(new URL[] { this.homePage.getUrl() }, new PageType[] { PageType.HOME })[0];
+
+		// Using the home page of the client if it couldn't be loaded again
+		if (page == null) {
+			this.clientLock.lock();
+			try {
+				page = this.homePage;
+			} finally {
+				this.clientLock.unlock();
+			}
+		}
+
+		// The password isn't kept, so the student needs to login again
+		if (isLoginPage(page)) {
+			throw new IllegalStateException("The session has expired, you need to login again");
+		}
+
+		return assembleWhatsNew(page);
+	}
+
+	/**
+	 * Finds the entries of the what's new section in the home page.
+	 * 
+	 * @param page The Omnivox home page
+	 * 
+	 * @return The entries in the order they appear
+	 */
+	protected WhatsNewItem[] assembleWhatsNew(HtmlPage page) {
+		List<HtmlElement> entries = page.getByXPath(getWhatsNewXPath());
+
+		WhatsNewItem[] return_array = new WhatsNewItem[entries.size()];
+
+		int i = 0;
+		for (HtmlElement entry : entries) {
+
+			// The link is on the entry or one of its parents
+			URL url = null;
+			HtmlElement link = entry instanceof HtmlAnchor ? entry : entry.getEnclosingElement("a");
+
+			if (link instanceof HtmlAnchor) {
+				String href = ((HtmlAnchor) link).getHrefAttribute().strip();
+
+				try {
+					if (!href.isEmpty() && !href.startsWith("#") && !href.toLowerCase().startsWith("javascript:")) {
+						url = page.getFullyQualifiedUrl(href);
+					}
+				} catch (MalformedURLException e) {
+					e.printStackTrace();
+				}
+			}
+
+			return_array[i++] = new WhatsNewItem(entry.asText(), url);
+		}
+
+		return return_array;
+	}
+
 	/**
 	 * This method prints the what's new section in the omnivox homepage.
 	 * 
-	 * This method will not break the program if it is not well implemented since it
-	 * doesn't return anything.
+	 * It uses {@link #fetchWhatsNew()} and prints the text of every entry.
 	 */
-	public abstract void printWhatsNew();
+	public void printWhatsNew() {
+		WhatsNewItem[] items = fetchWhatsNew();
+
+		if (items.length == 0) {
+			System.out.println("Nothing New");
+		}
+
+		for (WhatsNewItem item : items) {
+			System.out.println(item);
+		}
+	}
 
 	/**
 	 * This method needs to set the Lea Page field to the corresponding field.
@@ -96,14 +433,788 @@ public abstract class OmnivoxScraper {
 	 */
 	public abstract void setLeaPage();
 
+	/**
+	 * Gets the link of the home page showing the calendar at the given date.
+	 * 
+	 * The default implementation adds the date to the link of the home page with
+	 * the parameter of {@link #getCalendarDateParameter()} (Ex: ?date=2024-02-01).
+	 * Omnivox doesn't document how its calendar is moved, so the parameter isn't
+	 * trusted: {@link students.StudentManager#getCalendarEvents(Date, Date)}
+	 * checks that every view shows the month it asked for and fails otherwise.
+	 * 
+	 * It should be overridden if the college's calendar is moved to another date
+	 * differently (Ex: by the previous and next buttons of the calendar).
+	 * 
+	 * @param view A date the calendar needs to show
+	 * 
+	 * @return The url of the calendar view
+	 */
+	protected URL getCalendarUrl(Date view) {
+		if (this.homePage == null) {
+			throw new NullPointerException("Home Page is null, you need to login first");
+		}
+
+		String date = new SimpleDateFormat("yyyy-MM-dd").format(view);
+		String url = this.homePage.getUrl().toExternalForm();
+
+		try {
+			return new URL(url + (url.contains("?") ? "&" : "?") + getCalendarDateParameter() + "=" + date);
+		} catch (MalformedURLException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the name of the parameter the date of the calendar is added to the link
+	 * of the home page with in {@link #getCalendarUrl(Date)}.
+	 * 
+	 * @return The name of the parameter. Ex: date
+	 */
+	protected String getCalendarDateParameter() {
+		return "date";
+	}
+
+	/**
+	 * Gets the home page showing the calendar at every given date.
+	 * 
+	 * The views don't depend on each other, so they are fetched at the same time
+	 * by the worker clients, up to the fetch threads. The home page of this scraper's client is left
+	 * untouched.
+	 * 
+	 * @param views A date every calendar view needs to show
+	 * 
+	 * @return The pages in the same order as the views. An element is null if its
+	 *         page couldn't be fetched.
+	 */
+	public HtmlPage[] getCalendarPages(Date[] views) {
+		URL[] urls = new URL[views.length];
+		PageType[] types = new PageType[views.length];
+
+		for (int i = 0; i < views.length; i++) {
+			urls[i] = getCalendarUrl(views[i]);
+			types[i] = PageType.HOME;
+		}
+
+		long requested = System.nanoTime();
+
+		// The assembler changes the mode through this scraper if a view is empty
+		HtmlPage[] return_array = fetch(urls, types);
+		for (HtmlPage page : return_array) {
+			CalendarModes.mark(page, this);
+			CalendarModes.requested(page, requested);
+		}
+
+		return return_array;
+	}
+
+	/**
+	 * Gets the home page to read the calendar from. It is marked so the
+	 * {@link Assembler} changes the calendar mode through
+	 * {@link #refreshCalendar} if the calendar is empty.
+	 * 
+	 * @return The home page
+	 */
+	public HtmlPage getCalendarHomePage() {
+		this.clientLock.lock();
+		try {
+			CalendarModes.mark(this.homePage, this);
+			return this.homePage;
+		} finally {
+			this.clientLock.unlock();
+		}
+	}
+
+	/**
+	 * Changes the calendar mode of the account and refreshes a calendar page that
+	 * was empty. The refreshed home page is kept, so the next reads show the
+	 * events without changing the mode again.
+	 * 
+	 * If the mode of the account was already set, it isn't changed again. A page
+	 * requested before the mode was set is only refreshed and a page requested
+	 * after it is given back as it is since it has no events. The mode is only
+	 * forgotten and changed once more if a page requested after it was set is
+	 * shown in another mode ({@link #isCalendarModeShown}), since the student may
+	 * have changed it on Omnivox.
+	 * 
+	 * @param page The empty home page or calendar view loaded by this scraper
+	 * 
+	 * @return The refreshed page or null if it couldn't be refreshed
+	 */
+	public HtmlPage refreshCalendar(HtmlPage page) {
+		this.clientLock.lock();
+		try {
+			if (this.calendarModes.isSet(this.username)) {
+				if (!this.calendarModes.isSetBefore(this.username, page)) {
+					this.calendarModes.avoid();
+					return reloadCalendar(page);
+				}
+				if (isCalendarModeShown(page)) {
+					this.calendarModes.avoid();
+					return page;
+				}
+
+				// The student changed the mode on Omnivox
+				this.calendarModes.forget(this.username);
+			}
+
+			changeCalendarMode();
+			this.calendarModes.set(this.username);
+
+			return reloadCalendar(page);
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			this.clientLock.unlock();
+		}
+		return null;
+	}
+
+	/**
+	 * Refreshes a calendar page and keeps when it was requested. The home page is
+	 * replaced by its refreshed page.
+	 */
+	private HtmlPage reloadCalendar(HtmlPage page) throws IOException {
+		long requested = System.nanoTime();
+
+		// A calendar view belongs to the client of a worker
+		HtmlPage refreshed = this.javaScriptPolicy.load(page.getWebClient(), PageType.HOME,
+				() -> (HtmlPage) page.refresh());
+		CalendarModes.requested(refreshed, requested);
+
+		if (page == this.homePage) {
+			this.homePage = refreshed;
+		}
+		return refreshed;
+	}
+
+	/**
+	 * Checks if the calendar page is shown in the mode set by
+	 * {@link #changeCalendarMode()}, one day at a time.
+	 * 
+	 * The default implementation looks for the table holding the events of the
+	 * days, read by the {@link Assembler}. It should be overridden if the
+	 * college's calendar has it in both modes.
+	 * 
+	 * @param page The home page or a calendar view
+	 * 
+	 * @return If the page is shown in the mode that was set
+	 */
+	protected boolean isCalendarModeShown(HtmlPage page) {
+		return page.getFirstByXPath("//*[@id='tblCalendrierEvenement']") != null;
+	}
+
+	/**
+	 * Changes the calendar of the account to show one day at a time.
+	 * 
+	 * Makes a HTTP request to the Omnivox Quick View Button since it wasn't
+	 * clickable. The home page needs to be loaded again to show the change.
+	 * 
+	 * This method has been tested with Champlain and Maisonneuve. If it generates
+	 * an error, it needs to be overriden.
+	 */
+	protected void changeCalendarMode() throws IOException {
+		if (this.homePage == null) {
+			throw new NullPointerException("Home Page is null, you need to login first");
+		}
+
+		URL url = new URL(this.homePage.getBaseURL()
+				+ "UI/WebParts/Intraflex_CalendrierScolaire/Webpart_Affichage_Selector.ashx?t="
+				+ System.currentTimeMillis());
+		WebRequest calendarRequest = new WebRequest(url, HttpMethod.POST);
+
+		// Adding request params
+		ArrayList<NameValuePair> requestParams = new ArrayList<NameValuePair>();
+		requestParams.add(new NameValuePair("isModeVueParJour", "true"));
+		calendarRequest.setRequestParameters(requestParams);
+
+		this.client.getPage(calendarRequest);
+	}
+
+	/**
+	 * Gets the course pages by using the button found at the given XPath inside of
+	 * every course panel of the Lea page.
+	 * 
+	 * If the fetch threads are above 1, the target url of every button is resolved
+	 * from the Lea page and the pages are fetched in parallel. The buttons without
+	 * a usable link are still clicked. Either way, the pages are returned in the
+	 * same order as the buttons.
+	 * 
+	 * @param buttonXPath The XPath of the button relative to the course panel
+	 * @param type        The type of the pages the buttons lead to
+	 * 
+	 * @return The page of every course
+	 */
+	protected HtmlPage[] fetchCoursePages(String buttonXPath, PageType type) {
+		HtmlElement[] buttons = getCourseButtons(buttonXPath);
+		URL[] urls = isConcurrent() ? resolveCourseUrls(buttonXPath) : new URL[buttons.length];
+
+		PageType[] types = new PageType[buttons.length];
+		Arrays.fill(types, type);
+
+		return fetchPages(buttons, urls, types);
+	}
+
+	/**
+	 * Gets the document and assignment pages of every course with a single walk of
+	 * the Lea page.
+	 * 
+	 * Both buttons of every course panel are found at the same time and their
+	 * links are kept until the Lea page changes. If the fetch threads are above 1,
+	 * the document and assignment pages are all fetched in the same batch.
+	 * 
+	 * @param documentXPath   The XPath of the document button relative to the
+	 *                        course panel
+	 * @param assignmentXPath The XPath of the assignment button relative to the
+	 *                        course panel
+	 * 
+	 * @return The pages of every course
+	 */
+	protected CoursePages fetchCoursePages(String documentXPath, String assignmentXPath) {
+		HtmlElement[] documentButtons = getCourseButtons(documentXPath);
+		HtmlElement[] assignmentButtons = getCourseButtons(assignmentXPath);
+		URL[] documentUrls = resolveCourseUrls(documentXPath);
+		URL[] assignmentUrls = resolveCourseUrls(assignmentXPath);
+
+		int courses = documentButtons.length;
+
+		// Putting every button in the same batch
+		HtmlElement[] buttons = new HtmlElement[courses * 2];
+		System.arraycopy(documentButtons, 0, buttons, 0, courses);
+		System.arraycopy(assignmentButtons, 0, buttons, courses, courses);
+
+		URL[] urls = new URL[courses * 2];
+		if (isConcurrent()) {
+			System.arraycopy(documentUrls, 0, urls, 0, courses);
+			System.arraycopy(assignmentUrls, 0, urls, courses, courses);
+		}
+
+		PageType[] types = new PageType[courses * 2];
+		Arrays.fill(types, 0, courses, PageType.DOCUMENTS);
+		Arrays.fill(types, courses, courses * 2, PageType.ASSIGNMENTS);
+
+		HtmlPage[] pages = fetchPages(buttons, urls, types);
+
+		return new CoursePages(Arrays.copyOfRange(pages, 0, courses), Arrays.copyOfRange(pages, courses, courses * 2),
+				documentUrls, assignmentUrls);
+	}
+
+	/**
+	 * Gets the page of every button. The resolved urls are fetched in parallel and
+	 * the other buttons are clicked.
+	 * 
+	 * @param buttons The buttons on the Lea page
+	 * @param urls    The link of every button or null to click it
+	 * @param types   The type of the page of every button
+	 * 
+	 * @return The pages in the same order as the buttons
+	 */
+	private HtmlPage[] fetchPages(HtmlElement[] buttons, URL[] urls, PageType[] types) {
+		// Fetching the resolved links at the same time
+		HtmlPage[] return_array = isConcurrent() ? fetch(urls, types) : new HtmlPage[urls.length];
+
+		// Clicking the buttons that couldn't be resolved
+		for (int i = 0; i < buttons.length; i++) {
+			if (urls[i] != null)
+				continue;
+
+			return_array[i] = click(buttons[i], types[i]);
+		}
+
+		return return_array;
+	}
+
+	/**
+	 * Streams the course pages of the button found at the given XPath inside of
+	 * every course panel of the Lea page.
+	 * 
+	 * The pages are fetched by another thread and put in a bounded queue. The
+	 * calling thread gives them to the consumer in the same order as the buttons,
+	 * then releases them and closes their window so only the pages in the queue
+	 * are kept in memory. If the consumer throws an exception, the fetching stops.
+	 * If the fetching fails, its exception is thrown by the calling thread.
+	 * 
+	 * The consumer holds the lock of the client, like the clicks of the buttons
+	 * without a usable link, so it never uses the client while a button is clicked
+	 * on it. The pages fetched by the worker clients still overlap with it.
+	 * 
+	 * @param buttonXPath The XPath of the button relative to the course panel
+	 * @param type        The type of the pages the buttons lead to
+	 * @param capacity    The maximum number of fetched pages waiting for the
+	 *                    consumer
+	 * @param consumer    Receives every page. A page is null if it couldn't be
+	 *                    fetched.
+	 */
+	protected void streamCoursePages(String buttonXPath, PageType type, int capacity, Consumer<HtmlPage> consumer) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The capacity must be at least 1");
+		}
+
+		HtmlElement[] buttons = getCourseButtons(buttonXPath);
+		URL[] urls = isConcurrent() ? resolveCourseUrls(buttonXPath) : new URL[buttons.length];
+
+		ArrayBlockingQueue<Optional<HtmlPage>> queue = new ArrayBlockingQueue<Optional<HtmlPage>>(capacity);
+		CoursePageFetcher fetcher = isConcurrent() ? acquireFetcher() : null;
+
+		// The error that stopped the producer
+		AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		Thread producer = new Thread(() -> {
+			try {
+				if (fetcher != null) {
+					fetcher.stream(urls, type, i -> click(buttons[i], type), queue);
+				} else {
+					for (HtmlElement button : buttons) {
+						queue.put(Optional.ofNullable(click(button, type)));
+					}
+				}
+			} catch (InterruptedException e) {
+				// The consumer stopped the stream
+			} catch (Throwable e) {
+				failure.set(e);
+			} finally {
+				if (fetcher != null) {
+					fetcher.release();
+				}
+			}
+		}, "course-page-producer");
+		producer.setDaemon(true);
+		producer.start();
+
+		try {
+			for (int i = 0; i < buttons.length; i++) {
+				HtmlPage page = nextPage(queue, producer, failure);
+
+				this.clientLock.lock();
+				try {
+					consumer.accept(page);
+				} finally {
+					// Releasing the page since it has been consumed
+					if (page != null) {
+						release(page);
+					}
+					this.clientLock.unlock();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			producer.interrupt();
+		}
+	}
+
+	/**
+	 * Takes the next page put in the queue by the producer. The queue is polled so
+	 * the consumer doesn't wait forever once the producer stopped.
+	 * 
+	 * @throws IllegalStateException If the producer stopped without putting every
+	 *                               page. The error it stopped with is thrown as
+	 *                               it is if it isn't checked.
+	 */
+	private static HtmlPage nextPage(ArrayBlockingQueue<Optional<HtmlPage>> queue, Thread producer,
+			AtomicReference<Throwable> failure) throws InterruptedException {
+
+		while (true) {
+			Optional<HtmlPage> next = queue.poll(streamPollMillis, TimeUnit.MILLISECONDS);
+
+			if (next != null) {
+				return next.orElse(null);
+			}
+
+			Throwable error = failure.get();
+			if (error instanceof RuntimeException) {
+				throw (RuntimeException) error;
+			} else if (error instanceof Error) {
+				throw (Error) error;
+			} else if (error != null) {
+				throw new IllegalStateException("The course pages couldn't be fetched", error);
+			}
+
+			// The last pages may have been put right before it stopped
+			if (!producer.isAlive() && queue.isEmpty()) {
+				throw new IllegalStateException("The course pages stopped before the last one");
+			}
+		}
+	}
+
+	/**
+	 * Releases a consumed page and closes the window it was opened in. The window
+	 * of the Lea page and the last window of a client are kept.
+	 */
+	private void release(HtmlPage page) {
+		WebWindow window = page.getEnclosingWindow();
+
+		page.cleanUp();
+		page.getWebResponse().cleanUp();
+
+		if (window instanceof TopLevelWindow && window.getEnclosedPage() == page
+				&& (this.LeaPage == null || window != this.LeaPage.getEnclosingWindow())
+				&& window.getWebClient().getTopLevelWindows().size() > 1) {
+			((TopLevelWindow) window).close();
+		}
+	}
+
+	/**
+	 * Clicks a button of the Lea page.
+	 * 
+	 * The client is locked while the page loads since it can only load one page at
+	 * a time in its window. The {@link JavaScriptPolicy} of the page type is used
+	 * unless the button has no link, since it needs JavaScript to lead somewhere.
+	 * 
+	 * @param button The button on the Lea page
+	 * @param type   The type of the page it leads to
+	 * 
+	 * @return The page it leads to or null if it couldn't be clicked
+	 */
+	private HtmlPage click(HtmlElement button, PageType type) {
+		this.clientLock.lock();
+		try {
+			try {
+				if (resolveUrl(button) == null) {
+					return button.click();
+				}
+				return this.javaScriptPolicy.load(this.client, type, button::click);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		} finally {
+			this.clientLock.unlock();
+		}
+		return null;
+	}
+
+	/**
+	 * Resolves the link of the button found at the given XPath inside of every
+	 * course panel of the Lea page.
+	 * 
+	 * The links are kept until the Lea page changes.
+	 * 
+	 * @param buttonXPath The XPath of the button relative to the course panel
+	 * 
+	 * @return The url of every course's page. An element is null if its button
+	 *         doesn't have a usable link.
+	 */
+	protected synchronized URL[] resolveCourseUrls(String buttonXPath) {
+		HtmlElement[] buttons = getCourseButtons(buttonXPath);
+		URL[] return_array = this.courseUrls.get(buttonXPath);
+
+		if (return_array == null) {
+			return_array = new URL[buttons.length];
+
+			for (int i = 0; i < buttons.length; i++) {
+				return_array[i] = resolveUrl(buttons[i]);
+			}
+
+			this.courseUrls.put(buttonXPath, return_array);
+		}
+
+		return return_array.clone();
+	}
+
+	/**
+	 * Finds the button at the given XPath inside of every course panel of the Lea
+	 * page.
+	 * 
+	 * The course panels are only searched once for every Lea page.
+	 */
+	private synchronized HtmlElement[] getCourseButtons(String buttonXPath) {
+		// Searching the panels again if the Lea page changed
+		if (this.panelsPage != this.LeaPage) {
+			this.coursePanels = this.LeaPage.getByXPath("//*[@class='card-panel section-spacing']");
+			this.panelsPage = this.LeaPage;
+			this.courseButtons.clear();
+			this.courseUrls.clear();
+		}
+
+		HtmlElement[] return_array = this.courseButtons.get(buttonXPath);
+
+		if (return_array == null) {
+			return_array = new HtmlElement[this.coursePanels.size()];
+			for (int i = 0; i < this.coursePanels.size(); i++) {
+				return_array[i] = this.coursePanels.get(i).getFirstByXPath(buttonXPath);
+			}
+
+			this.courseButtons.put(buttonXPath, return_array);
+		}
+
+		return return_array.clone();
+	}
+
+	/**
+	 * Resolves the link a button leads to.
+	 * 
+	 * @param button The button on the Lea page
+	 * 
+	 * @return The fully qualified url or null if the button doesn't have a usable
+	 *         link (Ex: It runs JavaScript)
+	 */
+	private URL resolveUrl(HtmlElement button) {
+		if (button == null) {
+			return null;
+		}
+
+		String href = button.getAttribute("href").strip();
+
+		// Checking if the link can be followed without clicking
+		if (href.isEmpty() || href.startsWith("#") || href.toLowerCase().startsWith("javascript:")) {
+			return null;
+		}
+
+		try {
+			return this.LeaPage.getFullyQualifiedUrl(href);
+		} catch (MalformedURLException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the fetcher used for the concurrent mode or creates it, and counts the
+	 * caller as one of its users. A setter can replace it in the meantime, but the
+	 * old one is only closed once every user has released it.
+	 * 
+	 * Note: {@link CoursePageFetcher#release()} must be called once it is done.
+	 */
+	private synchronized CoursePageFetcher acquireFetcher() {
+		if (this.fetcher == null) {
+			int threads = this.virtualThreads ? MAX_VIRTUAL_FETCHES : this.fetchThreads;
+			this.fetcher = new CoursePageFetcher(this.client, threads, this.pageCache, this.resourceFilter,
+					this.javaScriptPolicy, this.clientLifecycle, this.virtualThreads);
+		}
+
+		this.fetcher.acquire();
+		return this.fetcher;
+	}
+
+	/**
+	 * Fetches the urls in parallel with the worker clients.
+	 */
+	private HtmlPage[] fetch(URL[] urls, PageType[] types) {
+		CoursePageFetcher fetcher = acquireFetcher();
+
+		try {
+			return fetcher.fetch(urls, types);
+		} finally {
+			fetcher.release();
+		}
+	}
+
+	/**
+	 * Checks if the course pages are fetched by the worker clients.
+	 */
+	private boolean isConcurrent() {
+		return this.fetchThreads > 1 || this.virtualThreads;
+	}
+
+	/**
+	 * Sets the maximum number of course pages fetched at the same time.
+	 * 
+	 * Every worker shares the cookies of this scraper's client so it needs to be
+	 * called before or after logging in without any difference.
+	 * 
+	 * @param fetchThreads The number of workers. 1 fetches the pages one after
+	 *                     another like before.
+	 */
+	public synchronized void setFetchThreads(int fetchThreads) {
+		if (fetchThreads < 1) {
+			throw new IllegalArgumentException("The fetch threads must be at least 1");
+		}
+
+		// Closing the workers since their number has changed
+		closeWorkers();
+
+		this.fetchThreads = fetchThreads;
+	}
+
+	/**
+	 * Sets if every course page is fetched on its own virtual thread.
+	 * 
+	 * It is meant for Java 21 and above. On older versions, a bounded pool of
+	 * platform threads is used instead. Either way, no more than
+	 * {@link #MAX_VIRTUAL_FETCHES} pages are fetched at the same time.
+	 * 
+	 * @param virtualThreads If the pages are fetched on virtual threads
+	 */
+	public synchronized void setVirtualThreads(boolean virtualThreads) {
+		// Closing the workers since their threads have changed
+		closeWorkers();
+
+		this.virtualThreads = virtualThreads;
+	}
+
+	/**
+	 * Sets the cache used to make conditional requests for the pages. It is
+	 * installed on the {@link CachingWebConnection} of the client, which is only
+	 * created the first time, and under the worker clients.
+	 * 
+	 * The cache is kept between refreshes so the pages that didn't change are not
+	 * assembled again. It belongs to this scraper and can't be set on another one,
+	 * since the pages of a student must not be given to another student.
+	 * 
+	 * @param pageCache The cache holding the pages
+	 * 
+	 * @throws IllegalStateException If the cache is used by another scraper
+	 */
+	public synchronized void setPageCache(PageCache pageCache) {
+		if (pageCache == null) {
+			throw new NullPointerException("Page Cache is null");
+		}
+		if (this.pageCache != null) {
+			throw new IllegalStateException("The page cache can only be set once");
+		}
+
+		pageCache.claim(this);
+		this.pageCache = pageCache;
+		CachingWebConnection.install(this.client, pageCache);
+
+		// The workers need to be created again with the cache
+		closeWorkers();
+	}
+
+	/**
+	 * Sets the rules of the resources the client and the worker clients don't
+	 * download.
+	 * 
+	 * @param rules The rules replacing the ones given to the constructor
+	 */
+	public synchronized void setResourceRules(ResourceRules rules) {
+		if (rules == null) {
+			throw new NullPointerException("Rules is null");
+		}
+
+		this.resourceFilter.setRules(rules);
+
+		// The workers need to be created again with the rules
+		closeWorkers();
+	}
+
+	/**
+	 * Sets the policy choosing if JavaScript runs on every page loaded by the
+	 * client and the worker clients.
+	 * 
+	 * The policy can be shared by many scrapers to measure the latency saved on
+	 * all of them.
+	 * 
+	 * @param javaScriptPolicy The policy to use
+	 */
+	public synchronized void setJavaScriptPolicy(JavaScriptPolicy javaScriptPolicy) {
+		if (javaScriptPolicy == null) {
+			throw new NullPointerException("JavaScript Policy is null");
+		}
+
+		this.javaScriptPolicy = javaScriptPolicy;
+
+		// The workers need to be created again with the policy
+		closeWorkers();
+	}
+
+	/**
+	 * Sets the lifecycle bounding the history, the windows and the cache kept by
+	 * the client and the worker clients.
+	 * 
+	 * @param clientLifecycle The lifecycle to use
+	 */
+	public synchronized void setClientLifecycle(ClientLifecycle clientLifecycle) {
+		if (clientLifecycle == null) {
+			throw new NullPointerException("Client Lifecycle is null");
+		}
+
+		this.clientLifecycle = clientLifecycle;
+		clientLifecycle.apply(this.client);
+
+		// The workers need to be created again with the lifecycle
+		closeWorkers();
+	}
+
+	/**
+	 * Sets the memory of the calendar modes. It is called by the
+	 * {@link sessions.SessionPool} and the {@link students.StudentManager} with
+	 * the one shared by all of their scrapers.
+	 * 
+	 * @param calendarModes The calendar modes to use
+	 */
+	public void setCalendarModes(CalendarModes calendarModes) {
+		if (calendarModes == null) {
+			throw new NullPointerException("Calendar Modes is null");
+		}
+
+		this.calendarModes = calendarModes;
+	}
+
+	/**
+	 * Closes the windows opened while getting the course pages and removes the
+	 * outdated resources from the cache. The home and Lea pages are kept.
+	 * 
+	 * It should be called once the course pages are assembled.
+	 * 
+	 * @return The number of windows closed
+	 */
+	public int releasePages() {
+		this.clientLock.lock();
+		try {
+			return this.clientLifecycle.release(this.client, this.homePage, this.LeaPage);
+		} finally {
+			this.clientLock.unlock();
+		}
+	}
+
+	/**
+	 * Estimates the heap used by the client and the worker clients with the bytes
+	 * of the pages they hold.
+	 * 
+	 * @return The bytes of the pages held by the clients
+	 */
+	public long getFootprint() {
+		long bytes;
+
+		this.clientLock.lock();
+		try {
+			bytes = this.clientLifecycle.getFootprint(this.client);
+		} finally {
+			this.clientLock.unlock();
+		}
+
+		CoursePageFetcher fetcher = this.fetcher;
+		if (fetcher != null) {
+			bytes += fetcher.getFootprint();
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Closes the client and every worker client used by this scraper.
+	 * 
+	 * Note: If the client was leased from a pool, it should be given back to the
+	 * pool instead of calling this method.
+	 */
+	public void close() {
+		closeWorkers();
+		this.client.close();
+	}
+
+	/**
+	 * Closes the worker clients used to fetch the course pages concurrently. They
+	 * are created again when they are needed. The client of the scraper is kept.
+	 * The fetches still running finish with the old workers, which are closed
+	 * after the last one.
+	 * 
+	 * It is called when a leased session is given back to its pool.
+	 */
+	public synchronized void closeWorkers() {
+		if (this.fetcher != null) {
+			this.fetcher.close();
+			this.fetcher = null;
+		}
+	}
+
 	/**
 	 * This final method creates a new instance of a {@link WebClient} with all of
 	 * the required parameters to run well.
 	 */
-	private final static WebClient newClient() {
+	public final static WebClient newClient() {
 		// Creates client with options
 		WebClient client = new WebClient();
-//		client.getOptions().setJavaScriptEnabled(true);
+		// JavaScript is turned on and off for every page by the JavaScriptPolicy
 		client.getOptions().setCssEnabled(false);
 		client.getOptions().setUseInsecureSSL(true);
 		client.getOptions().setDownloadImages(false);
@@ -118,17 +1229,27 @@ public abstract class OmnivoxScraper {
 	/**
 	 * This method will login to the Omnivox page and set the homePage field.
 	 * 
+	 * If a {@link SessionStore} is set, the saved session is reused instead when it
+	 * hasn't expired.
+	 * 
 	 * @implNote If you override this method because it can't login to your Omnivox,
 	 *           make sure you set the homePage field to it's correct value.
 	 */
 	public void login(String username, String password) {
+		this.username = username;
 
 		try {
 			// Hiding warnings
 			java.util.logging.Logger.getLogger("com.gargoylesoftware.htmlunit").setLevel(Level.OFF);
 			java.util.logging.Logger.getLogger("org.apache.commons.httpclient").setLevel(Level.OFF);
 
-			HtmlPage response = client.getPage(this.loginUrl);
+			// Reusing the saved session if it hasn't expired
+			if (restoreSession()) {
+				return;
+			}
+
+			HtmlPage response = this.javaScriptPolicy.load(client, PageType.LOGIN,
+					() -> client.getPage(this.loginUrl));
 			HtmlForm form = response.getFormByName("formLogin");
 
 			String k = form.getInputByName("k").getValueAttribute();
@@ -145,14 +1266,141 @@ public abstract class OmnivoxScraper {
 			requestParams.add(new NameValuePair("k", k));
 			loginRequest.setRequestParameters(requestParams);
 
-			this.homePage = client.getPage(loginRequest);
+			long requested = System.nanoTime();
+			this.homePage = this.javaScriptPolicy.load(client, PageType.HOME,
+					() -> client.getPage(loginRequest));
+			CalendarModes.requested(this.homePage, requested);
+
+			saveSession();
+
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Sets the Lea Page field by reusing the url of the saved session. If there is
+	 * none, it calls {@link #setLeaPage()} and saves the url it reached.
+	 */
+	public void loadLeaPage() {
+		if (this.restoredLeaUrl != null) {
+			try {
+				HtmlPage page = this.javaScriptPolicy.load(this.client, PageType.LEA,
+						() -> this.client.getPage(this.restoredLeaUrl));
+
+				if (!isLoginPage(page)) {
+					this.LeaPage = page;
+					return;
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			} finally {
+				this.restoredLeaUrl = null;
+			}
+		}
 
+		try {
+			this.javaScriptPolicy.load(this.client, PageType.LEA, () -> {
+				setLeaPage();
+				return this.LeaPage;
+			});
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+		saveSession();
+	}
+
+	/**
+	 * Saves the cookies of the client and the urls of the home and Lea pages to the
+	 * session store. Nothing is saved if there is no store or no home page.
+	 */
+	public void saveSession() {
+		if (this.sessionStore == null || this.homePage == null || isLoginPage(this.homePage)) {
+			return;
+		}
+
+		String leaUrl = this.LeaPage == null ? null : this.LeaPage.getUrl().toString();
+		this.sessionStore.save(this.username,
+				new StoredSession(this.client.getCookieManager().getCookies(), this.homePage.getUrl().toString(), leaUrl));
+	}
+
+	/**
+	 * Tries to open the home page with the cookies of the saved session.
+	 * 
+	 * If the saved session can't be used, it is deleted so the student logs in
+	 * again.
+	 * 
+	 * @return If the saved session is still valid and the home page was set
+	 */
+	private boolean restoreSession() {
+		if (this.sessionStore == null) {
+			return false;
+		}
+
+		try {
+			StoredSession session = this.sessionStore.load(this.username);
+			if (session == null) {
+				return false;
+			}
+
+			for (Cookie cookie : session.getCookies()) {
+				this.client.getCookieManager().addCookie(cookie);
+			}
+
+			long requested = System.nanoTime();
+			Page page = this.javaScriptPolicy.load(this.client, PageType.HOME,
+					() -> this.client.getPage(session.getHomeUrl()));
+
+			// The session has expired if Omnivox sends back to the login page
+			if (page instanceof HtmlPage && !isLoginPage((HtmlPage) page)) {
+				this.homePage = (HtmlPage) page;
+				CalendarModes.requested(this.homePage, requested);
+				this.restoredLeaUrl = session.getLeaUrl();
+				return true;
+			}
+		} catch (IOException | RuntimeException e) {
+			e.printStackTrace();
+		}
+
+		this.client.getCookieManager().clearCookies();
+		this.sessionStore.delete(this.username);
+		return false;
+	}
+
+	/**
+	 * Checks if the page is the Omnivox login page.
+	 */
+	private static boolean isLoginPage(HtmlPage page) {
+		for (HtmlForm form : page.getForms()) {
+			if ("formLogin".equals(form.getNameAttribute())) {
+				return true;
+			}
+		}
+		return page.getUrl().getPath().contains("/Identification/Login/");
+	}
+
+	/**
+	 * Sets the store used to reuse the session after the process restarts. When it
+	 * is set, {@link #login} only logs in if the saved session has expired.
+	 * 
+	 * @param sessionStore The store or null to always log in
+	 */
+	public void setSessionStore(SessionStore sessionStore) {
+		this.sessionStore = sessionStore;
 	}
 
 	// Getters
+	public String getLoginUrl() {
+		return this.loginUrl;
+	}
+
+	/**
+	 * Gets the Omnivox host of the college. Ex: cmaisonneuve.omnivox.ca
+	 */
+	public String getHost() {
+		return this.loginUrl.substring("https://".length(), this.loginUrl.indexOf('/', "https://".length()));
+	}
+
 	public HtmlPage getHomePage() {
 		return this.homePage;
 	}
@@ -165,4 +1413,40 @@ public abstract class OmnivoxScraper {
 		return this.client;
 	}
 
+	public ReentrantLock getClientLock() {
+		return this.clientLock;
+	}
+
+	public PageCache getPageCache() {
+		return this.pageCache;
+	}
+
+	public FilteringWebConnection getResourceFilter() {
+		return this.resourceFilter;
+	}
+
+	public JavaScriptPolicy getJavaScriptPolicy() {
+		return this.javaScriptPolicy;
+	}
+
+	public ClientLifecycle getClientLifecycle() {
+		return this.clientLifecycle;
+	}
+
+	public CalendarModes getCalendarModes() {
+		return this.calendarModes;
+	}
+
+	public SessionStore getSessionStore() {
+		return this.sessionStore;
+	}
+
+	public int getFetchThreads() {
+		return this.fetchThreads;
+	}
+
+	public boolean isVirtualThreads() {
+		return this.virtualThreads;
+	}
+
 }
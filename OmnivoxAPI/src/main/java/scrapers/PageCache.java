@@ -0,0 +1,269 @@
+package scrapers;
+
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.gargoylesoftware.htmlunit.WebResponseData;
+
+/**
+ * This class holds the pages seen by the {@link CachingWebConnection} of the
+ * scraper's clients.
+ * 
+ * For every url, it keeps the validators sent by Omnivox (ETag and
+ * Last-Modified), a {@link BodyHash} of the body and the objects assembled from
+ * the page.
+ * When a page comes back unchanged, either with a 304 or with the same body,
+ * the assembled objects can be reused without assembling the page again.
+ * 
+ * The pages are only keyed by their url, so a cache belongs to a single scraper
+ * and can't be set on another one: the pages of a student are never given to
+ * another student. It is kept between the refreshes of its scraper. The pages
+ * with a body above the maximum size are not kept.
+ * This class is safe to use from many threads at the same time.
+ */
+public class PageCache {
+
+	/**
+	 * The default maximum size of a kept body in bytes.
+	 */
+	public static final int DEFAULT_MAX_BODY_SIZE = 1024 * 1024;
+
+	/**
+	 * The entry of every url seen.
+	 */
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+	/**
+	 * The maximum size of a kept body in bytes.
+	 */
+	private final int maxBodySize;
+
+	/**
+	 * The scraper using this cache or null if it isn't set on a scraper yet.
+	 */
+	private Object owner;
+
+	/**
+	 * The number of pages Omnivox answered with a 304 Not Modified.
+	 */
+	private final AtomicLong notModified = new AtomicLong();
+
+	/**
+	 * The number of pages downloaded again with the same body.
+	 */
+	private final AtomicLong identicalBodies = new AtomicLong();
+
+	/**
+	 * The number of pages downloaded with a new body.
+	 */
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * The number of times assembled objects were reused.
+	 */
+	private final AtomicLong assembledHits = new AtomicLong();
+
+	/**
+	 * The number of pages not kept since their body was too big.
+	 */
+	private final AtomicLong oversized = new AtomicLong();
+
+	/**
+	 * Constructor for a cache keeping the bodies up to
+	 * {@link #DEFAULT_MAX_BODY_SIZE}.
+	 */
+	public PageCache() {
+		this(DEFAULT_MAX_BODY_SIZE);
+	}
+
+	/**
+	 * Constructor for the Page Cache.
+	 * 
+	 * @param maxBodySize The maximum size of a kept body in bytes
+	 */
+	public PageCache(int maxBodySize) {
+		if (maxBodySize < 1) {
+			throw new IllegalArgumentException("The maximum body size must be at least 1");
+		}
+
+		this.maxBodySize = maxBodySize;
+	}
+
+	/**
+	 * Gets the objects assembled from the page the last time if the page hasn't
+	 * changed since.
+	 * 
+	 * @param url  The url of the page
+	 * @param type The type of the assembled objects. Ex: CourseDocument[].class
+	 * 
+	 * @return The assembled objects or null if the page has changed or wasn't
+	 *         assembled yet
+	 */
+	public <T> T getAssembled(URL url, Class<T> type) {
+		Entry entry = this.entries.get(url.toExternalForm());
+
+		if (entry == null || !entry.unchanged || !type.isInstance(entry.assembled)) {
+			return null;
+		}
+
+		this.assembledHits.incrementAndGet();
+		return type.cast(entry.assembled);
+	}
+
+	/**
+	 * Keeps the objects assembled from the page so they can be reused while the
+	 * page doesn't change.
+	 * 
+	 * Note: The assembled objects must be immutable since they are shared.
+	 * 
+	 * @param url       The url of the page
+	 * @param assembled The objects assembled from the page
+	 */
+	public void putAssembled(URL url, Object assembled) {
+		Entry entry = this.entries.get(url.toExternalForm());
+
+		if (entry != null) {
+			entry.assembled = assembled;
+		}
+	}
+
+	/**
+	 * Checks if the last response of the url was the same as the one before it.
+	 * 
+	 * @param url The url of the page
+	 */
+	public boolean isUnchanged(URL url) {
+		Entry entry = this.entries.get(url.toExternalForm());
+		return entry != null && entry.unchanged;
+	}
+
+	/**
+	 * Removes every page from the cache.
+	 */
+	public void clear() {
+		this.entries.clear();
+	}
+
+	// Package private methods used by the scraper and the connection
+	/**
+	 * Makes the scraper the only one using this cache.
+	 * 
+	 * @throws IllegalStateException If another scraper already uses it
+	 */
+	synchronized void claim(Object scraper) {
+		if (this.owner != null && this.owner != scraper) {
+			throw new IllegalStateException("The page cache is already used by another scraper");
+		}
+		this.owner = scraper;
+	}
+
+	Entry getEntry(URL url) {
+		return this.entries.get(url.toExternalForm());
+	}
+
+	/**
+	 * Marks the cached page as unchanged after a 304 Not Modified.
+	 */
+	void notModified(Entry entry) {
+		entry.unchanged = true;
+		this.notModified.incrementAndGet();
+	}
+
+	/**
+	 * Keeps a page that was downloaded and checks if its body has changed. A page
+	 * whose body is above the maximum size is removed instead.
+	 */
+	void store(URL url, String etag, String lastModified, long hash, WebResponseData data) {
+		String key = url.toExternalForm();
+
+		if (data.getBody().length > this.maxBodySize) {
+			this.entries.remove(key);
+			this.oversized.incrementAndGet();
+			return;
+		}
+
+		this.entries.compute(key, (k, previous) -> {
+			Entry entry = new Entry(etag, lastModified, hash, data);
+
+			if (previous != null && previous.hash == hash) {
+				// Same body, the assembled objects are still valid
+				entry.unchanged = true;
+				entry.assembled = previous.assembled;
+				this.identicalBodies.incrementAndGet();
+			} else {
+				this.misses.incrementAndGet();
+			}
+
+			return entry;
+		});
+	}
+
+	// Getters
+	public long getNotModified() {
+		return this.notModified.get();
+	}
+
+	public long getIdenticalBodies() {
+		return this.identicalBodies.get();
+	}
+
+	/**
+	 * Gets the number of pages that came back unchanged, with a 304 or the same
+	 * body.
+	 */
+	public long getHits() {
+		return this.notModified.get() + this.identicalBodies.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public long getAssembledHits() {
+		return this.assembledHits.get();
+	}
+
+	/**
+	 * Gets the number of pages not kept since their body was above the maximum
+	 * size.
+	 */
+	public long getOversized() {
+		return this.oversized.get();
+	}
+
+	public int getSize() {
+		return this.entries.size();
+	}
+
+	public int getMaxBodySize() {
+		return this.maxBodySize;
+	}
+
+	/**
+	 * Represents a page kept by the cache.
+	 */
+	static final class Entry {
+		final String etag;
+		final String lastModified;
+		final long hash;
+		final WebResponseData data;
+
+		/**
+		 * If the last response was the same as the one before it.
+		 */
+		volatile boolean unchanged = false;
+
+		/**
+		 * The objects assembled from this page.
+		 */
+		volatile Object assembled;
+
+		private Entry(String etag, String lastModified, long hash, WebResponseData data) {
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.hash = hash;
+			this.data = data;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package scrapers;
+
+/**
+ * This enum represents the kinds of pages loaded by an {@link OmnivoxScraper}.
+ * The {@link JavaScriptPolicy} uses it to know if JavaScript runs on a page.
+ */
+public enum PageType {
+
+	/**
+	 * The login page and the login form sent to it.
+	 */
+	LOGIN,
+
+	/**
+	 * The Omnivox home page with the calendar and the what's new section.
+	 */
+	HOME,
+
+	/**
+	 * The Lea page with the panel of every course.
+	 */
+	LEA,
+
+	/**
+	 * The document page of a course.
+	 */
+	DOCUMENTS,
+
+	/**
+	 * The assignment page of a course.
+	 */
+	ASSIGNMENTS
+}
@@ -0,0 +1,143 @@
+package scrapers;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.function.Consumer;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlElement;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+import profiles.CollegeProfile;
+import profiles.ProfileSource;
+
+/**
+ * This class extends the {@link OmnivoxScraper} class for any college described
+ * by a {@link CollegeProfile}. The XPaths of the buttons and the resource rules
+ * come from the current profile of its {@link ProfileSource}.
+ *
+ * The login url is read when the scraper is created, a new scraper is needed
+ * when it changes. The resource rules are installed again when a reloaded
+ * profile changes them.
+ */
+public class ProfileScraper extends OmnivoxScraper {
+
+	/**
+	 * Gives the current profile of the college.
+	 */
+	private final ProfileSource source;
+
+	/**
+	 * The profile whose resource rules are installed on the client.
+	 */
+	private CollegeProfile rulesProfile;
+
+	/**
+	 * Constructor for the Profile Scraper with its own new client.
+	 *
+	 * @param source Gives the current profile of the college
+	 */
+	public ProfileScraper(ProfileSource source) {
+		this(source, newClient());
+	}
+
+	/**
+	 * Constructor for the Profile Scraper using an existing client.
+	 *
+	 * @param source Gives the current profile of the college
+	 * @param client The client used to make the requests
+	 */
+	public ProfileScraper(ProfileSource source, WebClient client) {
+		this(source, getFirstProfile(source), client);
+	}
+
+	/**
+	 * Creates the scraper with the login url and the resource rules of the first
+	 * profile read.
+	 */
+	private ProfileScraper(ProfileSource source, CollegeProfile profile, WebClient client) {
+		super(profile.getLoginUrl(), client, profile.getResourceRules());
+
+		this.source = source;
+		this.rulesProfile = profile;
+	}
+
+	private static CollegeProfile getFirstProfile(ProfileSource source) {
+		if (source == null) {
+			throw new NullPointerException("Source is null");
+		}
+		return source.get();
+	}
+
+	/**
+	 * Gets the current profile and installs its resource rules if they changed.
+	 */
+	private synchronized CollegeProfile getProfile() {
+		CollegeProfile profile = this.source.get();
+
+		if (this.rulesProfile == null
+				|| !profile.getAllowedResources().equals(this.rulesProfile.getAllowedResources())
+				|| !profile.getDeniedResources().equals(this.rulesProfile.getDeniedResources())) {
+			setResourceRules(profile.getResourceRules());
+		}
+		this.rulesProfile = profile;
+
+		return profile;
+	}
+
+	@Override
+	public HtmlPage[] getDocumentPages() {
+		return fetchCoursePages(getProfile().getDocumentButton(), PageType.DOCUMENTS);
+	}
+
+	@Override
+	public HtmlPage[] getAssignmentPages() {
+		return fetchCoursePages(getProfile().getAssignmentButton(), PageType.ASSIGNMENTS);
+	}
+
+	@Override
+	public CoursePages getCoursePages() {
+		CollegeProfile profile = getProfile();
+		return fetchCoursePages(profile.getDocumentButton(), profile.getAssignmentButton());
+	}
+
+	@Override
+	public void streamDocumentPages(int capacity, Consumer<HtmlPage> consumer) {
+		streamCoursePages(getProfile().getDocumentButton(), PageType.DOCUMENTS, capacity, consumer);
+	}
+
+	@Override
+	public void streamAssignmentPages(int capacity, Consumer<HtmlPage> consumer) {
+		streamCoursePages(getProfile().getAssignmentButton(), PageType.ASSIGNMENTS, capacity, consumer);
+	}
+
+	@Override
+	public URL[] getDocumentUrls() {
+		return resolveCourseUrls(getProfile().getDocumentButton());
+	}
+
+	@Override
+	public URL[] getAssignmentUrls() {
+		return resolveCourseUrls(getProfile().getAssignmentButton());
+	}
+
+	@Override
+	protected String getWhatsNewXPath() {
+		return getProfile().getWhatsNew();
+	}
+
+	@Override
+	public void setLeaPage() {
+		try {
+			this.LeaPage = this.homePage.<HtmlElement>getFirstByXPath(getProfile().getLeaButton()).click();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	// Getters
+	public ProfileSource getSource() {
+		return this.source;
+	}
+
+}
@@ -0,0 +1,109 @@
+package scrapers;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * This class holds the rules used by a {@link FilteringWebConnection} to know
+ * which requests of the scraper's client are sent to Omnivox.
+ *
+ * A url is allowed if it matches an allow rule. Otherwise, it is denied if it
+ * matches a deny rule. Every url that matches no rule is allowed.
+ *
+ * The rules are regular expressions searched in the full url. Ex:
+ * "google-analytics\\.com" or "\\.woff2?$"
+ */
+public class ResourceRules {
+
+	/**
+	 * The patterns of the urls that are always sent.
+	 */
+	private final List<Pattern> allowed = new ArrayList<Pattern>();
+
+	/**
+	 * The patterns of the urls that are replaced by a stub.
+	 */
+	private final List<Pattern> denied = new ArrayList<Pattern>();
+
+	/**
+	 * Gets the rules shared by every Omnivox college.
+	 *
+	 * They deny the analytics, the trackers, the web fonts and the social widgets
+	 * since none of them are needed to read the pages. The calendar selector used
+	 * by the {@link assemblers.Assembler} is always allowed.
+	 *
+	 * @return A new set of rules that can be extended
+	 */
+	public static ResourceRules omnivox() {
+		return new ResourceRules()
+				// Needed to change the calendar mode
+				.allow("Webpart_Affichage_Selector\\.ashx")
+
+				// Analytics and trackers
+				.deny("google-analytics\\.com")
+				.deny("googletagmanager\\.com")
+				.deny("doubleclick\\.net")
+				.deny("hotjar\\.com")
+				.deny("newrelic\\.com|nr-data\\.net")
+				.deny("clarity\\.ms")
+
+				// Web fonts
+				.deny("fonts\\.googleapis\\.com|fonts\\.gstatic\\.com")
+				.deny("use\\.typekit\\.net")
+				.deny("\\.(woff2?|ttf|otf|eot)(\\?.*)?$")
+
+				// Social widgets and videos
+				.deny("facebook\\.(net|com)")
+				.deny("platform\\.twitter\\.com")
+				.deny("youtube\\.com/(iframe_api|embed)");
+	}
+
+	/**
+	 * Adds a pattern of urls that are always sent, even if they match a deny rule.
+	 *
+	 * @param regex The regular expression searched in the url
+	 *
+	 * @return These rules
+	 */
+	public ResourceRules allow(String regex) {
+		this.allowed.add(Pattern.compile(regex, Pattern.CASE_INSENSITIVE));
+		return this;
+	}
+
+	/**
+	 * Adds a pattern of urls that are replaced by a stub.
+	 *
+	 * @param regex The regular expression searched in the url
+	 *
+	 * @return These rules
+	 */
+	public ResourceRules deny(String regex) {
+		this.denied.add(Pattern.compile(regex, Pattern.CASE_INSENSITIVE));
+		return this;
+	}
+
+	/**
+	 * Checks if the request of the url can be sent.
+	 *
+	 * @param url The url of the request
+	 *
+	 * @return If the url is allowed
+	 */
+	public boolean isAllowed(URL url) {
+		String external = url.toExternalForm();
+
+		for (Pattern pattern : this.allowed) {
+			if (pattern.matcher(external).find())
+				return true;
+		}
+
+		for (Pattern pattern : this.denied) {
+			if (pattern.matcher(external).find())
+				return false;
+		}
+
+		return true;
+	}
+}
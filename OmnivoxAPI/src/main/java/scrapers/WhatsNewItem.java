@@ -0,0 +1,91 @@
+package scrapers;
+
+import java.net.URL;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import assemblers.TextNormalizer;
+
+/**
+ * This class represents an entry of the what's new section of the Omnivox home
+ * page. It is returned by {@link OmnivoxScraper#fetchWhatsNew()}.
+ *
+ * Ex: 3 new documents in Lea
+ *
+ * This class is Immutable and final.
+ */
+public final class WhatsNewItem {
+
+	/**
+	 * Finds the first number of the text.
+	 */
+	private static final Pattern number = Pattern.compile("\\d{1,9}");
+
+	/**
+	 * The text of the entry as shown on the home page.
+	 */
+	private final String text;
+
+	/**
+	 * The number of new things shown by the entry. It is 0 if the entry doesn't
+	 * show a number.
+	 */
+	private final int count;
+
+	/**
+	 * The page the entry leads to. It is null if the entry has no usable link.
+	 */
+	private final URL url;
+
+	/**
+	 * The only constructor for the What's New Item. The count is read from the
+	 * text.
+	 *
+	 * @param text The text of the entry
+	 * @param url  The link of the entry or null
+	 */
+	public WhatsNewItem(String text, URL url) {
+		if (text == null) {
+			throw new NullPointerException("Text is null");
+		}
+
+		this.text = TextNormalizer.clean(text);
+		this.url = url;
+
+		Matcher matcher = number.matcher(this.text);
+		this.count = matcher.find() ? Integer.parseInt(matcher.group()) : 0;
+	}
+
+	// Getters
+	public String getText() {
+		return this.text;
+	}
+
+	public int getCount() {
+		return this.count;
+	}
+
+	public URL getUrl() {
+		return this.url;
+	}
+
+	// Overrides
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof WhatsNewItem))
+			return false;
+
+		WhatsNewItem casted = (WhatsNewItem) obj;
+		return casted.text.equals(this.text) && String.valueOf(casted.url).equals(String.valueOf(this.url));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.text.hashCode() * 31 + String.valueOf(this.url).hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.text;
+	}
+}
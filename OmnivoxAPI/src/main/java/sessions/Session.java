@@ -0,0 +1,71 @@
+package sessions;
+
+import scrapers.OmnivoxScraper;
+
+/**
+ * This class represents a scraper leased from a {@link SessionPool} for a
+ * student.
+ * 
+ * The scraper uses a client owned by the pool. It needs to be given back by
+ * calling {@link #close()} once the student has been refreshed, so that the
+ * client can be reused by the next session.
+ * 
+ * @param <T> The type of scraper of the student's college
+ */
+public final class Session<T extends OmnivoxScraper> implements AutoCloseable {
+
+	/**
+	 * The pool the session was leased from.
+	 */
+	private final SessionPool pool;
+
+	/**
+	 * The student number the session was leased for.
+	 */
+	private final String studentNumber;
+
+	/**
+	 * The scraper built with the leased client.
+	 */
+	private final T scraper;
+
+	/**
+	 * Used to prevent giving the client back twice.
+	 */
+	private boolean released = false;
+
+	Session(SessionPool pool, String studentNumber, T scraper) {
+		this.pool = pool;
+		this.studentNumber = studentNumber;
+		this.scraper = scraper;
+	}
+
+	/**
+	 * Closes the worker clients of the scraper and gives its client back to the
+	 * pool. The scraper must not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (this.released)
+				return;
+			this.released = true;
+		}
+
+		this.scraper.closeWorkers();
+		this.pool.release(this);
+	}
+
+	// Getters
+	public String getStudentNumber() {
+		return this.studentNumber;
+	}
+
+	public T getScraper() {
+		return this.scraper;
+	}
+
+	public String getHost() {
+		return this.scraper.getHost();
+	}
+}
@@ -0,0 +1,275 @@
+package sessions;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import com.gargoylesoftware.htmlunit.TopLevelWindow;
+import com.gargoylesoftware.htmlunit.WebClient;
+
+import scrapers.CachingWebConnection;
+import scrapers.CalendarModes;
+import scrapers.OmnivoxScraper;
+
+/**
+ * This class is used to poll many student accounts without building a new
+ * {@link WebClient} for every one of them.
+ * 
+ * It leases {@link Session} objects holding a scraper built with a reused
+ * client. A client given back is kept for the same student so that their
+ * cookies are still there on the next lease. When no client is kept for a
+ * student, the least recently used idle client is recycled by clearing its
+ * cookies and windows.
+ * 
+ * The number of sessions leased at the same time is capped for every Omnivox
+ * host.
+ */
+public class SessionPool {
+
+	/**
+	 * The maximum number of sessions leased at the same time for a single host.
+	 */
+	private final int maxSessionsPerHost;
+
+	/**
+	 * The maximum number of clients kept while they are not leased.
+	 */
+	private final int maxIdleClients;
+
+	/**
+	 * Holds a semaphore for every host to cap the sessions leased on it.
+	 */
+	private final ConcurrentHashMap<String, Semaphore> hostPermits = new ConcurrentHashMap<String, Semaphore>();
+
+	/**
+	 * Holds the idle clients by student number. It is ordered from the least
+	 * recently given back to the most recently given back.
+	 */
+	private final LinkedHashMap<String, WebClient> idleClients = new LinkedHashMap<String, WebClient>();
+
+	/**
+	 * Remembers the calendar mode of every account. It is shared by the scrapers
+	 * of every session.
+	 */
+	private final CalendarModes calendarModes = new CalendarModes();
+
+	/**
+	 * If the pool was closed. The clients given back afterwards are closed instead
+	 * of being kept.
+	 */
+	private boolean closed = false;
+
+	/**
+	 * Constructor for the Session Pool.
+	 * 
+	 * @param maxSessionsPerHost The maximum number of sessions leased at the same
+	 *                           time for a single host
+	 * @param maxIdleClients     The maximum number of clients kept while they are
+	 *                           not leased
+	 */
+	public SessionPool(int maxSessionsPerHost, int maxIdleClients) {
+		if (maxSessionsPerHost < 1) {
+			throw new IllegalArgumentException("The maximum sessions per host must be at least 1");
+		}
+		if (maxIdleClients < 0) {
+			throw new IllegalArgumentException("The maximum idle clients can't be negative");
+		}
+
+		this.maxSessionsPerHost = maxSessionsPerHost;
+		this.maxIdleClients = maxIdleClients;
+	}
+
+	/**
+	 * Constructor for the Session Pool keeping as many idle clients as the sessions
+	 * allowed on a host.
+	 * 
+	 * @param maxSessionsPerHost The maximum number of sessions leased at the same
+	 *                           time for a single host
+	 */
+	public SessionPool(int maxSessionsPerHost) {
+		this(maxSessionsPerHost, maxSessionsPerHost);
+	}
+
+	/**
+	 * Leases a session for the given student.
+	 * 
+	 * This method blocks while the host of the scraper already has the maximum
+	 * number of sessions leased.
+	 * 
+	 * @param studentNumber The student the session is for
+	 * @param factory       Builds the scraper of the student's college with the
+	 *                      leased client. Ex: ChamplainScraper::new
+	 * 
+	 * @return The leased session
+	 * 
+	 * @throws InterruptedException If the thread is interrupted while waiting for
+	 *                              the host
+	 */
+	public <T extends OmnivoxScraper> Session<T> lease(String studentNumber, Function<WebClient, T> factory)
+			throws InterruptedException {
+
+		if (studentNumber == null) {
+			throw new NullPointerException("Student Number is null");
+		}
+
+		WebClient client = takeClient(studentNumber);
+		T scraper = factory.apply(client);
+		scraper.setCalendarModes(this.calendarModes);
+
+		try {
+			getPermits(scraper.getHost()).acquire();
+		} catch (InterruptedException e) {
+			giveBack(studentNumber, client);
+			throw e;
+		}
+
+		return new Session<T>(this, studentNumber, scraper);
+	}
+
+	/**
+	 * Gives the client of the session back to the pool and frees its host.
+	 * 
+	 * @param session The session to release
+	 */
+	void release(Session<?> session) {
+		getPermits(session.getHost()).release();
+		giveBack(session.getStudentNumber(), session.getScraper().getClient());
+	}
+
+	/**
+	 * Closes every idle client. The clients of leased sessions are closed when
+	 * they are given back.
+	 */
+	public void close() {
+		synchronized (this.idleClients) {
+			this.closed = true;
+
+			for (WebClient client : this.idleClients.values()) {
+				client.close();
+			}
+			this.idleClients.clear();
+		}
+	}
+
+	public CalendarModes getCalendarModes() {
+		return this.calendarModes;
+	}
+
+	/**
+	 * Gets the number of idle clients kept by the pool.
+	 */
+	public int getIdleClients() {
+		synchronized (this.idleClients) {
+			return this.idleClients.size();
+		}
+	}
+
+	/**
+	 * Gets the number of sessions currently leased on the host.
+	 * 
+	 * @param host The Omnivox host. Ex: cmaisonneuve.omnivox.ca
+	 */
+	public int getLeasedSessions(String host) {
+		return this.maxSessionsPerHost - getPermits(host).availablePermits();
+	}
+
+	/**
+	 * Gets the client kept for the student, recycles the least recently used idle
+	 * client or creates a new one.
+	 */
+	private WebClient takeClient(String studentNumber) {
+		WebClient client;
+
+		synchronized (this.idleClients) {
+
+			// Checking if the student's own client is kept
+			client = this.idleClients.remove(studentNumber);
+			if (client != null) {
+				return client;
+			}
+
+			// Recycling the least recently used client
+			Iterator<Map.Entry<String, WebClient>> iterator = this.idleClients.entrySet().iterator();
+			if (iterator.hasNext()) {
+				client = iterator.next().getValue();
+				iterator.remove();
+			}
+		}
+
+		if (client == null) {
+			return OmnivoxScraper.newClient();
+		}
+
+		recycle(client);
+		return client;
+	}
+
+	/**
+	 * Keeps the client for the student or closes it if the pool is full.
+	 */
+	private void giveBack(String studentNumber, WebClient client) {
+		WebClient removed = null;
+
+		synchronized (this.idleClients) {
+			if (this.closed || this.maxIdleClients == 0) {
+				removed = client;
+			} else {
+				// Replacing the client already kept for this student
+				removed = this.idleClients.put(studentNumber, client);
+
+				// The same client given back twice is still kept
+				if (removed == client) {
+					removed = null;
+				}
+
+				// Removing the least recently used client if there are too many
+				if (removed == null && this.idleClients.size() > this.maxIdleClients) {
+					Iterator<WebClient> iterator = this.idleClients.values().iterator();
+					removed = iterator.next();
+					iterator.remove();
+				}
+			}
+		}
+
+		if (removed != null) {
+			removed.close();
+		}
+	}
+
+	/**
+	 * Removes everything left by the previous student from the client while
+	 * keeping its JavaScript engine, connections and SSL context. The page cache
+	 * of the previous student is removed with the resources cached by HtmlUnit,
+	 * so their validators and pages are never used for the next student.
+	 */
+	private static void recycle(WebClient client) {
+		client.getCookieManager().clearCookies();
+		CachingWebConnection.remove(client);
+		client.getCache().clear();
+
+		// Closing the windows opened by the previous student
+		List<TopLevelWindow> windows = client.getTopLevelWindows();
+		while (windows.size() > 1) {
+			windows.get(1).close();
+		}
+
+		// Releasing the last page of the previous student
+		try {
+			client.getPage("about:blank");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Gets the semaphore of the host or creates it.
+	 */
+	private Semaphore getPermits(String host) {
+		return this.hostPermits.computeIfAbsent(host, key -> new Semaphore(this.maxSessionsPerHost, true));
+	}
+}
@@ -0,0 +1,165 @@
+package sessions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * This class is used to keep the Omnivox sessions on the local disk so they can
+ * be reused after the process restarts.
+ * 
+ * Every student has their own file in the directory of the store. The file name
+ * is a hash of the student number so the directory doesn't list them.
+ * 
+ * Note: The files hold the session cookies of the students. The directory should
+ * only be readable by the user running the scraper.
+ */
+public class SessionStore {
+
+	/**
+	 * The only classes read from a session file: the session, its set of cookies
+	 * and what HtmlUnit keeps in a cookie. Anything else is rejected before it is
+	 * created.
+	 */
+	private static final ObjectInputFilter sessionFilter = ObjectInputFilter.Config
+			.createFilter("maxdepth=10;maxrefs=10000;maxbytes=1048576;maxarray=4096;"
+					+ "sessions.StoredSession;java.util.HashSet;java.util.HashMap;java.util.Map$Entry;java.util.Date;java.lang.String;"
+					+ "com.gargoylesoftware.htmlunit.util.Cookie;"
+					+ "org.apache.http.impl.cookie.BasicClientCookie;org.apache.http.impl.cookie.BasicClientCookie2;"
+					+ "!*");
+
+	/**
+	 * The directory holding the session files.
+	 */
+	private final Path directory;
+
+	/**
+	 * The only constructor for the Session Store.
+	 * 
+	 * @param directory The directory holding the session files. It will be created
+	 *                  if it doesn't exist.
+	 */
+	public SessionStore(Path directory) {
+		if (directory == null) {
+			throw new NullPointerException("Directory is null");
+		}
+
+		this.directory = directory;
+	}
+
+	/**
+	 * Saves the session of the student and replaces the one already saved.
+	 * 
+	 * @param studentNumber The student the session belongs to
+	 * @param session       The session to save
+	 */
+	public void save(String studentNumber, StoredSession session) {
+		try {
+			Files.createDirectories(this.directory);
+
+			// Writing to a temporary file first so a crash never leaves a broken session
+			Path file = getFile(studentNumber);
+			Path temporary = Files.createTempFile(this.directory, "session", ".tmp");
+
+			try {
+				restrictPermissions(temporary);
+
+				try (OutputStream out = Files.newOutputStream(temporary);
+						ObjectOutputStream objects = new ObjectOutputStream(out)) {
+					objects.writeObject(session);
+				}
+
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temporary);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Loads the session of the student.
+	 * 
+	 * @param studentNumber The student the session belongs to
+	 * 
+	 * @return The saved session or null if none was saved or it couldn't be read
+	 */
+	public StoredSession load(String studentNumber) {
+		Path file = getFile(studentNumber);
+
+		if (!Files.exists(file)) {
+			return null;
+		}
+
+		try (InputStream in = Files.newInputStream(file); ObjectInputStream objects = new ObjectInputStream(in)) {
+			objects.setObjectInputFilter(sessionFilter);
+			return (StoredSession) objects.readObject();
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// An unreadable session is the same as no session
+			delete(studentNumber);
+			return null;
+		}
+	}
+
+	/**
+	 * Deletes the session of the student. Used when the session has expired.
+	 * 
+	 * @param studentNumber The student the session belongs to
+	 */
+	public void delete(String studentNumber) {
+		try {
+			Files.deleteIfExists(getFile(studentNumber));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Gets the file of the student's session.
+	 */
+	private Path getFile(String studentNumber) {
+		if (studentNumber == null) {
+			throw new NullPointerException("Student Number is null");
+		}
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest(studentNumber.getBytes(StandardCharsets.UTF_8));
+
+			StringBuilder name = new StringBuilder();
+			for (byte b : hash) {
+				name.append(String.format("%02x", b));
+			}
+
+			return this.directory.resolve(name.append(".session").toString());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Makes the file readable only by its owner when the file system allows it.
+	 */
+	private static void restrictPermissions(Path file) {
+		try {
+			Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+		} catch (UnsupportedOperationException | IOException e) {
+			// Not a POSIX file system
+		}
+	}
+
+	public Path getDirectory() {
+		return this.directory;
+	}
+}
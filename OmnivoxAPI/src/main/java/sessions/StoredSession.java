@@ -0,0 +1,76 @@
+package sessions;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.gargoylesoftware.htmlunit.util.Cookie;
+
+/**
+ * This class represents an Omnivox session saved by a {@link SessionStore}.
+ * 
+ * It holds the cookies of the client and the urls of the pages reached after
+ * logging in, so they can be opened again without logging in.
+ * 
+ * This class is Immutable and final.
+ */
+public final class StoredSession implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The cookies of the client when the session was saved.
+	 */
+	private final HashSet<Cookie> cookies;
+
+	/**
+	 * The url of the Omnivox home page.
+	 */
+	private final String homeUrl;
+
+	/**
+	 * The url of the Lea page. It is null if it wasn't reached yet.
+	 */
+	private final String leaUrl;
+
+	/**
+	 * The time the session was saved in milliseconds.
+	 */
+	private final long savedTime;
+
+	/**
+	 * The only constructor for the Stored Session.
+	 * 
+	 * @param cookies The cookies of the client
+	 * @param homeUrl The url of the Omnivox home page
+	 * @param leaUrl  The url of the Lea page or null
+	 */
+	public StoredSession(Set<Cookie> cookies, String homeUrl, String leaUrl) {
+		if (homeUrl == null) {
+			throw new NullPointerException("Home Url is null");
+		}
+
+		this.cookies = new HashSet<Cookie>(cookies);
+		this.homeUrl = homeUrl;
+		this.leaUrl = leaUrl;
+		this.savedTime = System.currentTimeMillis();
+	}
+
+	// Getters
+	public Set<Cookie> getCookies() {
+		return Collections.unmodifiableSet(this.cookies);
+	}
+
+	public String getHomeUrl() {
+		return this.homeUrl;
+	}
+
+	public String getLeaUrl() {
+		return this.leaUrl;
+	}
+
+	public long getSavedTime() {
+		return this.savedTime;
+	}
+}
@@ -0,0 +1,143 @@
+package students;
+
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import scrapers.BodyHash;
+
+/**
+ * This class holds the fingerprint of every course page assembled for a
+ * {@link Student}. A fingerprint is the {@link BodyHash} of the page's body
+ * with the objects assembled from it.
+ *
+ * When a page is fetched again with the same body, the {@link StudentManager}
+ * reuses the assembled objects instead of assembling the page again. Unlike the
+ * PageCache, it doesn't need Omnivox to answer conditional requests.
+ *
+ * This class is safe to use from many threads at the same time.
+ */
+public class PageFingerprints {
+
+	/**
+	 * The fingerprint of every url assembled.
+	 */
+	private final ConcurrentHashMap<String, Fingerprint> fingerprints = new ConcurrentHashMap<String, Fingerprint>();
+
+	/**
+	 * The number of pages checked against their fingerprint.
+	 */
+	private final AtomicLong checked = new AtomicLong();
+
+	/**
+	 * The number of pages whose assembly was skipped.
+	 */
+	private final AtomicLong skipped = new AtomicLong();
+
+	/**
+	 * The time spent assembling the pages that changed, in nanoseconds.
+	 */
+	private final AtomicLong assembleNanos = new AtomicLong();
+
+	/**
+	 * The time the skipped pages took to assemble the last time, in nanoseconds.
+	 */
+	private final AtomicLong savedNanos = new AtomicLong();
+
+	/**
+	 * Gets the objects assembled from the page the last time if its body has the
+	 * same hash.
+	 *
+	 * @param url  The url of the page
+	 * @param hash The {@link BodyHash} of the body just fetched
+	 * @param type The type of the assembled objects. Ex: CourseDocument[].class
+	 *
+	 * @return The assembled objects or null if the page has changed or wasn't
+	 *         assembled yet
+	 */
+	public <T> T get(URL url, long hash, Class<T> type) {
+		this.checked.incrementAndGet();
+
+		Fingerprint fingerprint = this.fingerprints.get(url.toExternalForm());
+
+		if (fingerprint == null || fingerprint.hash != hash || !type.isInstance(fingerprint.assembled)) {
+			return null;
+		}
+
+		this.skipped.incrementAndGet();
+		this.savedNanos.addAndGet(fingerprint.nanos);
+		return type.cast(fingerprint.assembled);
+	}
+
+	/**
+	 * Keeps the objects assembled from the page with the hash of its body.
+	 *
+	 * Note: The assembled objects must be immutable since they are shared.
+	 *
+	 * @param url       The url of the page
+	 * @param hash      The {@link BodyHash} of the body
+	 * @param assembled The objects assembled from the page
+	 * @param nanos     The time it took to assemble the page in nanoseconds
+	 */
+	public void put(URL url, long hash, Object assembled, long nanos) {
+		this.assembleNanos.addAndGet(nanos);
+		this.fingerprints.put(url.toExternalForm(), new Fingerprint(hash, assembled, nanos));
+	}
+
+	/**
+	 * Removes every fingerprint.
+	 */
+	public void clear() {
+		this.fingerprints.clear();
+	}
+
+	// Getters
+	public long getChecked() {
+		return this.checked.get();
+	}
+
+	public long getSkipped() {
+		return this.skipped.get();
+	}
+
+	/**
+	 * Gets the part of the checked pages whose assembly was skipped, between 0 and
+	 * 1.
+	 */
+	public double getSkipRate() {
+		long checked = this.checked.get();
+		return checked == 0 ? 0 : this.skipped.get() / (double) checked;
+	}
+
+	public long getAssembleNanos() {
+		return this.assembleNanos.get();
+	}
+
+	/**
+	 * Gets the time saved by skipping the assembly of unchanged pages in
+	 * nanoseconds. It is the time the skipped pages took to assemble the last
+	 * time they changed.
+	 */
+	public long getSavedNanos() {
+		return this.savedNanos.get();
+	}
+
+	public int getSize() {
+		return this.fingerprints.size();
+	}
+
+	/**
+	 * Represents a page that was assembled.
+	 */
+	private static final class Fingerprint {
+		private final long hash;
+		private final Object assembled;
+		private final long nanos;
+
+		private Fingerprint(long hash, Object assembled, long nanos) {
+			this.hash = hash;
+			this.assembled = assembled;
+			this.nanos = nanos;
+		}
+	}
+}
@@ -3,6 +3,7 @@ package students;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 
 import courses.CalendarEvent;
 import courses.Course;
@@ -48,6 +49,11 @@ public class Student {
 	 */
 	private final ArrayList<CalendarEvent> calandar = new ArrayList<CalendarEvent>();
 
+	/**
+	 * The same events as the calendar, to find the ones it already has.
+	 */
+	private final HashSet<CalendarEvent> calandarEvents = new HashSet<CalendarEvent>();
+
 	/**
 	 * Adds the following key and course to the Student's courses.
 	 * 
@@ -117,9 +123,36 @@ public class Student {
 		// Checking if the object has not already passed
 		if (event.getDate().getTime() >= System.currentTimeMillis() - 86400000L) { // Milliseconds in a day
 			this.calandar.add(event);
+			this.calandarEvents.add(event);
 		}
 	}
 
+	/**
+	 * This method adds the CalendarEvent object to the calendar unless the calendar
+	 * already has the same event.
+	 * 
+	 * Unlike {@link #assignCalendarEvent}, the events that have already passed are
+	 * kept since they were asked for with a range of dates.
+	 * 
+	 * @param event Calendar Event to be added
+	 * 
+	 * @return If the event was added
+	 */
+	public boolean mergeCalendarEvent(CalendarEvent event) {
+
+		// Simple check
+		if (event == null) {
+			throw new NullPointerException("CalandarEvent recieved is null");
+		}
+
+		// The same event can be shown by two calendar views
+		if (!this.calandarEvents.add(event)) {
+			return false;
+		}
+
+		return this.calandar.add(event);
+	}
+
 	/**
 	 * Gets all of the documents by date in the course.
 	 * 
@@ -1,13 +1,37 @@
 package students;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
 
 import assemblers.Assembler;
+import assemblers.ParallelAssembly;
 import courses.CalendarEvent;
 import courses.Course;
 import courses.CourseAssignment;
 import courses.CourseDocument;
+import downloads.Attachment;
+import downloads.AttachmentDownloader;
+import downloads.DownloadStatus;
+import engines.Engine;
+import engines.RawHttpEngine;
+import engines.RawPage;
+import scrapers.BodyHash;
+import scrapers.CoursePages;
 import scrapers.OmnivoxScraper;
+import scrapers.PageCache;
 
 /**
  * This class is used to bind the {@link Assembler}, the {@link Student} and the
@@ -31,10 +55,29 @@ public class StudentManager {
 	 */
 	private final Student student;
 
+	/**
+	 * The object used to choose how the data is collected.
+	 */
+	private final StudentManagerConfiguration configuration;
+
+	/**
+	 * The fingerprints of the course pages assembled for the student.
+	 */
+	private final PageFingerprints fingerprints = new PageFingerprints();
+
 	public StudentManager(OmnivoxScraper scraper, Assembler assembler, Student student) {
+		this(scraper, assembler, student, new StudentManagerConfiguration());
+	}
+
+	public StudentManager(OmnivoxScraper scraper, Assembler assembler, Student student,
+			StudentManagerConfiguration configuration) {
 		this.scraper = scraper;
 		this.assembler = assembler;
 		this.student = student;
+		this.configuration = configuration;
+
+		// The managers of the same configuration share the calendar modes
+		scraper.setCalendarModes(configuration.getCalendarModes());
 	}
 	
 	/**
@@ -42,7 +85,7 @@ public class StudentManager {
 	 * */
 	public void login(String studentNumber, String password) {
 		scraper.login(studentNumber, password);
-		scraper.setLeaPage();
+		scraper.loadLeaPage();
 	}
 
 	/**
@@ -51,7 +94,123 @@ public class StudentManager {
 	 * to the student.
 	 */
 	public void getDocuments() {
+		// Using the lightweight engine if it was chosen
+		if (this.configuration.getEngine() == Engine.RAW_HTTP) {
+			URL[] urls = scraper.getDocumentUrls();
+
+			// The buttons without a usable link can only be clicked by HtmlUnit
+			if (!Arrays.asList(urls).contains(null)) {
+				getRawDocuments(urls);
+				return;
+			}
+		}
+
+		// Assembling every page as soon as it is fetched
+		if (this.configuration.getPipelineCapacity() > 0) {
+			scraper.streamDocumentPages(this.configuration.getPipelineCapacity(), page -> {
+				// Page is non null
+				if (page == null) {
+					throw new NullPointerException("Document Page is null");
+				}
+
+				addDocuments(assembleDocuments(page));
+			});
+			return;
+		}
+
 		// Get all documents
+		for (CourseDocument[] assembled : assembleDocuments(scraper.getDocumentPages())) {
+			addDocuments(assembled);
+		}
+	}
+
+	/**
+	 * This method calls the scraper's {@link OmnivoxScraper#getAssignmentPages}
+	 * method. It then feeds it to the assembler. Finally it adds the assembled data
+	 * to the student.
+	 */
+	public void getAssignments() {
+		// Using the lightweight engine if it was chosen
+		if (this.configuration.getEngine() == Engine.RAW_HTTP) {
+			URL[] urls = scraper.getAssignmentUrls();
+
+			// The buttons without a usable link can only be clicked by HtmlUnit
+			if (!Arrays.asList(urls).contains(null)) {
+				getRawAssignments(urls);
+				return;
+			}
+		}
+
+		// Assembling every page as soon as it is fetched
+		if (this.configuration.getPipelineCapacity() > 0) {
+			scraper.streamAssignmentPages(this.configuration.getPipelineCapacity(), page -> {
+				// Page is non null
+				if (page == null) {
+					throw new NullPointerException("Document Page is null");
+				}
+
+				addAssignments(assembleAssignments(page));
+			});
+			return;
+		}
+
+		// Get all assignments
+		for (CourseAssignment[] assembled : assembleAssignments(scraper.getAssignmentPages())) {
+			addAssignments(assembled);
+		}
+	}
+
+	/**
+	 * This method gets the documents and the assignments of every course with a
+	 * single walk of the Lea page by calling the scraper's
+	 * {@link OmnivoxScraper#getCoursePages} method. It then feeds the pages to the
+	 * assembler and adds the assembled data to the student.
+	 */
+	public void getCourses() {
+		// Both walks reuse the links the scraper found on the Lea page
+		if (this.configuration.getEngine() == Engine.RAW_HTTP || this.configuration.getPipelineCapacity() > 0) {
+			getDocuments();
+			getAssignments();
+			scraper.releasePages();
+			return;
+		}
+
+		CoursePages pages = scraper.getCoursePages();
+
+		for (CourseDocument[] assembled : assembleDocuments(pages.getDocumentPages())) {
+			addDocuments(assembled);
+		}
+
+		for (CourseAssignment[] assembled : assembleAssignments(pages.getAssignmentPages())) {
+			addAssignments(assembled);
+		}
+
+		// The course pages are not needed anymore
+		scraper.releasePages();
+	}
+
+	/**
+	 * Gets everything the student has in a single pass: the documents and the
+	 * assignments of every course, then the calendar events. The windows opened
+	 * for the course pages are closed once they are assembled.
+	 */
+	public void refresh() {
+		getCourses();
+		getCalendarEvents();
+	}
+
+	/**
+	 * This method calls the scraper's {@link OmnivoxScraper#getDocumentPages}
+	 * method and feeds the pages to the assembler to find the attached files. The
+	 * files are then downloaded at the same time by the downloader.
+	 * 
+	 * @param downloader The downloader saving the files
+	 * 
+	 * @return What was done with every attachment
+	 */
+	public DownloadStatus[] downloadAttachments(AttachmentDownloader downloader) {
+		ArrayList<Attachment> attachments = new ArrayList<Attachment>();
+
 		for (HtmlPage page : scraper.getDocumentPages()) {
 
 			// Page is non null
@@ -59,46 +218,539 @@ public class StudentManager {
 				throw new NullPointerException("Document Page is null");
 			}
 
-			CourseDocument[] assembled = assembler.assembleDocuments(page);
+			attachments.addAll(Arrays.asList(assembler.assembleAttachments(page)));
+		}
+
+		scraper.releasePages();
+		return downloader.download(attachments.toArray(new Attachment[0]));
+	}
+
+	public void getCalendarEvents() {
+		CalendarEvent[] events;
+
+		// The assembler can reload the home page with the client
+		scraper.getClientLock().lock();
+		try {
+			events = assembler.assembleCalendarEvents(scraper.getCalendarHomePage());
+		} finally {
+			scraper.getClientLock().unlock();
+		}
+
+		synchronized (student) {
+			for (CalendarEvent event : events) {
+				student.assignCalendarEvent(event);
+			}
+		}
+	}
+
+	/**
+	 * This method gets the calendar events between two dates. The scraper fetches
+	 * a calendar view for every month of the range at the same time and every
+	 * view is assembled with its own year. The events are merged into the
+	 * student's calendar without duplicates.
+	 * 
+	 * Every view is checked to show its month, so a college whose Omnivox ignores
+	 * the link of {@link scrapers.OmnivoxScraper#getCalendarUrl} fails instead of
+	 * giving the current month again for every month.
+	 * 
+	 * @param from The first date of the range
+	 * @param to   The last date of the range
+	 * 
+	 * @return The number of events added to the calendar
+	 * 
+	 * @throws IllegalStateException If a view shows events of another month
+	 */
+	public int getCalendarEvents(Date from, Date to) {
+		if (from == null || to == null) {
+			throw new NullPointerException("Range is null");
+		}
+		if (from.after(to)) {
+			throw new IllegalArgumentException("The range ends before it starts");
+		}
+
+		Date[] views = getCalendarViews(from, to);
+		HtmlPage[] pages = scraper.getCalendarPages(views);
+
+		// Every view is checked before any event is added
+		CalendarEvent[][] viewEvents = new CalendarEvent[pages.length][];
 
-			// Checking if the array is not length 0 or non null
-			if (assembled == null || assembled.length == 0)
+		for (int i = 0; i < pages.length; i++) {
+
+			// The view couldn't be fetched
+			if (pages[i] == null) {
+				viewEvents[i] = new CalendarEvent[0];
 				continue;
+			}
 
-			String courseName = assembled[0].getCourseName();
+			viewEvents[i] = assembler.assembleCalendarEvents(pages[i], views[i]);
+			checkCalendarView(viewEvents[i], views[i]);
+		}
 
-			// Assuming this is the first method called
-			student.addCourse(courseName, new Course(courseName));
+		int added = 0;
 
-			// Adding the course documents
-			for (CourseDocument doc : assembled) {
-				student.assignDocument(courseName, doc);
+		synchronized (student) {
+			for (CalendarEvent[] events : viewEvents) {
+				for (CalendarEvent event : events) {
+					if (event == null || event.getDate().before(from) || event.getDate().after(to))
+						continue;
+
+					if (student.mergeCalendarEvent(event))
+						added++;
+				}
 			}
 		}
+
+		return added;
 	}
-	
+
 	/**
-	 * This method calls the scraper's {@link OmnivoxScraper#getAssignmentPages}
-	 * method. It then feeds it to the assembler. Finally it adds the assembled data
-	 * to the student.
+	 * Checks that the events of a view are in its month. A week before and after
+	 * are allowed for the days of the other months a calendar can show around it.
+	 * An empty view can't be checked.
 	 */
-	public void getAssignments() {
-		// Get all assignments
-		for (HtmlPage page : scraper.getAssignmentPages()) {
+	private static void checkCalendarView(CalendarEvent[] events, Date view) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(view);
+		calendar.add(Calendar.DAY_OF_MONTH, -7);
+		Date start = calendar.getTime();
+
+		calendar.setTime(view);
+		calendar.add(Calendar.MONTH, 1);
+		calendar.add(Calendar.DAY_OF_MONTH, 7);
+		Date end = calendar.getTime();
+
+		for (CalendarEvent event : events) {
+			if (event != null && (event.getDate().before(start) || !event.getDate().before(end))) {
+				throw new IllegalStateException("The calendar view of "
+						+ new SimpleDateFormat("yyyy-MM").format(view) + " shows an event of "
+						+ new SimpleDateFormat("yyyy-MM-dd").format(event.getDate())
+						+ ", Omnivox didn't move the calendar to the month");
+			}
+		}
+	}
+
+	/**
+	 * Gets the first day of every month between the two dates.
+	 */
+	private static Date[] getCalendarViews(Date from, Date to) {
+		ArrayList<Date> views = new ArrayList<Date>();
+
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(from);
+		calendar.set(Calendar.DAY_OF_MONTH, 1);
+		calendar.set(Calendar.HOUR_OF_DAY, 0);
+		calendar.set(Calendar.MINUTE, 0);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+
+		while (!calendar.getTime().after(to)) {
+			views.add(calendar.getTime());
+			calendar.add(Calendar.MONTH, 1);
+		}
+
+		return views.toArray(new Date[0]);
+	}
+
+	/**
+	 * Calls {@link #login} on the executor without blocking.
+	 * 
+	 * @param executor The executor running the login
+	 * 
+	 * @return The future completed once the student is logged in
+	 */
+	public CompletableFuture<Void> loginAsync(String studentNumber, String password, Executor executor) {
+		return runAsync(done(), () -> login(studentNumber, password), null, executor);
+	}
+
+	/**
+	 * Calls {@link #getDocuments} on the executor without blocking.
+	 * 
+	 * @param executor The executor getting the documents
+	 * 
+	 * @return The future completed with the student once the documents are added.
+	 *         Cancelling it interrupts the thread getting the documents.
+	 */
+	public CompletableFuture<Student> getDocumentsAsync(Executor executor) {
+		return runAsync(done(), this::getDocuments, this.student, executor);
+	}
+
+	/**
+	 * Calls {@link #getAssignments} on the executor without blocking.
+	 * 
+	 * @param executor The executor getting the assignments
+	 * 
+	 * @return The future completed with the student once the assignments are
+	 *         added. Cancelling it interrupts the thread getting the assignments.
+	 */
+	public CompletableFuture<Student> getAssignmentsAsync(Executor executor) {
+		return runAsync(done(), this::getAssignments, this.student, executor);
+	}
+
+	/**
+	 * Calls {@link #getCalendarEvents} on the executor without blocking.
+	 * 
+	 * @param executor The executor getting the calendar events
+	 * 
+	 * @return The future completed with the student once the calendar events are
+	 *         added. Cancelling it interrupts the thread getting the events.
+	 */
+	public CompletableFuture<Student> getCalendarEventsAsync(Executor executor) {
+		return runAsync(done(), this::getCalendarEvents, this.student, executor);
+	}
+
+	/**
+	 * Logs in, then gets the documents, the assignments and the calendar events at
+	 * the same time on the executor. Nothing blocks the calling thread.
+	 * 
+	 * Note: The executor needs at least 3 threads for the stages to run at the
+	 * same time. The pages of the logged in client are still loaded one at a time,
+	 * so the course pages should be fetched with more than one fetch thread or the
+	 * raw http engine.
+	 * 
+	 * @param executor The executor running every stage
+	 * 
+	 * @return The futures of every stage
+	 */
+	public StudentRefresh refreshAsync(String studentNumber, String password, Executor executor) {
+		return startRefresh(loginAsync(studentNumber, password, executor), executor);
+	}
+
+	/**
+	 * Gets the documents, the assignments and the calendar events at the same time
+	 * on the executor. The student needs to be logged in already.
+	 * 
+	 * @param executor The executor running every stage
+	 * 
+	 * @return The futures of every stage
+	 */
+	public StudentRefresh refreshAsync(Executor executor) {
+		return startRefresh(done(), executor);
+	}
+
+	/**
+	 * Starts the stages of a refresh once the login is done.
+	 */
+	private StudentRefresh startRefresh(CompletableFuture<Void> login, Executor executor) {
+		CompletableFuture<Student> documents = runAsync(login, this::getDocuments, this.student, executor);
+		CompletableFuture<Student> assignments = runAsync(login, this::getAssignments, this.student, executor);
+		CompletableFuture<Student> calendarEvents = runAsync(login, this::getCalendarEvents, this.student, executor);
+
+		CompletableFuture<Student> all = new CompletableFuture<Student>();
+
+		// Failing as soon as a stage fails, the refresh then cancels the others
+		for (CompletableFuture<Student> stage : Arrays.asList(documents, assignments, calendarEvents)) {
+			stage.whenComplete((value, error) -> {
+				if (error != null) {
+					all.completeExceptionally(error);
+				}
+			});
+		}
+
+		// Closing the windows of the course pages once every stage is done
+		CompletableFuture.allOf(documents, assignments, calendarEvents).thenRun(() -> {
+			scraper.releasePages();
+			all.complete(this.student);
+		});
+
+		return new StudentRefresh(login, documents, assignments, calendarEvents, all);
+	}
+
+	/**
+	 * Runs the task on the executor once the previous future is done.
+	 * 
+	 * If the previous future fails, the task isn't run and the returned future
+	 * fails the same way. If the returned future is cancelled while the task runs,
+	 * its thread is interrupted.
+	 * 
+	 * @param previous The future to wait for
+	 * @param task     The blocking task
+	 * @param result   The value of the returned future once the task is done
+	 * @param executor The executor running the task
+	 * 
+	 * @return The future of the task
+	 */
+	private static <T> CompletableFuture<T> runAsync(CompletableFuture<?> previous, Runnable task, T result,
+			Executor executor) {
+
+		if (executor == null) {
+			throw new NullPointerException("Executor is null");
+		}
+
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		Thread[] runner = new Thread[1];
+
+		// Interrupting the task if it is cancelled while it runs
+		future.whenComplete((value, error) -> {
+			if (future.isCancelled()) {
+				synchronized (runner) {
+					if (runner[0] != null) {
+						runner[0].interrupt();
+					}
+				}
+			}
+		});
+
+		previous.whenComplete((value, error) -> {
+			if (error != null) {
+				future.completeExceptionally(error);
+				return;
+			}
+
+			try {
+				executor.execute(() -> {
+					synchronized (runner) {
+						if (future.isDone())
+							return;
+						runner[0] = Thread.currentThread();
+					}
+
+					try {
+						task.run();
+						future.complete(result);
+					} catch (Throwable e) {
+						future.completeExceptionally(e);
+					} finally {
+						// Not leaving the thread of the executor interrupted
+						synchronized (runner) {
+							runner[0] = null;
+							Thread.interrupted();
+						}
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				future.completeExceptionally(e);
+			}
+		});
+
+		return future;
+	}
+
+	/**
+	 * Gets a future that is already done.
+	 */
+	private static CompletableFuture<Void> done() {
+		return CompletableFuture.completedFuture(null);
+	}
+
+	/**
+	 * Gets the documents with the {@link RawHttpEngine} from the urls resolved by
+	 * the scraper.
+	 */
+	private void getRawDocuments(URL[] urls) {
+		RawHttpEngine engine = new RawHttpEngine(scraper.getClient(), assembler.getRawLayout());
+
+		for (URL url : urls) {
+			RawPage page = null;
+
+			try {
+				page = engine.fetchDocumentPage(url);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
 
 			// Page is non null
 			if (page == null) {
 				throw new NullPointerException("Document Page is null");
 			}
 
-			CourseAssignment[] assembled = assembler.assembleAssignments(page);
+			addDocuments(assembler.assembleDocuments(page));
+		}
+	}
 
-			// Checking if the array is not length 0
-			if (assembled == null || assembled.length == 0)
-				continue;
+	/**
+	 * Gets the assignments with the {@link RawHttpEngine} from the urls resolved by
+	 * the scraper.
+	 */
+	private void getRawAssignments(URL[] urls) {
+		RawHttpEngine engine = new RawHttpEngine(scraper.getClient(), assembler.getRawLayout());
+
+		for (URL url : urls) {
+			RawPage page = null;
+
+			try {
+				page = engine.fetchAssignmentPage(url);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+
+			// Page is non null
+			if (page == null) {
+				throw new NullPointerException("Assignment Page is null");
+			}
+
+			addAssignments(assembler.assembleAssignments(page));
+		}
+	}
+
+	/**
+	 * Assembles the documents of every page. The pages are assembled at the same
+	 * time if an assembly pool is set, but the results are always in the order of
+	 * the pages.
+	 */
+	private CourseDocument[][] assembleDocuments(HtmlPage[] pages) {
+		checkPages(pages, "Document Page is null");
+
+		ParallelAssembly parallel = getParallelAssembly();
+		if (parallel != null) {
+			return parallel.assemblePages(pages, CourseDocument[].class, this::assembleDocuments);
+		}
+
+		CourseDocument[][] return_array = new CourseDocument[pages.length][];
+		for (int i = 0; i < pages.length; i++) {
+			return_array[i] = assembleDocuments(pages[i]);
+		}
+		return return_array;
+	}
+
+	/**
+	 * Assembles the assignments of every page. The pages are assembled at the same
+	 * time if an assembly pool is set, but the results are always in the order of
+	 * the pages.
+	 */
+	private CourseAssignment[][] assembleAssignments(HtmlPage[] pages) {
+		checkPages(pages, "Assignment Page is null");
+
+		ParallelAssembly parallel = getParallelAssembly();
+		if (parallel != null) {
+			return parallel.assemblePages(pages, CourseAssignment[].class, this::assembleAssignments);
+		}
+
+		CourseAssignment[][] return_array = new CourseAssignment[pages.length][];
+		for (int i = 0; i < pages.length; i++) {
+			return_array[i] = assembleAssignments(pages[i]);
+		}
+		return return_array;
+	}
+
+	/**
+	 * Assembles the documents of the page or reuses the ones assembled before if
+	 * the page hasn't changed.
+	 */
+	private CourseDocument[] assembleDocuments(HtmlPage page) {
+		ParallelAssembly parallel = getParallelAssembly();
+		return assemble(page, CourseDocument[].class,
+				parallel == null ? assembler::assembleDocuments : parallel::assembleDocuments);
+	}
 
-			String courseName = assembled[0].getCourseName();
+	/**
+	 * Assembles the assignments of the page or reuses the ones assembled before if
+	 * the page hasn't changed.
+	 */
+	private CourseAssignment[] assembleAssignments(HtmlPage page) {
+		ParallelAssembly parallel = getParallelAssembly();
+		return assemble(page, CourseAssignment[].class,
+				parallel == null ? assembler::assembleAssignments : parallel::assembleAssignments);
+	}
+
+	/**
+	 * Gets the parallel assembly of the assembly pool or null if there is none.
+	 */
+	private ParallelAssembly getParallelAssembly() {
+		ForkJoinPool pool = this.configuration.getAssemblyPool();
+		return pool == null ? null : new ParallelAssembly(assembler, pool, this.configuration.getRowsPerTask());
+	}
+
+	/**
+	 * Checks that every page was fetched before assembling them.
+	 */
+	private static void checkPages(HtmlPage[] pages, String message) {
+		for (HtmlPage page : pages) {
+
+			// Page is non null
+			if (page == null) {
+				throw new NullPointerException(message);
+			}
+		}
+	}
+
+	/**
+	 * Assembles the page or reuses the objects assembled before.
+	 * 
+	 * The scraper's {@link PageCache} is asked first since it knows the page
+	 * hasn't changed without hashing it. Otherwise, the body of the page is hashed
+	 * and checked against the {@link PageFingerprints} of the student.
+	 * 
+	 * @param page     The fetched course page
+	 * @param type     The type of the assembled objects
+	 * @param assemble The assembler's method for the page
+	 * 
+	 * @return The assembled objects
+	 */
+	private <T> T assemble(HtmlPage page, Class<T> type, Function<HtmlPage, T> assemble) {
+		URL url = page.getUrl();
+		PageCache cache = scraper.getPageCache();
+
+		T assembled = cache == null ? null : cache.getAssembled(url, type);
+		if (assembled != null) {
+			return assembled;
+		}
+
+		Long hash = hash(page);
+		if (hash != null) {
+			assembled = fingerprints.get(url, hash, type);
+		}
+
+		if (assembled == null) {
+			long start = System.nanoTime();
+			assembled = assemble.apply(page);
+			long nanos = System.nanoTime() - start;
+
+			if (hash != null) {
+				fingerprints.put(url, hash, assembled, nanos);
+			}
+		}
+
+		if (cache != null) {
+			cache.putAssembled(url, assembled);
+		}
+
+		return assembled;
+	}
 
+	/**
+	 * Gets the {@link BodyHash} of the body of the page or null if it can't be
+	 * read.
+	 */
+	private static Long hash(HtmlPage page) {
+		try (InputStream in = page.getWebResponse().getContentAsStream()) {
+			return BodyHash.of(in.readAllBytes());
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Adds the assembled documents of a course to the student.
+	 */
+	private void addDocuments(CourseDocument[] assembled) {
+		// Checking if the array is not length 0 or non null
+		if (assembled == null || assembled.length == 0)
+			return;
+
+		String courseName = assembled[0].getCourseName();
+
+		synchronized (student) {
+			// Assuming this is the first method called
+			student.addCourse(courseName, new Course(courseName));
+
+			// Adding the course documents
+			for (CourseDocument doc : assembled) {
+				student.assignDocument(courseName, doc);
+			}
+		}
+	}
+
+	/**
+	 * Adds the assembled assignments of a course to the student.
+	 */
+	private void addAssignments(CourseAssignment[] assembled) {
+		// Checking if the array is not length 0
+		if (assembled == null || assembled.length == 0)
+			return;
+
+		String courseName = assembled[0].getCourseName();
+
+		synchronized (student) {
 			// Assuming it is the first method called
 			student.addCourse(courseName, new Course(courseName));
 
@@ -106,13 +758,6 @@ public class StudentManager {
 			for (CourseAssignment assignment : assembled) {
 				student.assignAssignment(courseName, assignment);
 			}
-
-		}
-	}
-
-	public void getCalendarEvents() {
-		for (CalendarEvent event : assembler.assembleCalendarEvents(scraper.getHomePage())) {
-			student.assignCalendarEvent(event);
 		}
 	}
 
@@ -127,4 +772,12 @@ public class StudentManager {
 	public Assembler getAssembler() {
 		return this.assembler;
 	}
+
+	public StudentManagerConfiguration getConfiguration() {
+		return this.configuration;
+	}
+
+	public PageFingerprints getFingerprints() {
+		return this.fingerprints;
+	}
 }
@@ -0,0 +1,144 @@
+package students;
+
+import java.util.concurrent.ForkJoinPool;
+
+import assemblers.Assembler;
+import engines.Engine;
+import scrapers.CalendarModes;
+
+/**
+ * This class is used to configure how the {@link StudentManager} gets and
+ * assembles the data of a {@link Student}.
+ * 
+ * Every college can use its own configuration since a manager is created for
+ * every student.
+ */
+public class StudentManagerConfiguration {
+
+	/**
+	 * The engine used to read the Lea course pages. Uses HtmlUnit by default.
+	 */
+	private Engine engine = Engine.HTMLUNIT;
+
+	/**
+	 * The number of fetched course pages that can wait to be assembled. The pages
+	 * are fetched and assembled one after the other when it is 0.
+	 */
+	private int pipelineCapacity = 0;
+
+	/**
+	 * The pool assembling the course pages at the same time. The pages are
+	 * assembled one after the other when it is null.
+	 */
+	private ForkJoinPool assemblyPool;
+
+	/**
+	 * The maximum number of rows of a page assembled by a single task of the
+	 * assembly pool.
+	 */
+	private int rowsPerTask = 64;
+
+	/**
+	 * Remembers the calendar mode of every account. It is shared by the scrapers
+	 * of every manager using this configuration.
+	 */
+	private CalendarModes calendarModes = new CalendarModes();
+
+	/**
+	 * Sets the engine used to read the Lea course pages.
+	 * 
+	 * Note: The scraper and assembler of the manager need to support the engine.
+	 * 
+	 * @param engine The engine to use
+	 */
+	public void setEngine(Engine engine) {
+		if (engine == null) {
+			throw new NullPointerException("Engine is null");
+		}
+
+		this.engine = engine;
+	}
+
+	/**
+	 * Sets the number of fetched course pages that can wait to be assembled.
+	 * 
+	 * When it is greater than 0, the HtmlUnit engine gives every course page to the
+	 * assembler as soon as it is fetched and releases it right after. The next
+	 * pages are fetched while the current one is assembled and the fetching waits
+	 * when this many pages are waiting.
+	 * 
+	 * @param pipelineCapacity The capacity of the pipeline or 0 to turn it off
+	 */
+	public void setPipelineCapacity(int pipelineCapacity) {
+		if (pipelineCapacity < 0) {
+			throw new IllegalArgumentException("The pipeline capacity can't be negative");
+		}
+
+		this.pipelineCapacity = pipelineCapacity;
+	}
+
+	/**
+	 * Sets the pool assembling the course pages at the same time.
+	 * 
+	 * The pages are split between the threads of the pool and the large pages are
+	 * split again by ranges of rows. The results are added to the student in the
+	 * same order as without the pool. The pool can be shared by many managers.
+	 * 
+	 * Note: The {@link Assembler} needs to be stateless.
+	 * 
+	 * @param assemblyPool The pool to use or null to assemble the pages one after
+	 *                     the other
+	 */
+	public void setAssemblyPool(ForkJoinPool assemblyPool) {
+		this.assemblyPool = assemblyPool;
+	}
+
+	/**
+	 * Sets the maximum number of rows of a page assembled by a single task of the
+	 * assembly pool.
+	 * 
+	 * @param rowsPerTask The number of rows
+	 */
+	public void setRowsPerTask(int rowsPerTask) {
+		if (rowsPerTask < 1) {
+			throw new IllegalArgumentException("There must be at least 1 row per task");
+		}
+
+		this.rowsPerTask = rowsPerTask;
+	}
+
+	/**
+	 * Sets the memory of the calendar modes installed on the scraper of every
+	 * manager created with this configuration.
+	 * 
+	 * @param calendarModes The calendar modes to share
+	 */
+	public void setCalendarModes(CalendarModes calendarModes) {
+		if (calendarModes == null) {
+			throw new NullPointerException("Calendar Modes is null");
+		}
+
+		this.calendarModes = calendarModes;
+	}
+
+	// Getters
+	public Engine getEngine() {
+		return this.engine;
+	}
+
+	public int getPipelineCapacity() {
+		return this.pipelineCapacity;
+	}
+
+	public ForkJoinPool getAssemblyPool() {
+		return this.assemblyPool;
+	}
+
+	public int getRowsPerTask() {
+		return this.rowsPerTask;
+	}
+
+	public CalendarModes getCalendarModes() {
+		return this.calendarModes;
+	}
+}
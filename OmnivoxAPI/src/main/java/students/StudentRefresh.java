@@ -0,0 +1,81 @@
+package students;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class holds the futures of a refresh started by
+ * {@link StudentManager#refreshAsync}.
+ *
+ * Every stage has its own future so they can be composed separately. The
+ * future of the student completes when every stage is done, or fails as soon as
+ * one of them fails. If it fails, is cancelled or times out (Ex: with
+ * {@link CompletableFuture#orTimeout}), the stages still running are cancelled.
+ */
+public final class StudentRefresh {
+
+	private final CompletableFuture<Void> login;
+	private final CompletableFuture<Student> documents;
+	private final CompletableFuture<Student> assignments;
+	private final CompletableFuture<Student> calendarEvents;
+	private final CompletableFuture<Student> student;
+
+	/**
+	 * The only constructor for the Student Refresh.
+	 */
+	StudentRefresh(CompletableFuture<Void> login, CompletableFuture<Student> documents,
+			CompletableFuture<Student> assignments, CompletableFuture<Student> calendarEvents,
+			CompletableFuture<Student> student) {
+		this.login = login;
+		this.documents = documents;
+		this.assignments = assignments;
+		this.calendarEvents = calendarEvents;
+		this.student = student;
+
+		// Stopping the stages when the refresh is given up
+		student.whenComplete((result, error) -> {
+			if (error != null) {
+				cancel();
+			}
+		});
+	}
+
+	/**
+	 * Cancels every stage that isn't done. The stages that are running are
+	 * interrupted.
+	 */
+	public void cancel() {
+		this.login.cancel(true);
+		this.documents.cancel(true);
+		this.assignments.cancel(true);
+		this.calendarEvents.cancel(true);
+		this.student.cancel(true);
+	}
+
+	// Getters
+	/**
+	 * Gets the future of the login. It is already completed if the refresh didn't
+	 * log in.
+	 */
+	public CompletableFuture<Void> getLogin() {
+		return this.login;
+	}
+
+	public CompletableFuture<Student> getDocuments() {
+		return this.documents;
+	}
+
+	public CompletableFuture<Student> getAssignments() {
+		return this.assignments;
+	}
+
+	public CompletableFuture<Student> getCalendarEvents() {
+		return this.calendarEvents;
+	}
+
+	/**
+	 * Gets the future completed with the student once every stage is done.
+	 */
+	public CompletableFuture<Student> getStudent() {
+		return this.student;
+	}
+}